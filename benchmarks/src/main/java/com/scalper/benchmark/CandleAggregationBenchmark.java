@@ -0,0 +1,58 @@
+package com.scalper.benchmark;
+
+import com.scalper.model.entity.MarketData;
+import com.scalper.service.market.CandleAggregator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agrégation M1 -> M5/M30 sur une journée complète (résultat rapporté par bougie M1)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CandleAggregationBenchmark {
+
+    private static final int MINUTES_PER_DAY = 1440;
+
+    private MarketData[] day;
+
+    @Setup
+    public void setUp() {
+        day = new MarketData[MINUTES_PER_DAY];
+        LocalDateTime start = LocalDateTime.of(2025, 1, 15, 0, 0);
+        long close = 108_500;
+        for (int i = 0; i < MINUTES_PER_DAY; i++) {
+            long open = close;
+            close = open + (i % 7) - 3;
+            day[i] = MarketData.builder()
+                    .symbol("EURUSD")
+                    .timeframe("M1")
+                    .timestamp(start.plusMinutes(i))
+                    .openPrice(BigDecimal.valueOf(open, 5))
+                    .highPrice(BigDecimal.valueOf(Math.max(open, close) + 4, 5))
+                    .lowPrice(BigDecimal.valueOf(Math.min(open, close) - 4, 5))
+                    .closePrice(BigDecimal.valueOf(close, 5))
+                    .volume(1_000L + i)
+                    .sessionName("LONDON")
+                    .build();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MINUTES_PER_DAY)
+    public void aggregateDay(Blackhole blackhole) {
+        CandleAggregator aggregator = new CandleAggregator(List.of("M5", "M30"));
+        for (MarketData m1 : day) {
+            blackhole.consume(aggregator.onM1Candle(m1));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.scalper.benchmark;
+
+import com.scalper.model.entity.IntradayLevel;
+import com.scalper.model.entity.MarketData;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calculs par bougie du chemin chaud : range, prix typique, breakout, distance aux niveaux
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CandleMathBenchmark {
+
+    @Param({"EURUSD", "XAUUSD"})
+    private String symbol;
+
+    private MarketData candle;
+    private IntradayLevel level;
+    private BigDecimal price;
+
+    @Setup
+    public void setUp() {
+        boolean gold = "XAUUSD".equals(symbol);
+        candle = MarketData.builder()
+                .symbol(symbol)
+                .timeframe("M1")
+                .timestamp(LocalDateTime.of(2025, 1, 15, 8, 30))
+                .openPrice(new BigDecimal(gold ? "1950.12000" : "1.08500"))
+                .highPrice(new BigDecimal(gold ? "1951.40000" : "1.08612"))
+                .lowPrice(new BigDecimal(gold ? "1949.85000" : "1.08471"))
+                .closePrice(new BigDecimal(gold ? "1951.02000" : "1.08590"))
+                .volume(1_250L)
+                .build();
+        level = IntradayLevel.builder()
+                .symbol(symbol)
+                .levelType(IntradayLevel.LevelType.ASIA_HIGH)
+                .price(new BigDecimal(gold ? "1952.00000" : "1.08650"))
+                .build();
+        price = candle.getClosePrice();
+    }
+
+    @Benchmark
+    public BigDecimal rangeInPips() {
+        return candle.getRangeInPips();
+    }
+
+    @Benchmark
+    public BigDecimal typicalPrice() {
+        return candle.getTypicalPrice();
+    }
+
+    @Benchmark
+    public boolean breakoutCandle() {
+        return candle.isBreakoutCandle();
+    }
+
+    @Benchmark
+    public Integer levelDistanceInPips() {
+        return level.getDistanceInPips(price);
+    }
+
+    @Benchmark
+    public boolean levelPriceNear() {
+        return level.isPriceNear(price, 5);
+    }
+}
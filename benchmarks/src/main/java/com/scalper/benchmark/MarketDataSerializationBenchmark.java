@@ -0,0 +1,138 @@
+package com.scalper.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.scalper.config.MarketBinaryRedisSerializer;
+import com.scalper.model.entity.MarketData;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sérialisation de MarketData : JSON API (ObjectMapper), JSON Redis (GenericJackson2Json)
+ * et codec binaire Redis, pour une bougie et un lot de 100 bougies
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MarketDataSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private GenericJackson2JsonRedisSerializer redisJson;
+    private MarketBinaryRedisSerializer redisBinary;
+
+    private MarketData candle;
+    private List<MarketData> candles;
+    private byte[] candleJson;
+    private byte[] candleBinary;
+    private byte[] candlesJson;
+    private byte[] candlesBinary;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        // Configuration identique à RedisConfig
+        redisJson = new GenericJackson2JsonRedisSerializer();
+        redisJson.configure(mapper -> mapper
+                .registerModule(new JavaTimeModule())
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false));
+        redisBinary = new MarketBinaryRedisSerializer(redisJson);
+
+        LocalDateTime start = LocalDateTime.of(2025, 1, 15, 8, 0);
+        candles = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            candles.add(candle(start.plusMinutes(i), 108_500 + i));
+        }
+        candle = candles.get(0);
+
+        candleJson = redisJson.serialize(candle);
+        candleBinary = redisBinary.serialize(candle);
+        candlesJson = redisJson.serialize(candles);
+        candlesBinary = redisBinary.serialize(candles);
+
+        // Taille d'entrée Redis, à lire à côté des ns/op
+        System.out.printf("Octets par bougie - JSON Redis: %d, binaire: %d (lot de %d: %d / %d)%n",
+                candleJson.length, candleBinary.length, candles.size(), candlesJson.length, candlesBinary.length);
+    }
+
+    @Benchmark
+    public byte[] apiJsonSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(candle);
+    }
+
+    @Benchmark
+    public byte[] redisJsonSerialize() {
+        return redisJson.serialize(candle);
+    }
+
+    @Benchmark
+    public byte[] redisBinarySerialize() {
+        return redisBinary.serialize(candle);
+    }
+
+    @Benchmark
+    public Object redisJsonDeserialize() {
+        return redisJson.deserialize(candleJson);
+    }
+
+    @Benchmark
+    public Object redisBinaryDeserialize() {
+        return redisBinary.deserialize(candleBinary);
+    }
+
+    @Benchmark
+    public byte[] redisJsonSerializeBatch() {
+        return redisJson.serialize(candles);
+    }
+
+    @Benchmark
+    public byte[] redisBinarySerializeBatch() {
+        return redisBinary.serialize(candles);
+    }
+
+    @Benchmark
+    public Object redisJsonDeserializeBatch() {
+        return redisJson.deserialize(candlesJson);
+    }
+
+    @Benchmark
+    public Object redisBinaryDeserializeBatch() {
+        return redisBinary.deserialize(candlesBinary);
+    }
+
+    private static MarketData candle(LocalDateTime timestamp, long closeTicks) {
+        return MarketData.builder()
+                .symbol("EURUSD")
+                .timeframe("M1")
+                .timestamp(timestamp)
+                .openPrice(BigDecimal.valueOf(closeTicks - 3, 5))
+                .highPrice(BigDecimal.valueOf(closeTicks + 6, 5))
+                .lowPrice(BigDecimal.valueOf(closeTicks - 8, 5))
+                .closePrice(BigDecimal.valueOf(closeTicks, 5))
+                .volume(1_250L)
+                .sessionName("LONDON")
+                .sessionProgress(new BigDecimal("0.42"))
+                .vwapSession(BigDecimal.valueOf(closeTicks - 2, 5))
+                .distanceToVwapPips(1)
+                .volatilityLevel("NORMAL")
+                .majorNewsProximityMinutes(120)
+                .dataSource("SIMULATOR")
+                .spreadPips(new BigDecimal("0.5"))
+                .isMarketOpen(true)
+                .build();
+    }
+}
@@ -218,6 +218,85 @@ CREATE TABLE news_alerts (
 CREATE INDEX idx_news_alerts_time_impact ON news_alerts (event_time DESC, impact_level);
 CREATE INDEX idx_news_alerts_currency ON news_alerts (currency, event_time DESC);
 
+-- ===============================
+-- 5 bis. TABLE DES BOUGIES OHLCV (entité MarketData)
+-- ===============================
+-- Partitionnée par jour sur timestamp : élagage des partitions sur toutes les requêtes
+-- filtrées par date, rétention par DETACH/DROP (MarketDataPartitionService)
+-- Séquence à allocation groupée (allocationSize = 50 côté JPA) pour le batching des INSERT
+CREATE SEQUENCE market_data_sessions_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE market_data_sessions (
+    id BIGINT NOT NULL,
+    symbol VARCHAR(10) NOT NULL,
+    timeframe VARCHAR(5) NOT NULL,
+    timestamp TIMESTAMP NOT NULL,
+
+    -- OHLCV
+    open_price DECIMAL(10,5) NOT NULL,
+    high_price DECIMAL(10,5) NOT NULL,
+    low_price DECIMAL(10,5) NOT NULL,
+    close_price DECIMAL(10,5) NOT NULL,
+    volume BIGINT NOT NULL DEFAULT 0,
+
+    -- Enrichissement sessions
+    session_name VARCHAR(10),
+    session_progress DECIMAL(3,2),
+    vwap_session DECIMAL(10,5),
+    distance_to_vwap_pips INTEGER,
+    distance_to_session_high_pips INTEGER,
+    distance_to_session_low_pips INTEGER,
+    major_news_proximity_minutes INTEGER,
+    volatility_level VARCHAR(10),
+
+    -- Métadonnées
+    data_source VARCHAR(15) DEFAULT 'SIMULATOR',
+    spread_pips DECIMAL(4,1),
+    is_market_open BOOLEAN DEFAULT TRUE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    -- La clé de partitionnement doit faire partie de la clé primaire
+    PRIMARY KEY (id, timestamp),
+
+    -- Une bougie par (symbole, timeframe, instant) : cible de l'upsert INSERT ... ON CONFLICT
+    CONSTRAINT uk_market_data_candle UNIQUE (symbol, timeframe, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+-- Partitions journalières initiales : 30 jours d'historique + 7 jours à venir
+-- (les suivantes sont créées par l'application)
+DO $$
+DECLARE
+    d DATE;
+BEGIN
+    FOR d IN SELECT generate_series(CURRENT_DATE - 30, CURRENT_DATE + 7, INTERVAL '1 day')::DATE LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF market_data_sessions FOR VALUES FROM (%L) TO (%L)',
+                       'market_data_sessions_p' || to_char(d, 'YYYYMMDD'), d, d + 1);
+    END LOOP;
+END $$;
+
+CREATE INDEX idx_market_data_symbol_timeframe ON market_data_sessions (symbol, timeframe);
+CREATE INDEX idx_market_data_timestamp ON market_data_sessions (timestamp DESC);
+CREATE INDEX idx_market_data_session ON market_data_sessions (session_name, timestamp DESC);
+CREATE INDEX idx_market_data_keyset ON market_data_sessions (symbol, timeframe, timestamp, id);
+
+-- Points de reprise du backfill historique (HistoricalBackfillService) : un enregistrement par chunk terminé
+CREATE TABLE market_data_backfill_checkpoints (
+    symbol VARCHAR(10) NOT NULL,
+    timeframe VARCHAR(5) NOT NULL,
+    chunk_start TIMESTAMP NOT NULL,
+    chunk_end TIMESTAMP NOT NULL,
+    candles INTEGER NOT NULL,
+    completed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (symbol, timeframe, chunk_start)
+);
+
+-- Jours d'historique chargés pour le backtesting (import CSV, backfill, replay) : exclus de la rétention
+CREATE TABLE market_data_retained_days (
+    day DATE PRIMARY KEY,
+    source VARCHAR(15) NOT NULL,
+    retained_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
 -- ===============================
 -- 6. DONNÉES DE TEST INITIALES
 -- ===============================
@@ -286,10 +365,12 @@ COMMENT ON TABLE intraday_levels IS 'Niveaux clés intraday avec tracking des ca
 COMMENT ON TABLE session_breakouts IS 'Breakouts des niveaux entre sessions avec suivi post-breakout';
 COMMENT ON TABLE trading_signals_enriched IS 'Signaux de trading avec contexte multi-sessions et IA';
 COMMENT ON TABLE news_alerts IS 'Alertes économiques reçues de n8n avec impact sur trading';
+COMMENT ON TABLE market_data_sessions IS 'Bougies OHLCV multi-timeframes (M1 ingérées, M5/M30 agrégées)';
 
 -- Statistiques pour optimisation
 ANALYZE trading_sessions;
 ANALYZE intraday_levels;
 ANALYZE session_breakouts;
 ANALYZE trading_signals_enriched;
-ANALYZE news_alerts;
\ No newline at end of file
+ANALYZE news_alerts;
+ANALYZE market_data_sessions;
\ No newline at end of file
@@ -0,0 +1,393 @@
+package com.scalper.config;
+
+import com.scalper.model.entity.IntradayLevel;
+import com.scalper.model.entity.MarketData;
+import com.scalper.model.price.Instrument;
+import com.scalper.service.market.SessionLevelSnapshot;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sérialiseur Redis binaire compact pour les types chauds (MarketData, listes de bougies,
+ * snapshots IntradayLevel et SessionLevelSnapshot), délégation JSON pour le reste.
+ *
+ * Format : [version][type][charge utile]
+ * - prix en ticks fixes de l'instrument (pas de BigDecimal en texte), varints zigzag,
+ *   high/low/close encodés en delta de l'open
+ * - champs optionnels signalés par un masque de présence
+ * Les valeurs JSON déjà en cache (premier octet '{' ou '[') restent lisibles.
+ */
+public class MarketBinaryRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte VERSION = 1;
+
+    private static final byte TYPE_MARKET_DATA = 1;
+    private static final byte TYPE_MARKET_DATA_LIST = 2;
+    private static final byte TYPE_INTRADAY_LEVEL = 3;
+    private static final byte TYPE_SESSION_LEVELS = 4;
+
+    private static final Instrument[] INSTRUMENTS = Instrument.values();
+    private static final IntradayLevel.LevelType[] LEVEL_TYPES = IntradayLevel.LevelType.values();
+    private static final IntradayLevel.LevelStatus[] LEVEL_STATUSES = IntradayLevel.LevelStatus.values();
+
+    private final RedisSerializer<Object> fallback;
+
+    public MarketBinaryRedisSerializer(RedisSerializer<Object> fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value instanceof MarketData candle) {
+            Writer out = header(TYPE_MARKET_DATA, 64);
+            writeMarketData(out, candle);
+            return out.toByteArray();
+        }
+        if (value instanceof IntradayLevel level) {
+            Writer out = header(TYPE_INTRADAY_LEVEL, 64);
+            writeIntradayLevel(out, level);
+            return out.toByteArray();
+        }
+        if (value instanceof SessionLevelSnapshot snapshot) {
+            Writer out = header(TYPE_SESSION_LEVELS, 48);
+            writeSessionLevels(out, snapshot);
+            return out.toByteArray();
+        }
+        if (value instanceof List<?> list && isMarketDataList(list)) {
+            Writer out = header(TYPE_MARKET_DATA_LIST, 16 + list.size() * 40);
+            out.varLong(list.size());
+            for (Object candle : list) {
+                writeMarketData(out, (MarketData) candle);
+            }
+            return out.toByteArray();
+        }
+        return fallback.serialize(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != VERSION) {
+            return fallback.deserialize(bytes); // JSON historique
+        }
+        if (bytes.length < 2) {
+            throw new SerializationException("Valeur binaire tronquée");
+        }
+
+        Reader in = new Reader(bytes, 2);
+        return switch (bytes[1]) {
+            case TYPE_MARKET_DATA -> readMarketData(in);
+            case TYPE_MARKET_DATA_LIST -> {
+                int size = (int) in.varLong();
+                List<MarketData> candles = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    candles.add(readMarketData(in));
+                }
+                yield candles;
+            }
+            case TYPE_INTRADAY_LEVEL -> readIntradayLevel(in);
+            case TYPE_SESSION_LEVELS -> readSessionLevels(in);
+            default -> throw new SerializationException("Type binaire inconnu: " + bytes[1]);
+        };
+    }
+
+    // ========== MarketData ==========
+
+    private static void writeMarketData(Writer out, MarketData candle) {
+        Instrument instrument = Instrument.of(candle.getSymbol());
+        long open = instrument.toTicks(candle.getOpenPrice());
+
+        int presence = 0;
+        if (candle.getId() != null) presence |= 1;
+        if (candle.getSessionName() != null) presence |= 1 << 1;
+        if (candle.getSessionProgress() != null) presence |= 1 << 2;
+        if (candle.getVwapSession() != null) presence |= 1 << 3;
+        if (candle.getDistanceToVwapPips() != null) presence |= 1 << 4;
+        if (candle.getDistanceToSessionHighPips() != null) presence |= 1 << 5;
+        if (candle.getDistanceToSessionLowPips() != null) presence |= 1 << 6;
+        if (candle.getMajorNewsProximityMinutes() != null) presence |= 1 << 7;
+        if (candle.getVolatilityLevel() != null) presence |= 1 << 8;
+        if (candle.getDataSource() != null) presence |= 1 << 9;
+        if (candle.getSpreadPips() != null) presence |= 1 << 10;
+        if (candle.getIsMarketOpen() != null) presence |= 1 << 11;
+        if (Boolean.TRUE.equals(candle.getIsMarketOpen())) presence |= 1 << 12;
+        if (candle.getCreatedAt() != null) presence |= 1 << 13;
+
+        out.writeByte(instrument.ordinal());
+        out.string(candle.getTimeframe());
+        out.varLong(candle.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+        out.varLong(open);
+        out.varLong(instrument.toTicks(candle.getHighPrice()) - open);
+        out.varLong(instrument.toTicks(candle.getLowPrice()) - open);
+        out.varLong(instrument.toTicks(candle.getClosePrice()) - open);
+        out.varLong(candle.getVolume() != null ? candle.getVolume() : 0L);
+        out.varLong(presence);
+
+        if (candle.getId() != null) out.varLong(candle.getId());
+        if (candle.getSessionName() != null) out.string(candle.getSessionName());
+        if (candle.getSessionProgress() != null) out.varLong(unscaled(candle.getSessionProgress(), 2));
+        if (candle.getVwapSession() != null) out.varLong(instrument.toTicks(candle.getVwapSession()) - open);
+        if (candle.getDistanceToVwapPips() != null) out.varLong(candle.getDistanceToVwapPips());
+        if (candle.getDistanceToSessionHighPips() != null) out.varLong(candle.getDistanceToSessionHighPips());
+        if (candle.getDistanceToSessionLowPips() != null) out.varLong(candle.getDistanceToSessionLowPips());
+        if (candle.getMajorNewsProximityMinutes() != null) out.varLong(candle.getMajorNewsProximityMinutes());
+        if (candle.getVolatilityLevel() != null) out.string(candle.getVolatilityLevel());
+        if (candle.getDataSource() != null) out.string(candle.getDataSource());
+        if (candle.getSpreadPips() != null) out.varLong(unscaled(candle.getSpreadPips(), 1));
+        if (candle.getCreatedAt() != null) out.varLong(epochMillis(candle.getCreatedAt()));
+    }
+
+    private static MarketData readMarketData(Reader in) {
+        Instrument instrument = INSTRUMENTS[in.readByte()];
+        String timeframe = in.string();
+        LocalDateTime timestamp = LocalDateTime.ofEpochSecond(in.varLong(), 0, ZoneOffset.UTC);
+        long open = in.varLong();
+        long high = open + in.varLong();
+        long low = open + in.varLong();
+        long close = open + in.varLong();
+        long volume = in.varLong();
+        int presence = (int) in.varLong();
+
+        MarketData candle = MarketData.builder()
+                .symbol(instrument.name())
+                .timeframe(timeframe)
+                .timestamp(timestamp)
+                .openPrice(instrument.toPrice(open))
+                .highPrice(instrument.toPrice(high))
+                .lowPrice(instrument.toPrice(low))
+                .closePrice(instrument.toPrice(close))
+                .volume(volume)
+                .dataSource(null)
+                .isMarketOpen(null)
+                .createdAt(null)
+                .build();
+
+        if ((presence & 1) != 0) candle.setId(in.varLong());
+        if ((presence & 1 << 1) != 0) candle.setSessionName(in.string());
+        if ((presence & 1 << 2) != 0) candle.setSessionProgress(BigDecimal.valueOf(in.varLong(), 2));
+        if ((presence & 1 << 3) != 0) candle.setVwapSession(instrument.toPrice(open + in.varLong()));
+        if ((presence & 1 << 4) != 0) candle.setDistanceToVwapPips((int) in.varLong());
+        if ((presence & 1 << 5) != 0) candle.setDistanceToSessionHighPips((int) in.varLong());
+        if ((presence & 1 << 6) != 0) candle.setDistanceToSessionLowPips((int) in.varLong());
+        if ((presence & 1 << 7) != 0) candle.setMajorNewsProximityMinutes((int) in.varLong());
+        if ((presence & 1 << 8) != 0) candle.setVolatilityLevel(in.string());
+        if ((presence & 1 << 9) != 0) candle.setDataSource(in.string());
+        if ((presence & 1 << 10) != 0) candle.setSpreadPips(BigDecimal.valueOf(in.varLong(), 1));
+        if ((presence & 1 << 11) != 0) candle.setIsMarketOpen((presence & 1 << 12) != 0);
+        if ((presence & 1 << 13) != 0) candle.setCreatedAt(fromEpochMillis(in.varLong()));
+        return candle;
+    }
+
+    // ========== IntradayLevel (snapshot sans relations) ==========
+
+    private static void writeIntradayLevel(Writer out, IntradayLevel level) {
+        Instrument instrument = Instrument.of(level.getSymbol());
+        long price = instrument.toTicks(level.getPrice());
+
+        int presence = 0;
+        if (level.getId() != null) presence |= 1;
+        if (level.getBrokenAt() != null) presence |= 1 << 1;
+        if (level.getBrokenBySession() != null) presence |= 1 << 2;
+        if (level.getBrokenPrice() != null) presence |= 1 << 3;
+        if (level.getLastRetestTime() != null) presence |= 1 << 4;
+        if (level.getBreakProbability() != null) presence |= 1 << 5;
+
+        out.writeByte(instrument.ordinal());
+        out.writeByte(level.getLevelType().ordinal());
+        out.writeByte(level.getStatus().ordinal());
+        out.varLong(price);
+        out.varLong(epochMillis(level.getEstablishmentTime()));
+        out.varLong(unscaled(level.getImportanceScore(), 2));
+        out.varLong(level.getTouchCount() != null ? level.getTouchCount() : 0);
+        out.varLong(level.getMaxRejectionPips() != null ? level.getMaxRejectionPips() : 0);
+        out.varLong(level.getVolumeAtEstablishment() != null ? level.getVolumeAtEstablishment() : 0L);
+        out.varLong(level.getRetestCount() != null ? level.getRetestCount() : 0);
+        out.varLong(presence);
+
+        if (level.getId() != null) out.varLong(level.getId());
+        if (level.getBrokenAt() != null) out.varLong(epochMillis(level.getBrokenAt()));
+        if (level.getBrokenBySession() != null) out.string(level.getBrokenBySession());
+        if (level.getBrokenPrice() != null) out.varLong(instrument.toTicks(level.getBrokenPrice()) - price);
+        if (level.getLastRetestTime() != null) out.varLong(epochMillis(level.getLastRetestTime()));
+        if (level.getBreakProbability() != null) out.varLong(unscaled(level.getBreakProbability(), 2));
+    }
+
+    private static IntradayLevel readIntradayLevel(Reader in) {
+        Instrument instrument = INSTRUMENTS[in.readByte()];
+        IntradayLevel.LevelType levelType = LEVEL_TYPES[in.readByte()];
+        IntradayLevel.LevelStatus status = LEVEL_STATUSES[in.readByte()];
+        long price = in.varLong();
+
+        IntradayLevel level = IntradayLevel.builder()
+                .symbol(instrument.name())
+                .levelType(levelType)
+                .status(status)
+                .price(instrument.toPrice(price))
+                .establishmentTime(fromEpochMillis(in.varLong()))
+                .importanceScore(BigDecimal.valueOf(in.varLong(), 2))
+                .touchCount((int) in.varLong())
+                .maxRejectionPips((int) in.varLong())
+                .volumeAtEstablishment(in.varLong())
+                .retestCount((int) in.varLong())
+                .breakProbability(null)
+                .build();
+        int presence = (int) in.varLong();
+
+        if ((presence & 1) != 0) level.setId(in.varLong());
+        if ((presence & 1 << 1) != 0) level.setBrokenAt(fromEpochMillis(in.varLong()));
+        if ((presence & 1 << 2) != 0) level.setBrokenBySession(in.string());
+        if ((presence & 1 << 3) != 0) level.setBrokenPrice(instrument.toPrice(price + in.varLong()));
+        if ((presence & 1 << 4) != 0) level.setLastRetestTime(fromEpochMillis(in.varLong()));
+        if ((presence & 1 << 5) != 0) level.setBreakProbability(BigDecimal.valueOf(in.varLong(), 2));
+        return level;
+    }
+
+    // ========== SessionLevelSnapshot ==========
+
+    private static void writeSessionLevels(Writer out, SessionLevelSnapshot snapshot) {
+        out.writeByte(Instrument.of(snapshot.symbol()).ordinal());
+        out.string(snapshot.sessionName());
+        out.varLong(snapshot.sessionDate() != null ? snapshot.sessionDate().toEpochDay() : Long.MIN_VALUE);
+        out.varLong(snapshot.highTicks());
+        out.varLong(snapshot.lowTicks() - snapshot.highTicks());
+        out.varLong(snapshot.vwapTicks() - snapshot.highTicks());
+        out.varLong(snapshot.totalVolume());
+        out.varLong(snapshot.candleCount());
+    }
+
+    private static SessionLevelSnapshot readSessionLevels(Reader in) {
+        Instrument instrument = INSTRUMENTS[in.readByte()];
+        String sessionName = in.string();
+        long epochDay = in.varLong();
+        long high = in.varLong();
+        long low = high + in.varLong();
+        long vwap = high + in.varLong();
+        return new SessionLevelSnapshot(instrument.name(), sessionName,
+                epochDay != Long.MIN_VALUE ? LocalDate.ofEpochDay(epochDay) : null,
+                high, low, vwap, in.varLong(), in.varLong());
+    }
+
+    // ========== Utilitaires ==========
+
+    private static Writer header(byte type, int capacity) {
+        Writer out = new Writer(capacity);
+        out.writeByte(VERSION);
+        out.writeByte(type);
+        return out;
+    }
+
+    private static boolean isMarketDataList(List<?> list) {
+        if (list.isEmpty()) {
+            return false;
+        }
+        for (Object element : list) {
+            if (!(element instanceof MarketData)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long unscaled(BigDecimal value, int scale) {
+        return value.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime fromEpochMillis(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L),
+                (int) Math.floorMod(millis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Tampon d'écriture extensible (varints zigzag LEB128)
+     */
+    private static final class Writer {
+        private byte[] buffer;
+        private int position;
+
+        Writer(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void varLong(long value) {
+            long zigzag = (value << 1) ^ (value >> 63);
+            ensure(10);
+            while ((zigzag & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            buffer[position++] = (byte) zigzag;
+        }
+
+        void string(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            varLong(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensure(int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        int readByte() {
+            return buffer[position++] & 0xFF;
+        }
+
+        long varLong() {
+            long zigzag = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer[position++];
+                zigzag |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+
+        String string() {
+            int length = (int) varLong();
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.scalper.config;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
@@ -19,9 +21,14 @@ public class RedisConfig {
         template.setKeySerializer(new StringRedisSerializer());
         template.setHashKeySerializer(new StringRedisSerializer());
 
-        // Sérialiseur pour les valeurs (JSON)
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
-        template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
+        // Sérialiseur pour les valeurs (JSON) - dates Java 8 et champs calculés tolérés en lecture
+        GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer();
+        jsonSerializer.configure(mapper -> mapper
+                .registerModule(new JavaTimeModule())
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false));
+        // Types chauds (bougies, niveaux) en binaire compact, le reste en JSON
+        template.setValueSerializer(new MarketBinaryRedisSerializer(jsonSerializer));
+        template.setHashValueSerializer(jsonSerializer);
 
         template.afterPropertiesSet();
         return template;
@@ -0,0 +1,40 @@
+package com.scalper.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration du simulateur de marché (scalper.broker.simulation)
+ *
+ * @param seed            graine des générateurs, 0 = tirée au démarrage (journalisée)
+ * @param speedMultiplier replay : minutes simulées par minute réelle, 0 = aussi vite que la persistance absorbe
+ */
+@ConfigurationProperties(prefix = "scalper.broker.simulation")
+public record SimulationProperties(@DefaultValue("0") long seed,
+                                   @DefaultValue("0") double speedMultiplier,
+                                   @DefaultValue Replay replay,
+                                   @DefaultValue Ticks ticks) {
+
+    /**
+     * Replay [from, to) au démarrage (dates ISO, vides = 14 jours jusqu'au début du jour courant)
+     *
+     * @param maxBacklog bougies en file d'écriture au-delà desquelles le replay attend
+     */
+    public record Replay(@DefaultValue("false") boolean enabled,
+                         @DefaultValue("") String from,
+                         @DefaultValue("") String to,
+                         @DefaultValue("5000") int maxBacklog) {
+    }
+
+    /**
+     * Mode tick : flux bid/ask par symbole vers TickCandleBuilder au lieu des M1 générées
+     *
+     * @param burstMultiplier facteur de débit pendant un choc news
+     * @param burstSeconds    durée d'un choc news
+     */
+    public record Ticks(@DefaultValue("false") boolean enabled,
+                        @DefaultValue("1000") int ticksPerSecond,
+                        @DefaultValue("5") double burstMultiplier,
+                        @DefaultValue("10") int burstSeconds) {
+    }
+}
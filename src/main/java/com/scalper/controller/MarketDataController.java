@@ -1,9 +1,21 @@
 package com.scalper.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.scalper.model.entity.MarketData;
+import com.scalper.repository.CandleBar;
 import com.scalper.repository.MarketDataRepository;
 import com.scalper.service.MarketDataService;
+import com.scalper.service.broker.BackfillReport;
 import com.scalper.service.broker.BrokerConnectionService;
+import com.scalper.service.broker.HistoricalBackfillService;
+import com.scalper.service.market.CandleFileFormat;
+import com.scalper.service.market.CandleFileImporter;
+import com.scalper.service.market.CandleHistoryExporter;
+import com.scalper.service.market.CandleImportReport;
+import com.scalper.service.market.CandleSeriesWriter;
+import com.scalper.service.market.PriceGap;
+import com.scalper.service.market.SwingPivot;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -12,11 +24,17 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Pattern;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
@@ -33,9 +51,17 @@ import java.util.concurrent.CompletableFuture;
 @Tag(name = "Market Data", description = "API pour données de marché temps réel et historiques")
 public class MarketDataController {
 
+    private static final MediaType CANDLES_JSON = MediaType.parseMediaType(CandleSeriesWriter.JSON_MEDIA_TYPE);
+    private static final MediaType CANDLES_BINARY = MediaType.parseMediaType(CandleSeriesWriter.BINARY_MEDIA_TYPE);
+
     private final MarketDataService marketDataService;
     private final Optional<BrokerConnectionService> brokerConnectionService;
+    private final Optional<HistoricalBackfillService> historicalBackfillService;
     private final MarketDataRepository marketDataRepository;
+    private final CandleHistoryExporter candleHistoryExporter;
+    private final CandleSeriesWriter candleSeriesWriter;
+    private final CandleFileImporter candleFileImporter;
+    private final ObjectMapper objectMapper;
 
     // ========== Endpoints Prix Temps Réel ==========
 
@@ -65,8 +91,10 @@ public class MarketDataController {
     }
 
     @GetMapping("/candles/{symbol}/{timeframe}")
-    @Operation(summary = "Bougies historiques", description = "Récupère les dernières bougies pour un symbole et timeframe")
-    public ResponseEntity<List<MarketData>> getLatestCandles(
+    @Operation(summary = "Bougies historiques", description = "Récupère les dernières bougies pour un symbole et timeframe. "
+            + "Accept: " + CandleSeriesWriter.JSON_MEDIA_TYPE + " (colonnes t/o/h/l/c/v) ou "
+            + CandleSeriesWriter.BINARY_MEDIA_TYPE + " (bloc int64 little-endian) pour les graphiques")
+    public ResponseEntity<StreamingResponseBody> getLatestCandles(
             @Parameter(description = "Symbole", example = "EURUSD")
             @PathVariable @Pattern(regexp = "^(EURUSD|XAUUSD)$") String symbol,
 
@@ -74,19 +102,36 @@ public class MarketDataController {
             @PathVariable @Pattern(regexp = "^(M1|M5|M30)$") String timeframe,
 
             @Parameter(description = "Nombre de bougies (1-1000)", example = "100")
-            @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit) {
+            @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit,
+
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
 
         try {
+            // Format colonnes négocié explicitement (les clients JSON existants ne changent pas)
+            MediaType format = negotiateCandleFormat(accept);
             List<MarketData> candles = marketDataService.getLatestCandles(symbol, timeframe, limit);
 
             if (candles.isEmpty()) {
                 log.debug("Aucune bougie disponible pour {} {} (limit: {})", symbol, timeframe, limit);
-                return ResponseEntity.noContent().build();
+                return ResponseEntity.noContent().varyBy(HttpHeaders.ACCEPT).build();
             }
 
-            log.debug("Retour de {} bougies {} {} (demandé: {})",
-                    candles.size(), symbol, timeframe, limit);
-            return ResponseEntity.ok(candles);
+            log.debug("Retour de {} bougies {} {} au format {} (demandé: {})",
+                    candles.size(), symbol, timeframe, format, limit);
+
+            // Toutes les branches passent par StreamingResponseBody : le type déclaré doit rester
+            // ResponseEntity<StreamingResponseBody> pour que Spring MVC l'écrive au lieu de le sérialiser
+            StreamingResponseBody body;
+            if (format.equalsTypeAndSubtype(CANDLES_BINARY)) {
+                body = out -> candleSeriesWriter.writeBinary(symbol, candles, out);
+            } else if (format.equalsTypeAndSubtype(CANDLES_JSON)) {
+                body = out -> candleSeriesWriter.writeJson(symbol, timeframe, candles, out);
+            } else {
+                body = out -> objectMapper.writer()
+                        .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                        .writeValue(out, candles);
+            }
+            return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).contentType(format).body(body);
 
         } catch (IllegalArgumentException e) {
             log.warn("Paramètres invalides - Symbol: {}, Timeframe: {}, Limit: {}",
@@ -98,6 +143,102 @@ public class MarketDataController {
         }
     }
 
+    @GetMapping(value = "/history/{symbol}/{timeframe}", produces = "application/x-ndjson")
+    @Operation(summary = "Export historique",
+            description = "Bougies de [from, to) en NDJSON, écrites au fil de l'eau (curseur serveur, reprise par timestamp/id)")
+    public ResponseEntity<StreamingResponseBody> exportHistory(
+            @Parameter(description = "Symbole", example = "EURUSD")
+            @PathVariable @Pattern(regexp = "^(EURUSD|XAUUSD)$") String symbol,
+
+            @Parameter(description = "Timeframe", example = "M1")
+            @PathVariable @Pattern(regexp = "^(M1|M5|M30)$") String timeframe,
+
+            @Parameter(description = "Début inclus (ISO), défaut : 30 jours", example = "2025-01-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+
+            @Parameter(description = "Fin exclue (ISO), défaut : maintenant")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+
+            @Parameter(description = "Reprise : id de la dernière bougie reçue, avec from = son timestamp")
+            @RequestParam(required = false) Long afterId) {
+
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(30);
+        if (!start.isBefore(end)) {
+            log.warn("Plage d'export invalide - {} {} [{} - {})", symbol, timeframe, start, end);
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = out -> {
+            long count = candleHistoryExporter.export(symbol, timeframe, start, end, afterId, out);
+            log.info("Export {} {} terminé: {} bougies", symbol, timeframe, count);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    @PostMapping("/backfill/{symbol}/{timeframe}")
+    @Operation(summary = "Backfill historique",
+            description = "Télécharge [from, to) depuis l'API broker par chunks parallèles ; relancer reprend aux points de reprise")
+    public CompletableFuture<ResponseEntity<BackfillReport>> backfillHistory(
+            @Parameter(description = "Symbole", example = "EURUSD")
+            @PathVariable @Pattern(regexp = "^(EURUSD|XAUUSD)$") String symbol,
+
+            @Parameter(description = "Timeframe", example = "M1")
+            @PathVariable @Pattern(regexp = "^(M1|M5|M30)$") String timeframe,
+
+            @Parameter(description = "Début inclus (ISO)", example = "2025-01-01T00:00:00")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+
+            @Parameter(description = "Fin exclue (ISO), défaut : maintenant")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+
+        if (historicalBackfillService.isEmpty()) {
+            log.warn("Backfill indisponible - mode simulation activé");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+        }
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        if (!from.isBefore(end)) {
+            log.warn("Plage de backfill invalide - {} {} [{} - {})", symbol, timeframe, from, end);
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+
+        return historicalBackfillService.get().backfillAsync(symbol, timeframe, from, end)
+                .thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping("/import/{symbol}/{timeframe}")
+    @Operation(summary = "Import fichier historique",
+            description = "Charge un CSV HistData ou cTrader du répertoire d'import par COPY puis fusion (upsert)")
+    public CompletableFuture<ResponseEntity<CandleImportReport>> importHistory(
+            @Parameter(description = "Symbole", example = "EURUSD")
+            @PathVariable @Pattern(regexp = "^(EURUSD|XAUUSD)$") String symbol,
+
+            @Parameter(description = "Timeframe des bougies du fichier", example = "M1")
+            @PathVariable @Pattern(regexp = "^(M1|M5|M30)$") String timeframe,
+
+            @Parameter(description = "Fichier, relatif au répertoire d'import", example = "DAT_ASCII_EURUSD_M1_2024.csv")
+            @RequestParam String file,
+
+            @Parameter(description = "Format du fichier (HISTDATA ou CTRADER)")
+            @RequestParam(defaultValue = "HISTDATA") CandleFileFormat format) {
+
+        Path path;
+        try {
+            path = candleFileImporter.resolve(file);
+        } catch (IllegalArgumentException e) {
+            log.warn("Import refusé - {}", e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        } catch (NoSuchFileException e) {
+            log.warn("Fichier d'import introuvable - {}", e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+        }
+
+        return candleFileImporter.importAsync(path, symbol, timeframe, format)
+                .thenApply(ResponseEntity::ok);
+    }
+
     // ========== Endpoints Sessions Multi-Sessions ==========
 
     @GetMapping("/session/{symbol}/{sessionName}")
@@ -168,7 +309,7 @@ public class MarketDataController {
 
     @GetMapping("/breakouts/{symbol}")
     @Operation(summary = "Breakouts récents", description = "Détecte bougies de breakout récentes")
-    public ResponseEntity<List<MarketData>> getRecentBreakouts(
+    public ResponseEntity<List<CandleBar>> getRecentBreakouts(
             @Parameter(description = "Symbole", example = "EURUSD")
             @PathVariable @Pattern(regexp = "^(EURUSD|XAUUSD)$") String symbol,
 
@@ -179,7 +320,7 @@ public class MarketDataController {
             @RequestParam(defaultValue = "24") @Min(1) @Max(168) int hours) {
 
         try {
-            List<MarketData> breakouts = marketDataService.detectRecentBreakouts(symbol, timeframe, hours);
+            List<CandleBar> breakouts = marketDataService.detectRecentBreakouts(symbol, timeframe, hours);
 
             log.debug("Détecté {} breakouts pour {} {} (dernières {}h)",
                     breakouts.size(), symbol, timeframe, hours);
@@ -196,19 +337,22 @@ public class MarketDataController {
     }
 
     @GetMapping("/pivots/{symbol}")
-    @Operation(summary = "Niveaux pivot", description = "Trouve niveaux de support/résistance potentiels")
-    public ResponseEntity<List<MarketData>> getPivotLevels(
+    @Operation(summary = "Niveaux pivot", description = "Derniers pivots de swing confirmés (supports/résistances)")
+    public ResponseEntity<List<SwingPivot>> getPivotLevels(
             @Parameter(description = "Symbole", example = "EURUSD")
             @PathVariable @Pattern(regexp = "^(EURUSD|XAUUSD)$") String symbol,
 
+            @Parameter(description = "Timeframe", example = "M5")
+            @RequestParam(defaultValue = "M5") @Pattern(regexp = "^(M1|M5|M30)$") String timeframe,
+
             @Parameter(description = "Nombre d'heures à analyser", example = "72")
             @RequestParam(defaultValue = "72") @Min(1) @Max(168) int hours) {
 
         try {
-            List<MarketData> pivots = marketDataService.findPivotLevels(symbol, hours);
+            List<SwingPivot> pivots = marketDataService.findPivotLevels(symbol, timeframe, hours);
 
-            log.debug("Trouvé {} niveaux pivot pour {} (dernières {}h)",
-                    pivots.size(), symbol, hours);
+            log.debug("Trouvé {} niveaux pivot pour {} {} (dernières {}h)",
+                    pivots.size(), symbol, timeframe, hours);
             return ResponseEntity.ok(pivots);
 
         } catch (IllegalArgumentException e) {
@@ -220,6 +364,33 @@ public class MarketDataController {
         }
     }
 
+    @GetMapping("/gaps/{symbol}")
+    @Operation(summary = "Gaps de prix", description = "Gaps M1 récents : week-end, trous de données, sauts de news")
+    public ResponseEntity<List<PriceGap>> getPriceGaps(
+            @Parameter(description = "Symbole", example = "EURUSD")
+            @PathVariable @Pattern(regexp = "^(EURUSD|XAUUSD)$") String symbol,
+
+            @Parameter(description = "Type de gap (tous si absent)", example = "WEEKEND")
+            @RequestParam(required = false) PriceGap.Type type,
+
+            @Parameter(description = "Nombre de jours à analyser", example = "7")
+            @RequestParam(defaultValue = "7") @Min(1) @Max(14) int days) {
+
+        try {
+            List<PriceGap> gaps = marketDataService.findPriceGaps(symbol, type, days);
+
+            log.debug("Trouvé {} gaps {} pour {} (derniers {}j)", gaps.size(), type, symbol, days);
+            return ResponseEntity.ok(gaps);
+
+        } catch (IllegalArgumentException e) {
+            log.warn("Paramètres gaps invalides - Symbol: {}, Type: {}, Days: {}", symbol, type, days);
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Erreur recherche gaps {}: {}", symbol, e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     // ========== Endpoints Gestion et Contrôle ==========
 
     @PostMapping("/update/{symbol}")
@@ -424,6 +595,31 @@ public class MarketDataController {
 
     // ========== Méthodes Utilitaires Privées ==========
 
+    /**
+     * Format de /candles selon l'en-tête Accept, q-values comprises : le format colonnes n'est servi
+     * que demandé explicitement, la liste JSON reste le défaut (jokers, application/json, en-tête absent)
+     */
+    private static MediaType negotiateCandleFormat(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MediaType selected = MediaType.APPLICATION_JSON;
+        double bestQuality = 0;
+        for (MediaType requested : MediaType.parseMediaTypes(accept)) {
+            double quality = requested.getQualityValue();
+            MediaType candidate = requested.equalsTypeAndSubtype(CANDLES_BINARY) ? CANDLES_BINARY
+                    : requested.equalsTypeAndSubtype(CANDLES_JSON) ? CANDLES_JSON
+                    : MediaType.APPLICATION_JSON;
+            // À qualité égale, un type explicite l'emporte sur le défaut
+            if (quality > bestQuality || (quality == bestQuality && quality > 0
+                    && candidate != MediaType.APPLICATION_JSON && selected == MediaType.APPLICATION_JSON)) {
+                selected = candidate;
+                bestQuality = quality;
+            }
+        }
+        return selected;
+    }
+
     private Map<String, Object> createErrorResponse(String type, String message, String symbol) {
         Map<String, Object> response = new HashMap<>();
         response.put("success", false);
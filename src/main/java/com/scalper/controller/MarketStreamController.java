@@ -0,0 +1,39 @@
+package com.scalper.controller;
+
+import com.scalper.service.market.MarketStreamService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Pattern;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+/**
+ * Controller de diffusion temps réel (Server-Sent Events)
+ * Remplace le polling de /api/market/current et /api/market/candles par les dashboards
+ */
+@RestController
+@RequestMapping("/api/market/stream")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Market Stream", description = "Flux temps réel des bougies, niveaux et breakouts")
+public class MarketStreamController {
+
+    private final MarketStreamService marketStreamService;
+
+    @GetMapping(value = "/{symbol}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Flux temps réel",
+            description = "Événements SSE : forming (M1 en formation), candle, levels, breakout")
+    public Flux<ServerSentEvent<Object>> stream(
+            @Parameter(description = "Symbole (EURUSD ou XAUUSD)", example = "EURUSD")
+            @PathVariable @Pattern(regexp = "^(EURUSD|XAUUSD)$") String symbol) {
+
+        log.debug("Nouvel abonné SSE {}", symbol);
+        return marketStreamService.subscribe(symbol)
+                .doFinally(signal -> log.debug("Abonné SSE {} déconnecté ({})", symbol, signal));
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.scalper.model.price.Instrument;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -14,10 +15,12 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "market_data_sessions",
+        uniqueConstraints = @UniqueConstraint(name = "uk_market_data_candle", columnNames = {"symbol", "timeframe", "timestamp"}),
         indexes = {
                 @Index(name = "idx_market_data_symbol_timeframe", columnList = "symbol, timeframe"),
                 @Index(name = "idx_market_data_timestamp", columnList = "timestamp DESC"),
-                @Index(name = "idx_market_data_session", columnList = "session_name, timestamp DESC")
+                @Index(name = "idx_market_data_session", columnList = "session_name, timestamp DESC"),
+                @Index(name = "idx_market_data_keyset", columnList = "symbol, timeframe, timestamp, id")
         })
 @Data
 @Builder
@@ -27,8 +30,9 @@ import java.time.LocalDateTime;
 public class MarketData {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "market_data_seq")
+    @SequenceGenerator(name = "market_data_seq", sequenceName = "market_data_sessions_seq", allocationSize = 50)
+    private Long id; // Séquence à allocation groupée : permet le batching JDBC des INSERT
 
     // Identification
     @Column(nullable = false, length = 10)
@@ -38,7 +42,7 @@ public class MarketData {
 
     @Column(nullable = false, length = 5)
     @NotBlank(message = "Timeframe is required")
-    @Pattern(regexp = "^(M1|M5|M30)$", message = "Only M1, M5, M30 timeframes supported")
+    @Pattern(regexp = "^(M1|M5|M30|H1|D1)$", message = "Only M1, M5, M30, H1, D1 timeframes supported")
     private String timeframe;
 
     @Column(nullable = false)
@@ -122,24 +126,30 @@ public class MarketData {
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
 
-    // Méthodes utilitaires
+    // Méthodes utilitaires (calculs en ticks long, BigDecimal uniquement en sortie)
     public BigDecimal getTypicalPrice() {
-        return highPrice.add(lowPrice).add(closePrice)
-                .divide(BigDecimal.valueOf(3), 5, java.math.RoundingMode.HALF_UP);
+        Instrument instrument = instrument();
+        long sum = instrument.toTicks(highPrice) + instrument.toTicks(lowPrice) + instrument.toTicks(closePrice);
+        return instrument.toPrice(Instrument.divideHalfUp(sum, 3));
     }
 
     public BigDecimal getRangeInPips() {
-        BigDecimal range = highPrice.subtract(lowPrice);
         // EURUSD : 1 pip = 0.0001, XAUUSD : 1 pip = 0.01
-        BigDecimal pipSize = symbol.equals("EURUSD") ?
-                BigDecimal.valueOf(0.0001) : BigDecimal.valueOf(0.01);
-        return range.divide(pipSize, 1, java.math.RoundingMode.HALF_UP);
+        return BigDecimal.valueOf(instrument().ticksToTenthPips(rangeTicks()), 1);
     }
 
     public boolean isBreakoutCandle() {
-        BigDecimal range = getRangeInPips();
-        BigDecimal threshold = symbol.equals("EURUSD") ?
-                BigDecimal.valueOf(8) : BigDecimal.valueOf(80); // 8 pips EURUSD, 80 cents XAUUSD
-        return range.compareTo(threshold) > 0;
+        // 8 pips EURUSD, 80 cents XAUUSD
+        Instrument instrument = instrument();
+        return instrument.ticksToTenthPips(rangeTicks()) > instrument.getBreakoutRangePips() * 10L;
     }
-}
\ No newline at end of file
+
+    public Instrument instrument() {
+        return Instrument.of(symbol);
+    }
+
+    public long rangeTicks() {
+        Instrument instrument = instrument();
+        return instrument.toTicks(highPrice) - instrument.toTicks(lowPrice);
+    }
+}
@@ -0,0 +1,127 @@
+package com.scalper.model.price;
+
+import java.math.BigDecimal;
+
+/**
+ * Instruments supportés et leur représentation en prix fixe (ticks long)
+ * Un prix est stocké en interne comme un long = prix * 10^priceScale.
+ * BigDecimal n'apparaît qu'aux frontières JPA / JSON.
+ */
+public enum Instrument {
+
+    // EURUSD : 1 pip = 0.0001 = 10 ticks
+    EURUSD(5, 10, 8, 5),
+    // XAUUSD : 1 pip = 0.01 = 1000 ticks
+    XAUUSD(5, 1000, 80, 50);
+
+    private final int priceScale;
+    private final long pipTicks;
+    private final int breakoutRangePips;
+    private final int pivotRangePips;
+    private final double ticksPerUnit;
+
+    Instrument(int priceScale, long pipTicks, int breakoutRangePips, int pivotRangePips) {
+        this.priceScale = priceScale;
+        this.pipTicks = pipTicks;
+        this.breakoutRangePips = breakoutRangePips;
+        this.pivotRangePips = pivotRangePips;
+        this.ticksPerUnit = Math.pow(10, priceScale);
+    }
+
+    public static Instrument of(String symbol) {
+        if (symbol == null) {
+            throw new IllegalArgumentException("Symbole manquant");
+        }
+        return switch (symbol) {
+            case "EURUSD" -> EURUSD;
+            case "XAUUSD" -> XAUUSD;
+            default -> throw new IllegalArgumentException("Symbole non supporté: " + symbol);
+        };
+    }
+
+    // ========== Conversions ==========
+
+    /**
+     * BigDecimal -> ticks. Passe par doubleValue() qui n'alloue pas pour les
+     * BigDecimal compacts (cas de toutes les valeurs lues en base, scale 5).
+     */
+    public long toTicks(BigDecimal price) {
+        return Math.round(price.doubleValue() * ticksPerUnit);
+    }
+
+    public long toTicks(double price) {
+        return Math.round(price * ticksPerUnit);
+    }
+
+    public BigDecimal toPrice(long ticks) {
+        return BigDecimal.valueOf(ticks, priceScale);
+    }
+
+    public double toDouble(long ticks) {
+        return ticks / ticksPerUnit;
+    }
+
+    public long pipsToTicks(double pips) {
+        return Math.round(pips * pipTicks);
+    }
+
+    public double ticksToPips(long ticks) {
+        return (double) ticks / pipTicks;
+    }
+
+    /**
+     * Distance en dixièmes de pip, arrondi HALF_UP (équivalent à divide(pipSize, 1, HALF_UP))
+     */
+    public long ticksToTenthPips(long ticks) {
+        return divideHalfUp(ticks * 10, pipTicks);
+    }
+
+    /**
+     * Distance en pips entiers, arrondi HALF_UP
+     */
+    public long ticksToWholePips(long ticks) {
+        return divideHalfUp(ticks, pipTicks);
+    }
+
+    /**
+     * Niveau de volatilité d'une bougie à partir de son range (seuils en unités de prix)
+     */
+    public String volatilityLevel(long rangeTicks) {
+        double rangeValue = toDouble(rangeTicks);
+
+        if (rangeValue < 0.0005) return "LOW";
+        if (rangeValue < 0.002) return "NORMAL";
+        if (rangeValue < 0.005) return "HIGH";
+        return "EXTREME";
+    }
+
+    /**
+     * Division entière arrondie HALF_UP (éloigné de zéro à mi-chemin), sans allocation
+     */
+    public static long divideHalfUp(long numerator, long denominator) {
+        long quotient = numerator / denominator;
+        long remainder = numerator % denominator;
+        if (Math.abs(remainder) * 2 >= Math.abs(denominator)) {
+            quotient += (numerator < 0) == (denominator < 0) ? 1 : -1;
+        }
+        return quotient;
+    }
+
+    // ========== Accesseurs ==========
+
+    public int getPriceScale() {
+        return priceScale;
+    }
+
+    public long getPipTicks() {
+        return pipTicks;
+    }
+
+    public int getBreakoutRangePips() {
+        return breakoutRangePips;
+    }
+
+    public int getPivotRangePips() {
+        return pivotRangePips;
+    }
+}
@@ -0,0 +1,63 @@
+package com.scalper.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Points de reprise du backfill historique : un enregistrement par chunk terminé
+ * Un backfill relancé sur la même plage ne retélécharge que les chunks absents.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BackfillCheckpointRepository {
+
+    private static final String CREATE_TABLE =
+            "CREATE TABLE IF NOT EXISTS market_data_backfill_checkpoints (" +
+            " symbol VARCHAR(10) NOT NULL," +
+            " timeframe VARCHAR(5) NOT NULL," +
+            " chunk_start TIMESTAMP NOT NULL," +
+            " chunk_end TIMESTAMP NOT NULL," +
+            " candles INTEGER NOT NULL," +
+            " completed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP," +
+            " PRIMARY KEY (symbol, timeframe, chunk_start))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Table créée par init.sql ; garantie ici pour les bases créées par ddl-auto (dev)
+     */
+    public void ensureTable() {
+        jdbcTemplate.execute(CREATE_TABLE);
+    }
+
+    /**
+     * Débuts des chunks déjà terminés sur [from, to)
+     */
+    public Set<LocalDateTime> findCompletedChunks(String symbol, String timeframe,
+                                                  LocalDateTime from, LocalDateTime to) {
+        Set<LocalDateTime> completed = new HashSet<>();
+        jdbcTemplate.query("SELECT chunk_start FROM market_data_backfill_checkpoints " +
+                        "WHERE symbol = ? AND timeframe = ? AND chunk_start >= ? AND chunk_start < ?",
+                rs -> {
+                    completed.add(rs.getTimestamp("chunk_start").toLocalDateTime());
+                },
+                symbol, timeframe, Timestamp.valueOf(from), Timestamp.valueOf(to));
+        return completed;
+    }
+
+    public void markCompleted(String symbol, String timeframe, LocalDateTime chunkStart, LocalDateTime chunkEnd,
+                              int candles) {
+        jdbcTemplate.update("INSERT INTO market_data_backfill_checkpoints " +
+                        "(symbol, timeframe, chunk_start, chunk_end, candles, completed_at) " +
+                        "VALUES (?, ?, ?, ?, ?, CURRENT_TIMESTAMP) " +
+                        "ON CONFLICT (symbol, timeframe, chunk_start) DO UPDATE " +
+                        "SET chunk_end = EXCLUDED.chunk_end, candles = EXCLUDED.candles, completed_at = CURRENT_TIMESTAMP",
+                symbol, timeframe, Timestamp.valueOf(chunkStart), Timestamp.valueOf(chunkEnd), candles);
+    }
+}
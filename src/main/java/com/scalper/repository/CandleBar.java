@@ -0,0 +1,34 @@
+package com.scalper.repository;
+
+import com.scalper.model.entity.MarketData;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Projection OHLCV d'une ligne market_data_sessions : les seules colonnes lues par les
+ * graphiques et la détection de breakouts (6 colonnes au lieu des 21 de MarketData)
+ */
+public record CandleBar(LocalDateTime timestamp,
+                        BigDecimal openPrice,
+                        BigDecimal highPrice,
+                        BigDecimal lowPrice,
+                        BigDecimal closePrice,
+                        long volume) {
+
+    /**
+     * Bougie non gérée réduite à l'OHLCV, pour compléter une série de MarketData
+     */
+    public MarketData toCandle(String symbol, String timeframe) {
+        return MarketData.builder()
+                .symbol(symbol)
+                .timeframe(timeframe)
+                .timestamp(timestamp)
+                .openPrice(openPrice)
+                .highPrice(highPrice)
+                .lowPrice(lowPrice)
+                .closePrice(closePrice)
+                .volume(volume)
+                .build();
+    }
+}
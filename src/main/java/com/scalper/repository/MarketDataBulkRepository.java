@@ -0,0 +1,98 @@
+package com.scalper.repository;
+
+import com.scalper.model.entity.MarketData;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Écritures en masse des bougies (write-behind de l'ingestion, backfill historique) en JDBC batch
+ * Upsert idempotent sur la clé unique (symbole, timeframe, timestamp) : une bougie rejouée
+ * ou une fenêtre broker qui chevauche l'existant met à jour la ligne au lieu de la dupliquer,
+ * sans requête d'existence préalable. Une bougie identique à l'existant ne réécrit pas la ligne.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MarketDataBulkRepository {
+
+    private static final String UPSERT =
+            "INSERT INTO market_data_sessions (id, symbol, timeframe, timestamp, open_price, high_price, low_price, " +
+            "close_price, volume, session_name, session_progress, vwap_session, distance_to_vwap_pips, " +
+            "distance_to_session_high_pips, distance_to_session_low_pips, major_news_proximity_minutes, " +
+            "volatility_level, data_source, spread_pips, is_market_open, created_at) " +
+            "VALUES (nextval('market_data_sessions_seq'), ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (symbol, timeframe, timestamp) DO UPDATE SET " +
+            "open_price = EXCLUDED.open_price, high_price = EXCLUDED.high_price, low_price = EXCLUDED.low_price, " +
+            "close_price = EXCLUDED.close_price, volume = EXCLUDED.volume, session_name = EXCLUDED.session_name, " +
+            "session_progress = EXCLUDED.session_progress, vwap_session = EXCLUDED.vwap_session, " +
+            "distance_to_vwap_pips = EXCLUDED.distance_to_vwap_pips, " +
+            "distance_to_session_high_pips = EXCLUDED.distance_to_session_high_pips, " +
+            "distance_to_session_low_pips = EXCLUDED.distance_to_session_low_pips, " +
+            "major_news_proximity_minutes = EXCLUDED.major_news_proximity_minutes, " +
+            "volatility_level = EXCLUDED.volatility_level, data_source = EXCLUDED.data_source, " +
+            "spread_pips = EXCLUDED.spread_pips, is_market_open = EXCLUDED.is_market_open " +
+            // Rejeu à l'identique : aucune nouvelle version de ligne (pas de bloat)
+            "WHERE (market_data_sessions.open_price, market_data_sessions.high_price, market_data_sessions.low_price, " +
+            "market_data_sessions.close_price, market_data_sessions.volume) IS DISTINCT FROM " +
+            "(EXCLUDED.open_price, EXCLUDED.high_price, EXCLUDED.low_price, EXCLUDED.close_price, EXCLUDED.volume)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Upsert du lot en un seul aller-retour JDBC batch
+     *
+     * @return nombre de bougies insérées ou modifiées (les rejeux identiques ne comptent pas)
+     */
+    public int upsert(List<MarketData> candles) {
+        if (candles.isEmpty()) {
+            return 0;
+        }
+        int[] counts = jdbcTemplate.batchUpdate(UPSERT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                MarketData candle = candles.get(i);
+                ps.setString(1, candle.getSymbol());
+                ps.setString(2, candle.getTimeframe());
+                ps.setTimestamp(3, Timestamp.valueOf(candle.getTimestamp()));
+                ps.setBigDecimal(4, candle.getOpenPrice());
+                ps.setBigDecimal(5, candle.getHighPrice());
+                ps.setBigDecimal(6, candle.getLowPrice());
+                ps.setBigDecimal(7, candle.getClosePrice());
+                ps.setLong(8, candle.getVolume() != null ? candle.getVolume() : 0L);
+                ps.setString(9, candle.getSessionName());
+                ps.setBigDecimal(10, candle.getSessionProgress());
+                ps.setBigDecimal(11, candle.getVwapSession());
+                ps.setObject(12, candle.getDistanceToVwapPips(), Types.INTEGER);
+                ps.setObject(13, candle.getDistanceToSessionHighPips(), Types.INTEGER);
+                ps.setObject(14, candle.getDistanceToSessionLowPips(), Types.INTEGER);
+                ps.setObject(15, candle.getMajorNewsProximityMinutes(), Types.INTEGER);
+                ps.setString(16, candle.getVolatilityLevel());
+                ps.setString(17, candle.getDataSource());
+                ps.setBigDecimal(18, candle.getSpreadPips());
+                ps.setObject(19, candle.getIsMarketOpen(), Types.BOOLEAN);
+                ps.setTimestamp(20, Timestamp.valueOf(candle.getCreatedAt() != null
+                        ? candle.getCreatedAt() : LocalDateTime.now()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return candles.size();
+            }
+        });
+
+        int written = 0;
+        for (int count : counts) {
+            // SUCCESS_NO_INFO (-2) : le driver n'a pas remonté le compte, ligne supposée écrite
+            written += count == PreparedStatement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+        }
+        return written;
+    }
+}
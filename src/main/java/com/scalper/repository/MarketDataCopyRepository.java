@@ -0,0 +1,126 @@
+package com.scalper.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Chargement massif des bougies par COPY (pgjdbc CopyManager) dans une table de staging,
+ * puis fusion en une requête dans market_data_sessions
+ * Le COPY évite le coût par ligne des INSERT ; la fusion reprend la sémantique de l'upsert
+ * (clé unique symbole/timeframe/timestamp, rejeu à l'identique sans réécriture).
+ * Staging temporaire (ON COMMIT DROP) : tout se déroule sur une seule connexion et une seule transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class MarketDataCopyRepository {
+
+    /** Ordre des colonnes d'une ligne CSV écrite dans le flux COPY */
+    public static final String STAGING_COLUMNS = "symbol, timeframe, timestamp, open_price, high_price, low_price, " +
+            "close_price, volume, session_name, session_progress, volatility_level";
+
+    private static final String CREATE_STAGING =
+            "CREATE TEMP TABLE market_data_import_staging (" +
+            " symbol VARCHAR(10) NOT NULL," +
+            " timeframe VARCHAR(5) NOT NULL," +
+            " timestamp TIMESTAMP NOT NULL," +
+            " open_price DECIMAL(10,5) NOT NULL," +
+            " high_price DECIMAL(10,5) NOT NULL," +
+            " low_price DECIMAL(10,5) NOT NULL," +
+            " close_price DECIMAL(10,5) NOT NULL," +
+            " volume BIGINT NOT NULL," +
+            " session_name VARCHAR(10)," +
+            " session_progress DECIMAL(3,2)," +
+            " volatility_level VARCHAR(10)" +
+            ") ON COMMIT DROP";
+
+    private static final String COPY_STAGING =
+            "COPY market_data_import_staging (" + STAGING_COLUMNS + ") FROM STDIN (FORMAT csv)";
+
+    // DISTINCT ON : un fichier contenant deux fois la même minute ne doit toucher la ligne cible qu'une fois
+    private static final String MERGE_STAGING =
+            "INSERT INTO market_data_sessions (id, " + STAGING_COLUMNS + ", data_source, is_market_open, created_at) " +
+            "SELECT nextval('market_data_sessions_seq'), s.*, ?, TRUE, CURRENT_TIMESTAMP FROM (" +
+            " SELECT DISTINCT ON (symbol, timeframe, timestamp) " + STAGING_COLUMNS +
+            " FROM market_data_import_staging ORDER BY symbol, timeframe, timestamp) s " +
+            "ON CONFLICT (symbol, timeframe, timestamp) DO UPDATE SET " +
+            "open_price = EXCLUDED.open_price, high_price = EXCLUDED.high_price, low_price = EXCLUDED.low_price, " +
+            "close_price = EXCLUDED.close_price, volume = EXCLUDED.volume, session_name = EXCLUDED.session_name, " +
+            "session_progress = EXCLUDED.session_progress, volatility_level = EXCLUDED.volatility_level, " +
+            "data_source = EXCLUDED.data_source " +
+            "WHERE (market_data_sessions.open_price, market_data_sessions.high_price, market_data_sessions.low_price, " +
+            "market_data_sessions.close_price, market_data_sessions.volume) IS DISTINCT FROM " +
+            "(EXCLUDED.open_price, EXCLUDED.high_price, EXCLUDED.low_price, EXCLUDED.close_price, EXCLUDED.volume)";
+
+    private final DataSource dataSource;
+
+    /**
+     * Destination des lignes CSV (encodées UTF-8, terminées par '\n') du flux COPY
+     */
+    @FunctionalInterface
+    public interface CopySink {
+        void write(byte[] rows) throws SQLException;
+    }
+
+    /**
+     * Producteur du flux COPY : écrit toutes ses lignes puis rend la main, la fusion suit
+     */
+    @FunctionalInterface
+    public interface CopyFeed {
+        void writeTo(CopySink sink) throws Exception;
+    }
+
+    /**
+     * COPY du flux dans la staging puis fusion, en une transaction
+     *
+     * @param dataSource valeur de data_source des bougies chargées
+     * @return nombre de bougies insérées ou modifiées par la fusion
+     */
+    public long copyAndMerge(String dataSource, CopyFeed feed) throws Exception {
+        try (Connection connection = this.dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(CREATE_STAGING);
+                }
+
+                CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING);
+                long staged;
+                try {
+                    feed.writeTo(rows -> copyIn.writeToCopy(rows, 0, rows.length));
+                    staged = copyIn.endCopy();
+                } finally {
+                    if (copyIn.isActive()) {
+                        copyIn.cancelCopy();
+                    }
+                }
+
+                long merged;
+                try (PreparedStatement merge = connection.prepareStatement(MERGE_STAGING)) {
+                    merge.setString(1, dataSource);
+                    merged = merge.executeUpdate();
+                }
+                connection.commit();
+
+                log.debug("COPY staging: {} lignes, {} bougies fusionnées", staged, merged);
+                return merged;
+
+            } catch (Exception e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.scalper.repository;
+
+import com.scalper.model.entity.MarketData;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Lectures seules des bougies (graphiques, breakouts, sessions) en JDBC direct
+ * Les lignes sont mappées en MarketData non gérés : pas d'hydratation Hibernate, pas de
+ * snapshot de dirty-checking ni de croissance du contexte de persistance.
+ * Les historiques de graphique et les breakouts ne lisent que l'OHLCV ({@link CandleBar}).
+ * Les écritures restent sur {@link MarketDataRepository}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MarketDataReadRepository {
+
+    private static final String COLUMNS = "id, symbol, timeframe, timestamp, open_price, high_price, low_price, " +
+            "close_price, volume, session_name, session_progress, vwap_session, distance_to_vwap_pips, " +
+            "distance_to_session_high_pips, distance_to_session_low_pips, major_news_proximity_minutes, " +
+            "volatility_level, data_source, spread_pips, is_market_open, created_at";
+
+    private static final String BAR_COLUMNS = "timestamp, open_price, high_price, low_price, close_price, volume";
+
+    private static final String FROM = " FROM market_data_sessions WHERE symbol = ? AND timeframe = ? ";
+
+    static final RowMapper<MarketData> CANDLE_MAPPER = MarketDataReadRepository::mapCandle;
+    static final RowMapper<CandleBar> BAR_MAPPER = MarketDataReadRepository::mapBar;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * N dernières bougies complètes, plus récente en premier (chargement du CandleStore)
+     */
+    public List<MarketData> findLatestCandles(String symbol, String timeframe, int limit) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + FROM + "ORDER BY timestamp DESC LIMIT ?",
+                CANDLE_MAPPER, symbol, timeframe, limit);
+    }
+
+    /**
+     * N dernières barres OHLCV, plus récente en premier (complément du CandleStore, buffer vide)
+     */
+    public List<CandleBar> findLatestBars(String symbol, String timeframe, int limit) {
+        return jdbcTemplate.query("SELECT " + BAR_COLUMNS + FROM + "ORDER BY timestamp DESC LIMIT ?",
+                BAR_MAPPER, symbol, timeframe, limit);
+    }
+
+    /**
+     * N barres OHLCV antérieures à un timestamp, plus récente en premier (complément du CandleStore)
+     */
+    public List<CandleBar> findLatestBarsBefore(String symbol, String timeframe, LocalDateTime before, int limit) {
+        return jdbcTemplate.query("SELECT " + BAR_COLUMNS + FROM + "AND timestamp < ? ORDER BY timestamp DESC LIMIT ?",
+                BAR_MAPPER, symbol, timeframe, Timestamp.valueOf(before), limit);
+    }
+
+    /**
+     * Bougies d'une session depuis le début de journée, ordre chronologique
+     */
+    public List<MarketData> findSessionData(String symbol, String timeframe, String sessionName,
+                                            LocalDateTime startOfDay) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + FROM +
+                        "AND session_name = ? AND timestamp >= ? ORDER BY timestamp ASC",
+                CANDLE_MAPPER, symbol, timeframe, sessionName, Timestamp.valueOf(startOfDay));
+    }
+
+    /**
+     * Bougies de breakout (range > seuil), plus récente en premier
+     */
+    public List<CandleBar> findBreakoutCandles(String symbol, String timeframe, LocalDateTime since,
+                                               BigDecimal minRange) {
+        return jdbcTemplate.query("SELECT " + BAR_COLUMNS + FROM +
+                        "AND timestamp >= ? AND (high_price - low_price) > ? ORDER BY timestamp DESC",
+                BAR_MAPPER, symbol, timeframe, Timestamp.valueOf(since), minRange);
+    }
+
+    /**
+     * Bougies de [après (timestamp, id), to) en ordre (timestamp, id), passées une à une au handler
+     * Curseur serveur : fetchSize lignes en mémoire à la fois, sans liste ni entité gérée.
+     * pgjdbc n'ouvre un curseur que hors autocommit : l'appelant doit être dans une transaction.
+     */
+    public void streamCandlesAfter(String symbol, String timeframe, LocalDateTime afterTimestamp, long afterId,
+                                   LocalDateTime to, int fetchSize, RowCallbackHandler handler) {
+        String sql = "SELECT " + COLUMNS + FROM + "AND timestamp < ? " +
+                "AND (timestamp > ? OR (timestamp = ? AND id > ?)) ORDER BY timestamp ASC, id ASC";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(fetchSize);
+            statement.setString(1, symbol);
+            statement.setString(2, timeframe);
+            statement.setTimestamp(3, Timestamp.valueOf(to));
+            statement.setTimestamp(4, Timestamp.valueOf(afterTimestamp));
+            statement.setTimestamp(5, Timestamp.valueOf(afterTimestamp));
+            statement.setLong(6, afterId);
+            return statement;
+        }, handler);
+    }
+
+    /**
+     * Bougie complète de la ligne courante (pour un RowCallbackHandler)
+     */
+    public static MarketData mapCandle(ResultSet rs) throws SQLException {
+        return mapCandle(rs, 0);
+    }
+
+    private static CandleBar mapBar(ResultSet rs, int rowNum) throws SQLException {
+        return new CandleBar(
+                rs.getTimestamp("timestamp").toLocalDateTime(),
+                rs.getBigDecimal("open_price"),
+                rs.getBigDecimal("high_price"),
+                rs.getBigDecimal("low_price"),
+                rs.getBigDecimal("close_price"),
+                rs.getLong("volume"));
+    }
+
+    private static MarketData mapCandle(ResultSet rs, int rowNum) throws SQLException {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return MarketData.builder()
+                .id(rs.getLong("id"))
+                .symbol(rs.getString("symbol"))
+                .timeframe(rs.getString("timeframe"))
+                .timestamp(rs.getTimestamp("timestamp").toLocalDateTime())
+                .openPrice(rs.getBigDecimal("open_price"))
+                .highPrice(rs.getBigDecimal("high_price"))
+                .lowPrice(rs.getBigDecimal("low_price"))
+                .closePrice(rs.getBigDecimal("close_price"))
+                .volume(rs.getLong("volume"))
+                .sessionName(rs.getString("session_name"))
+                .sessionProgress(rs.getBigDecimal("session_progress"))
+                .vwapSession(rs.getBigDecimal("vwap_session"))
+                .distanceToVwapPips(rs.getObject("distance_to_vwap_pips", Integer.class))
+                .distanceToSessionHighPips(rs.getObject("distance_to_session_high_pips", Integer.class))
+                .distanceToSessionLowPips(rs.getObject("distance_to_session_low_pips", Integer.class))
+                .majorNewsProximityMinutes(rs.getObject("major_news_proximity_minutes", Integer.class))
+                .volatilityLevel(rs.getString("volatility_level"))
+                .dataSource(rs.getString("data_source"))
+                .spreadPips(rs.getBigDecimal("spread_pips"))
+                .isMarketOpen(rs.getObject("is_market_open", Boolean.class))
+                .createdAt(createdAt != null ? createdAt.toLocalDateTime() : null)
+                .build();
+    }
+}
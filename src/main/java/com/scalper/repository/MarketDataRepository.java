@@ -2,9 +2,11 @@ package com.scalper.repository;
 
 import com.scalper.model.entity.MarketData;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -88,6 +90,19 @@ public interface MarketDataRepository extends JpaRepository<MarketData, Long> {
                                               @Param("sessionName") String sessionName,
                                               @Param("startOfDay") LocalDateTime startOfDay);
 
+    /**
+     * Agrégats M1 d'une session sur une journée (reconstruction à froid des accumulateurs)
+     * Colonnes : MAX(high), MIN(low), SUM((H+L+C) × volume), SUM(volume), COUNT
+     */
+    @Query("SELECT MAX(md.highPrice), MIN(md.lowPrice), " +
+            "SUM((md.highPrice + md.lowPrice + md.closePrice) * md.volume), SUM(md.volume), COUNT(md) " +
+            "FROM MarketData md WHERE md.symbol = :symbol AND md.sessionName = :sessionName " +
+            "AND md.timeframe = 'M1' AND md.timestamp >= :startOfDay AND md.timestamp < :before")
+    List<Object[]> findSessionAggregates(@Param("symbol") String symbol,
+                                         @Param("sessionName") String sessionName,
+                                         @Param("startOfDay") LocalDateTime startOfDay,
+                                         @Param("before") LocalDateTime before);
+
     /**
      * Trouver niveaux de prix significatifs (pivots) - Requête simplifiée
      */
@@ -118,9 +133,14 @@ public interface MarketDataRepository extends JpaRepository<MarketData, Long> {
                            @Param("since") LocalDateTime since);
 
     /**
-     * Nettoyer les données anciennes (housekeeping)
+     * Nettoyer les données anciennes (housekeeping, repli si table non partitionnée)
+     * Les jours d'historique importé ou backfillé (market_data_retained_days) sont conservés.
      */
-    @Query("DELETE FROM MarketData md WHERE md.timestamp < :cutoffDate")
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM market_data_sessions md WHERE md.timestamp < :cutoffDate " +
+            "AND NOT EXISTS (SELECT 1 FROM market_data_retained_days r WHERE r.day = CAST(md.timestamp AS DATE))",
+            nativeQuery = true)
     void deleteOldData(@Param("cutoffDate") LocalDateTime cutoffDate);
 
     // ========== Requêtes pour Statistiques de Trading CORRIGÉES ==========
@@ -135,28 +155,6 @@ public interface MarketDataRepository extends JpaRepository<MarketData, Long> {
                                                   @Param("timeframe") String timeframe,
                                                   @Param("since") LocalDateTime since);
 
-    // ========== Requêtes Native pour Performance ==========
-
-    /**
-     * Requête native optimisée pour trouver gaps de prix (weekends, news)
-     */
-    @Query(value = "SELECT * FROM market_data_sessions md1 " +
-            "WHERE md1.symbol = :symbol AND md1.timeframe = 'M1' " +
-            "AND ABS(md1.open_price - (SELECT md2.close_price FROM market_data_sessions md2 " +
-            "WHERE md2.symbol = md1.symbol AND md2.timeframe = md1.timeframe " +
-            "AND md2.timestamp < md1.timestamp ORDER BY md2.timestamp DESC LIMIT 1)) > :gapThreshold " +
-            "ORDER BY md1.timestamp DESC LIMIT 20",
-            nativeQuery = true)
-    List<MarketData> findPriceGaps(@Param("symbol") String symbol,
-                                   @Param("gapThreshold") double gapThreshold);
-
-    /**
-     * Vérifier existence d'une bougie spécifique (éviter doublons)
-     */
-    boolean existsBySymbolAndTimeframeAndTimestamp(String symbol,
-                                                   String timeframe,
-                                                   LocalDateTime timestamp);
-
     // ========== Méthodes de requête dérivées (NOUVELLES) ==========
 
     /**
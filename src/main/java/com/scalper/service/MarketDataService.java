@@ -1,24 +1,35 @@
 package com.scalper.service;
 
 import com.scalper.model.entity.MarketData;
+import com.scalper.model.price.Instrument;
+import com.scalper.repository.CandleBar;
+import com.scalper.repository.MarketDataReadRepository;
 import com.scalper.repository.MarketDataRepository;
+import com.scalper.service.market.CandleStore;
+import com.scalper.service.market.LatestPricePublisher;
+import com.scalper.service.market.MarketDataPartitionService;
+import com.scalper.service.market.MarketQueryCache;
+import com.scalper.service.market.PriceGap;
+import com.scalper.service.market.PriceGapIndex;
+import com.scalper.service.market.RollingCandleCounter;
+import com.scalper.service.market.SessionLevelSnapshot;
+import com.scalper.service.market.SessionLevelTracker;
+import com.scalper.service.market.SwingPivot;
+import com.scalper.service.market.SwingPivotService;
 import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-//import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 
 /**
  * Service principal de gestion des données de marché - ÉTAPE 3
@@ -30,7 +41,16 @@ import java.util.stream.Collectors;
 public class MarketDataService {
 
     private final MarketDataRepository marketDataRepository;
- //   private final RedisTemplate<String, Object> redisTemplate;
+    private final MarketDataReadRepository marketDataReadRepository;
+    private final CandleStore candleStore;
+    private final SessionLevelTracker sessionLevelTracker;
+    private final MarketDataPartitionService partitionService;
+    private final MarketQueryCache marketQueryCache;
+    private final LatestPricePublisher latestPricePublisher;
+    private final SwingPivotService swingPivotService;
+    private final PriceGapIndex priceGapIndex;
+    private final RollingCandleCounter rollingCandleCounter;
+    private final MeterRegistry meterRegistry;
 
     @Value("${scalper.market-data.collection.enabled:true}")
     private boolean collectionEnabled;
@@ -41,16 +61,12 @@ public class MarketDataService {
     @Value("${scalper.market-data.collection.max-history-candles:1000}")
     private int maxHistoryCandles;
 
-    @Value("${scalper.market-data.cache.ttl-seconds:300}")
-    private int cacheTtlSeconds;
+    @Value("${scalper.market-data.retention.days:30}")
+    private int retentionDays;
 
     // Symboles supportés
     private static final List<String> SUPPORTED_SYMBOLS = Arrays.asList("EURUSD", "XAUUSD");
 
-    // Cache local pour performance
-    private final Map<String, MarketData> latestPricesCache = new ConcurrentHashMap<>();
-    private final Map<String, List<MarketData>> sessionDataCache = new ConcurrentHashMap<>();
-
     // État du service
     private volatile boolean isRunning = false;
     private volatile LocalDateTime lastUpdateTime = LocalDateTime.now();
@@ -61,8 +77,8 @@ public class MarketDataService {
         log.info("Collection: {} | Timeframes: {}", collectionEnabled, timeframes);
 
         if (collectionEnabled) {
-            // Charger derniers prix depuis DB
-            loadLatestPricesFromDatabase();
+            // Charger buffers mémoire des dernières bougies
+            candleStore.warmUp(SUPPORTED_SYMBOLS, timeframes);
 
             // Valider configuration
             validateConfiguration();
@@ -81,33 +97,18 @@ public class MarketDataService {
         validateSymbol(symbol);
         validateTimeframe(timeframe);
 
-//        String cacheKey = String.format("candles:%s:%s:%d", symbol, timeframe, limit);
-//
-//        // Essayer le cache Redis d'abord
-//        try {
-//            @SuppressWarnings("unchecked")
-//            List<MarketData> cached = (List<MarketData>) redisTemplate.opsForValue().get(cacheKey);
-//            if (cached != null && !cached.isEmpty()) {
-//                log.debug("Cache hit pour {} {} - {} bougies", symbol, timeframe, cached.size());
-//                return cached;
-//            }
-//        } catch (Exception e) {
-//            log.warn("Erreur accès cache pour {}: {}", cacheKey, e.getMessage());
-//        }
-
-        // Récupérer depuis DB - CORRIGÉ : utilisation méthode Spring Data
-        List<MarketData> candles = marketDataRepository
-                .findBySymbolAndTimeframeOrderByTimestampDesc(symbol, timeframe)
-                .stream()
-                .limit(limit)
-                .collect(Collectors.toList());
-
-        // Mettre en cache
-//        if (!candles.isEmpty()) {
-//            cacheData(cacheKey, candles, Duration.ofSeconds(cacheTtlSeconds));
-//        }
-
-        log.debug("Récupéré {} bougies {} {} depuis DB", candles.size(), symbol, timeframe);
+        // Fenêtre entièrement en mémoire : lecture directe du buffer
+        if (limit <= candleStore.bufferedCount(symbol, timeframe)) {
+            countRead(symbol, timeframe, "memory");
+            return candleStore.getLatestCandles(symbol, timeframe, limit);
+        }
+        countRead(symbol, timeframe, "cache");
+
+        // Historique au-delà du buffer (DB) : cache L1/L2, invalidé à chaque lot écrit en base
+        List<MarketData> candles = marketQueryCache.get(symbol, timeframe, "candles:" + limit,
+                () -> candleStore.getLatestCandles(symbol, timeframe, limit));
+
+        log.debug("Récupéré {} bougies {} {}", candles.size(), symbol, timeframe);
         return candles;
     }
 
@@ -117,18 +118,47 @@ public class MarketDataService {
     public Optional<MarketData> getCurrentPrice(String symbol) {
         validateSymbol(symbol);
 
-        // Vérifier cache local
-        MarketData cached = latestPricesCache.get(symbol);
-        if (cached != null && isRecentData(cached)) {
-            return Optional.of(cached);
+        // Dernière M1 du buffer mémoire
+        MarketData last = candleStore.getLastCandle(symbol, "M1");
+        if (last != null) {
+            return Optional.of(last);
         }
 
         // CORRIGÉ : Utilisation méthode Spring Data générée
-        Optional<MarketData> latest = marketDataRepository
-                .findFirstBySymbolAndTimeframeOrderByTimestampDesc(symbol, "M1");
-        latest.ifPresent(price -> latestPricesCache.put(symbol, price));
+        return marketDataRepository.findFirstBySymbolAndTimeframeOrderByTimestampDesc(symbol, "M1");
+    }
 
-        return latest;
+    /**
+     * Prix actuels de plusieurs symboles : buffer mémoire, puis un seul MGET Redis
+     * pour les symboles absents (publiés par une autre instance), puis la DB
+     */
+    public Map<String, MarketData> getCurrentPrices(Collection<String> symbols) {
+        Map<String, MarketData> prices = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String symbol : symbols) {
+            validateSymbol(symbol);
+            MarketData last = candleStore.getLastCandle(symbol, "M1");
+            if (last != null) {
+                prices.put(symbol, last);
+            } else {
+                missing.add(symbol);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<String, MarketData> published = latestPricePublisher.getLatest(missing);
+            for (String symbol : missing) {
+                MarketData price = published.get(symbol);
+                if (price == null) {
+                    price = marketDataRepository.findFirstBySymbolAndTimeframeOrderByTimestampDesc(symbol, "M1")
+                            .orElse(null);
+                }
+                if (price != null) {
+                    prices.put(symbol, price);
+                }
+            }
+        }
+        return prices;
     }
 
     /**
@@ -138,28 +168,10 @@ public class MarketDataService {
         validateSymbol(symbol);
         validateTimeframe(timeframe);
 
-        String cacheKey = String.format("session:%s:%s:%s", symbol, sessionName, timeframe);
-
-        // Vérifier cache session
-        List<MarketData> cached = sessionDataCache.get(cacheKey);
-        if (cached != null && !cached.isEmpty()) {
-            MarketData lastCandle = cached.get(cached.size() - 1);
-            if (isRecentData(lastCandle)) {
-                return cached;
-            }
-        }
-
-        // CORRECTION : Utiliser la nouvelle méthode du repository
+        // CORRECTION : Utiliser la nouvelle méthode du repository (via cache L1/L2)
         LocalDateTime startOfDay = LocalDateTime.now().toLocalDate().atStartOfDay();
-        List<MarketData> sessionData = marketDataRepository
-                .findSessionDataBySymbolAndSessionAndDate(symbol, timeframe, sessionName, startOfDay);
-
-        // Mettre en cache
-        if (!sessionData.isEmpty()) {
-            sessionDataCache.put(cacheKey, sessionData);
-        }
-
-        return sessionData;
+        return marketQueryCache.get(symbol, timeframe, "session:" + sessionName + ":" + startOfDay.toLocalDate(),
+                () -> marketDataReadRepository.findSessionData(symbol, timeframe, sessionName, startOfDay));
     }
 
     /**
@@ -168,26 +180,18 @@ public class MarketDataService {
     public Map<String, BigDecimal> calculateSessionLevels(String symbol, String sessionName) {
         validateSymbol(symbol);
 
-        // CORRIGÉ : Utilisation startOfDay comme paramètre
-        LocalDateTime startOfDay = LocalDateTime.now().toLocalDate().atStartOfDay();
-        List<Object[]> results = marketDataRepository.findSessionHighLow(symbol, sessionName, startOfDay);
+        // Lecture O(1) des accumulateurs de session (DB uniquement pour reconstruction à froid)
+        SessionLevelSnapshot snapshot = sessionLevelTracker.getLevels(symbol, sessionName, LocalDate.now());
         Map<String, BigDecimal> levels = new HashMap<>();
 
-        if (!results.isEmpty() && results.get(0).length >= 2) {
-            Object[] result = results.get(0);
-            BigDecimal high = (BigDecimal) result[0];
-            BigDecimal low = (BigDecimal) result[1];
-
-            if (high != null && low != null) {
-                levels.put(sessionName + "_HIGH", high);
-                levels.put(sessionName + "_LOW", low);
-                levels.put(sessionName + "_MID",
-                        high.add(low).divide(BigDecimal.valueOf(2), 5, RoundingMode.HALF_UP));
-
-                // Calcul VWAP si disponible - CORRIGÉ
-                Optional<BigDecimal> vwap = marketDataRepository
-                        .calculateSessionVWAP(symbol, sessionName, startOfDay);
-                vwap.ifPresent(v -> levels.put(sessionName + "_VWAP", v));
+        if (!snapshot.isEmpty()) {
+            levels.put(sessionName + "_HIGH", snapshot.high());
+            levels.put(sessionName + "_LOW", snapshot.low());
+            levels.put(sessionName + "_MID", snapshot.mid());
+
+            BigDecimal vwap = snapshot.vwap();
+            if (vwap != null) {
+                levels.put(sessionName + "_VWAP", vwap);
             }
         }
 
@@ -197,33 +201,39 @@ public class MarketDataService {
     /**
      * Détecte bougies de breakout récentes
      */
-    public List<MarketData> detectRecentBreakouts(String symbol, String timeframe, int hours) {
+    public List<CandleBar> detectRecentBreakouts(String symbol, String timeframe, int hours) {
         validateSymbol(symbol);
         validateTimeframe(timeframe);
 
         LocalDateTime since = LocalDateTime.now().minusHours(hours);
-        BigDecimal threshold = symbol.equals("EURUSD") ?
-                BigDecimal.valueOf(0.0008) : BigDecimal.valueOf(0.08); // 8 pips ou 80 cents
+        // Même seuil que MarketData.isBreakoutCandle() : range > breakoutRangePips de l'instrument
+        Instrument instrument = Instrument.of(symbol);
+        BigDecimal threshold = instrument.toPrice(instrument.pipsToTicks(instrument.getBreakoutRangePips()));
 
-        return marketDataRepository.findBreakoutCandles(symbol, timeframe, since, threshold);
+        return marketDataReadRepository.findBreakoutCandles(symbol, timeframe, since, threshold);
     }
 
     /**
-     * Détecte niveaux de pivot simplifiés
+     * Pivots de swing confirmés (sommets/creux) sur les dernières heures
+     * Lecture des détecteurs incrémentaux en mémoire, sans accès DB
      */
-    public List<MarketData> findPivotLevels(String symbol, int hours) {
+    public List<SwingPivot> findPivotLevels(String symbol, String timeframe, int hours) {
         validateSymbol(symbol);
+        validateTimeframe(timeframe);
 
         LocalDateTime since = LocalDateTime.now().minusHours(hours);
-        List<MarketData> potentialPivots = marketDataRepository
-                .findPotentialPivotLevels(symbol, since);
-
-        // Logique simplifiée pour identifier les pivots
-        // En production, cette logique serait plus sophistiquée
-        return potentialPivots.stream()
-                .filter(this::isPivotCandidate)
-                .limit(10)
-                .collect(Collectors.toList());
+        return swingPivotService.getRecentPivots(symbol, timeframe, since, 10);
+    }
+
+    /**
+     * Gaps de prix M1 récents (week-end, trous, sauts de news), lus dans l'index mémoire
+     *
+     * @param type filtre optionnel, null pour tous les types
+     */
+    public List<PriceGap> findPriceGaps(String symbol, PriceGap.Type type, int days) {
+        validateSymbol(symbol);
+
+        return priceGapIndex.getGaps(symbol, type, LocalDateTime.now().minusDays(days), 50);
     }
 
     /**
@@ -235,25 +245,30 @@ public class MarketDataService {
         stats.put("isRunning", isRunning);
         stats.put("mode", "SIMULATOR");
         stats.put("lastUpdateTime", lastUpdateTime);
-        stats.put("cachedSymbols", latestPricesCache.size());
-        stats.put("sessionCaches", sessionDataCache.size());
+        stats.put("cache", marketQueryCache.getStats());
+        stats.put("latestPrices", latestPricePublisher.getStats());
+        Map<String, MarketData> currentPrices = getCurrentPrices(SUPPORTED_SYMBOLS);
 
         // Statistiques par symbole
         Map<String, Object> symbolStats = new HashMap<>();
         for (String symbol : SUPPORTED_SYMBOLS) {
             Map<String, Object> symbolInfo = new HashMap<>();
 
-            // Compter bougies récentes
-            LocalDateTime since24h = LocalDateTime.now().minusHours(24);
-            long count24h = marketDataRepository.countCandlesSince(symbol, "M1", since24h);
-            symbolInfo.put("candles24h", count24h);
+            // Bougies reçues sur 24h glissantes (compteurs mémoire, sans COUNT SQL)
+            symbolInfo.put("candles24h", rollingCandleCounter.count(symbol, "M1"));
+            Map<String, Long> byTimeframe = new LinkedHashMap<>();
+            for (String timeframe : timeframes) {
+                byTimeframe.put(timeframe, rollingCandleCounter.count(symbol, timeframe));
+            }
+            symbolInfo.put("candles24hByTimeframe", byTimeframe);
 
             // Prix actuel
-            getCurrentPrice(symbol).ifPresent(price -> {
+            MarketData price = currentPrices.get(symbol);
+            if (price != null) {
                 symbolInfo.put("currentPrice", price.getClosePrice());
                 symbolInfo.put("lastUpdate", price.getTimestamp());
                 symbolInfo.put("session", price.getSessionName());
-            });
+            }
 
             symbolStats.put(symbol, symbolInfo);
         }
@@ -268,14 +283,15 @@ public class MarketDataService {
     @Scheduled(cron = "0 0 2 * * ?") // 2h du matin chaque jour
     public void cleanupOldData() {
         try {
-            LocalDateTime cutoff = LocalDateTime.now().minusDays(30);
-            marketDataRepository.deleteOldData(cutoff);
+            // Rétention par suppression de partitions journalières (DELETE si non partitionnée)
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+            int droppedPartitions = partitionService.applyRetention(cutoff);
 
-            // Nettoyer caches
-            latestPricesCache.clear();
-            sessionDataCache.clear();
+            // Les fenêtres historiques en cache peuvent inclure des partitions supprimées
+            marketQueryCache.invalidateAll();
 
-            log.info("Nettoyage données anciennes terminé - cutoff: {}", cutoff);
+            log.info("Nettoyage données anciennes terminé - cutoff: {} | partitions supprimées: {}",
+                    cutoff, Math.max(droppedPartitions, 0));
 
         } catch (Exception e) {
             log.error("Erreur nettoyage données: {}", e.getMessage());
@@ -295,17 +311,6 @@ public class MarketDataService {
 
     // ========== Méthodes Privées ==========
 
-    private void loadLatestPricesFromDatabase() {
-        for (String symbol : SUPPORTED_SYMBOLS) {
-            Optional<MarketData> latest = marketDataRepository
-                    .findFirstBySymbolAndTimeframeOrderByTimestampDesc(symbol, "M1");
-            latest.ifPresent(price -> {
-                latestPricesCache.put(symbol, price);
-                log.debug("Prix initial chargé pour {}: {}", symbol, price.getClosePrice());
-            });
-        }
-    }
-
     private void validateConfiguration() {
         if (timeframes.isEmpty()) {
             throw new IllegalStateException("Aucun timeframe configuré");
@@ -318,6 +323,14 @@ public class MarketDataService {
         }
     }
 
+    /**
+     * Origine des lectures de bougies : buffer mémoire ou cache L1/L2 (puis DB)
+     */
+    private void countRead(String symbol, String timeframe, String source) {
+        meterRegistry.counter("scalper.market.candles.reads",
+                "symbol", symbol, "timeframe", timeframe, "source", source).increment();
+    }
+
     private void validateSymbol(String symbol) {
         if (!SUPPORTED_SYMBOLS.contains(symbol)) {
             throw new IllegalArgumentException("Symbole non supporté: " + symbol);
@@ -329,26 +342,4 @@ public class MarketDataService {
             throw new IllegalArgumentException("Timeframe non supporté: " + timeframe);
         }
     }
-
-    private boolean isRecentData(MarketData data) {
-        return Duration.between(data.getTimestamp(), LocalDateTime.now()).toMinutes() < 5;
-    }
-
-    private boolean isPivotCandidate(MarketData candle) {
-        // Logique simple pour identifier les pivots
-        // En réalité, cela nécessiterait une analyse plus complexe
-        BigDecimal range = candle.getHighPrice().subtract(candle.getLowPrice());
-        BigDecimal threshold = candle.getSymbol().equals("EURUSD") ?
-                BigDecimal.valueOf(0.0005) : BigDecimal.valueOf(0.50);
-        return range.compareTo(threshold) > 0;
-    }
-
-    private void cacheData(String key, Object data, Duration ttl) {
-       // try {
-         //   redisTemplate.opsForValue().set(key, data, ttl);
-        //} catch (Exception e) {
-          //  log.warn("Erreur mise en cache {}: {}", key, e.getMessage());
-        //}
-        log.debug("Cache Redis désactivé temporairement - clé: {}", key);
-    }
-}
\ No newline at end of file
+}
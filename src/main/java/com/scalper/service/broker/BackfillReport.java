@@ -0,0 +1,25 @@
+package com.scalper.service.broker;
+
+import java.time.LocalDateTime;
+
+/**
+ * Bilan d'un backfill historique
+ *
+ * @param skippedChunks chunks déjà terminés lors d'une exécution précédente (points de reprise)
+ * @param failedChunks  chunks en échec après retries, repris à la prochaine exécution
+ */
+public record BackfillReport(String symbol,
+                             String timeframe,
+                             LocalDateTime from,
+                             LocalDateTime to,
+                             int chunks,
+                             int skippedChunks,
+                             int failedChunks,
+                             long candlesFetched,
+                             long candlesInserted,
+                             long durationMs) {
+
+    public boolean isComplete() {
+        return failedChunks == 0;
+    }
+}
@@ -2,6 +2,8 @@ package com.scalper.service.broker;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,6 +12,7 @@ import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import jakarta.annotation.PostConstruct;
@@ -25,6 +28,7 @@ import java.util.HashMap;
  * Service de connexion cTrader API - ÉTAPE 3 Phase API Réelle
  * URLs corrigées selon documentation officielle cTrader
  * Gestion OAuth2, récupération données temps réel, historiques
+ * Allers-retours HTTP et échanges de token chronométrés (scalper.broker.http, scalper.broker.token)
  */
 @Service
 @Slf4j
@@ -34,6 +38,7 @@ public class BrokerConnectionService {
 
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
 
     // Configuration OAuth2 cTrader
     @Value("${scalper.broker.ctrader.client-id}")
@@ -146,15 +151,9 @@ public class BrokerConnectionService {
             HttpEntity<String> request = new HttpEntity<>(body, headers);
 
             // Appel API cTrader avec URL corrigée
-            String tokenUrl = ctraderBaseUrl + OAUTH_TOKEN_PATH;
-            log.debug("Appel token endpoint: {}", tokenUrl);
+            log.debug("Appel token endpoint: {}", ctraderBaseUrl + OAUTH_TOKEN_PATH);
 
-            ResponseEntity<JsonNode> response = restTemplate.exchange(
-                    tokenUrl,
-                    HttpMethod.GET, // Note: GET selon la doc cTrader
-                    request,
-                    JsonNode.class
-            );
+            ResponseEntity<JsonNode> response = requestToken("authorization_code", request);
 
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 JsonNode tokenResponse = response.getBody();
@@ -215,7 +214,7 @@ public class BrokerConnectionService {
         // Vérifier validité token avec un appel API simple
         try {
             log.debug("Vérification connexion avec appel API...");
-            ResponseEntity<JsonNode> response = makeAuthenticatedRequest(
+            ResponseEntity<JsonNode> response = makeAuthenticatedRequest("accounts", "none", "none",
                     ctraderBaseUrl + API_ACCOUNTS_PATH, HttpMethod.GET, null
             );
 
@@ -268,7 +267,8 @@ public class BrokerConnectionService {
                         .toUriString();
 
                 log.debug("Demande données historiques: {}", url);
-                ResponseEntity<JsonNode> response = makeAuthenticatedRequest(url, HttpMethod.GET, null);
+                ResponseEntity<JsonNode> response = makeAuthenticatedRequest("historical", symbol, timeframe,
+                        url, HttpMethod.GET, null);
 
                 if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                     log.debug("📊 Données historiques récupérées: {} {} - {} points",
@@ -300,7 +300,8 @@ public class BrokerConnectionService {
                         .build()
                         .toUriString();
 
-                ResponseEntity<JsonNode> response = makeAuthenticatedRequest(url, HttpMethod.GET, null);
+                ResponseEntity<JsonNode> response = makeAuthenticatedRequest("spot", symbol, "none",
+                        url, HttpMethod.GET, null);
 
                 if (response.getStatusCode().is2xxSuccessful()) {
                     return response.getBody();
@@ -341,12 +342,7 @@ public class BrokerConnectionService {
 
             HttpEntity<String> request = new HttpEntity<>(body, headers);
 
-            ResponseEntity<JsonNode> response = restTemplate.exchange(
-                    ctraderBaseUrl + OAUTH_TOKEN_PATH,
-                    HttpMethod.GET,
-                    request,
-                    JsonNode.class
-            );
+            ResponseEntity<JsonNode> response = requestToken("refresh_token", request);
 
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 JsonNode tokenResponse = response.getBody();
@@ -385,6 +381,10 @@ public class BrokerConnectionService {
                 LocalDateTime.now().isBefore(tokenExpiration.minusMinutes(5)); // Marge 5 min
     }
 
+    public String getAccessToken() {
+        return accessToken;
+    }
+
     public LocalDateTime getTokenExpiration() {
         return tokenExpiration;
     }
@@ -395,7 +395,8 @@ public class BrokerConnectionService {
 
     // ========== Méthodes Privées ==========
 
-    private ResponseEntity<JsonNode> makeAuthenticatedRequest(String url, HttpMethod method, Object body) {
+    private ResponseEntity<JsonNode> makeAuthenticatedRequest(String operation, String symbol, String timeframe,
+                                                              String url, HttpMethod method, Object body) {
         if (accessToken == null) {
             throw new IllegalStateException("Pas d'access token disponible");
         }
@@ -407,18 +408,58 @@ public class BrokerConnectionService {
 
         HttpEntity<?> request = new HttpEntity<>(body, headers);
 
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String status = "IO_ERROR";
         try {
-            return restTemplate.exchange(url, method, request, JsonNode.class);
+            ResponseEntity<JsonNode> response = restTemplate.exchange(url, method, request, JsonNode.class);
+            status = String.valueOf(response.getStatusCode().value());
+            return response;
         } catch (HttpClientErrorException e) {
+            status = String.valueOf(e.getStatusCode().value());
             if (e.getStatusCode() == HttpStatus.UNAUTHORIZED) {
                 log.warn("Token expiré ou invalide - Status 401");
                 isConnected = false;
             }
             throw e;
+        } catch (RestClientResponseException e) {
+            status = String.valueOf(e.getStatusCode().value());
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("scalper.broker.http")
+                    .description("Aller-retour HTTP vers l'API cTrader")
+                    .tags("operation", operation, "symbol", symbol, "timeframe", timeframe, "status", status)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Appel du endpoint token (GET selon la doc cTrader), chronométré par type de grant
+     */
+    private ResponseEntity<JsonNode> requestToken(String grantType, HttpEntity<String> request) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String status = "IO_ERROR";
+        try {
+            ResponseEntity<JsonNode> response = restTemplate.exchange(
+                    ctraderBaseUrl + OAUTH_TOKEN_PATH,
+                    HttpMethod.GET,
+                    request,
+                    JsonNode.class
+            );
+            status = String.valueOf(response.getStatusCode().value());
+            return response;
+        } catch (RestClientResponseException e) {
+            status = String.valueOf(e.getStatusCode().value());
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("scalper.broker.token")
+                    .description("Échange ou rafraîchissement du token OAuth2")
+                    .tags("grant", grantType, "status", status)
+                    .register(meterRegistry));
         }
     }
 
-    private String mapTimeframeToCtrader(String timeframe) {
+    static String mapTimeframeToCtrader(String timeframe) {
         // Mapping timeframes internes vers cTrader
         // Note: Ces valeurs peuvent nécessiter des ajustements selon l'API réelle
         return switch (timeframe) {
@@ -0,0 +1,167 @@
+package com.scalper.service.broker;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scalper.model.entity.MarketData;
+import com.scalper.model.price.Instrument;
+import com.scalper.service.market.MarketSessions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Client HTTP des barres historiques cTrader (trendbars) pour le backfill
+ * La réponse est lue en flux (JsonParser) : chaque barre est convertie et transmise
+ * au consommateur dès sa lecture, sans matérialiser le document en JsonNode.
+ * Format attendu : {"trendbar":[{"utcTimestampInMinutes", "low", "deltaOpen",
+ * "deltaHigh", "deltaClose", "volume"}, ...]}, prix en 1/100000.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "scalper.broker.simulation-mode", havingValue = "false")
+public class BrokerHistoryClient {
+
+    static final String HISTORICAL_PATH = "/v1/historical";
+    private static final int CTRADER_PRICE_SCALE = 5;
+
+    private final HttpClient httpClient;
+    private final JsonFactory jsonFactory;
+    private final String baseUrl;
+    private final Supplier<String> accessToken;
+    private final Duration readTimeout;
+
+    @Autowired
+    public BrokerHistoryClient(BrokerConnectionService brokerConnectionService,
+                               ObjectMapper objectMapper,
+                               @Value("${scalper.broker.ctrader.base-url:https://openapi.ctrader.com}") String baseUrl,
+                               @Value("${scalper.broker.ctrader.connection-timeout:30000}") long connectionTimeoutMs,
+                               @Value("${scalper.broker.ctrader.read-timeout:60000}") long readTimeoutMs) {
+        this(HttpClient.newBuilder().connectTimeout(Duration.ofMillis(connectionTimeoutMs)).build(),
+                objectMapper.getFactory(), baseUrl, brokerConnectionService::getAccessToken,
+                Duration.ofMillis(readTimeoutMs));
+    }
+
+    public BrokerHistoryClient(HttpClient httpClient, JsonFactory jsonFactory, String baseUrl,
+                               Supplier<String> accessToken, Duration readTimeout) {
+        this.httpClient = httpClient;
+        this.jsonFactory = jsonFactory;
+        this.baseUrl = baseUrl;
+        this.accessToken = accessToken;
+        this.readTimeout = readTimeout;
+    }
+
+    /**
+     * Barres de [from, to) transmises une à une, ordre de la réponse
+     *
+     * @return nombre de barres lues
+     */
+    public int fetch(String symbol, String timeframe, LocalDateTime from, LocalDateTime to,
+                     Consumer<MarketData> sink) throws IOException, InterruptedException {
+        String token = accessToken.get();
+        if (token == null) {
+            throw new IllegalStateException("Pas d'access token disponible");
+        }
+
+        URI uri = UriComponentsBuilder.fromHttpUrl(baseUrl + HISTORICAL_PATH)
+                .queryParam("symbol", symbol)
+                .queryParam("timeframe", BrokerConnectionService.mapTimeframeToCtrader(timeframe))
+                .queryParam("from", from.toEpochSecond(ZoneOffset.UTC))
+                .queryParam("to", to.toEpochSecond(ZoneOffset.UTC))
+                .build()
+                .toUri();
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Authorization", "Bearer " + token)
+                .header("Accept", "application/json")
+                .timeout(readTimeout)
+                .GET()
+                .build();
+
+        HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            if (response.statusCode() != 200) {
+                throw new IOException("Échec récupération historique " + symbol + " " + timeframe
+                        + ": HTTP " + response.statusCode());
+            }
+            return parse(symbol, timeframe, body, sink);
+        }
+    }
+
+    private int parse(String symbol, String timeframe, InputStream body, Consumer<MarketData> sink)
+            throws IOException {
+        Instrument instrument = Instrument.of(symbol);
+        int count = 0;
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Réponse historique invalide: objet JSON attendu");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if (!"trendbar".equals(field)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    sink.accept(readBar(parser, symbol, timeframe, instrument));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private MarketData readBar(JsonParser parser, String symbol, String timeframe, Instrument instrument)
+            throws IOException {
+        long minutes = 0, low = 0, deltaOpen = 0, deltaHigh = 0, deltaClose = 0, volume = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "utcTimestampInMinutes" -> minutes = parser.getLongValue();
+                case "low" -> low = parser.getLongValue();
+                case "deltaOpen" -> deltaOpen = parser.getLongValue();
+                case "deltaHigh" -> deltaHigh = parser.getLongValue();
+                case "deltaClose" -> deltaClose = parser.getLongValue();
+                case "volume" -> volume = parser.getLongValue();
+                default -> parser.skipChildren();
+            }
+        }
+
+        LocalDateTime timestamp = LocalDateTime.ofEpochSecond(minutes * 60, 0, ZoneOffset.UTC);
+        BigDecimal lowPrice = BigDecimal.valueOf(low, CTRADER_PRICE_SCALE);
+        BigDecimal highPrice = BigDecimal.valueOf(low + deltaHigh, CTRADER_PRICE_SCALE);
+        return MarketData.builder()
+                .symbol(symbol)
+                .timeframe(timeframe)
+                .timestamp(timestamp)
+                .openPrice(BigDecimal.valueOf(low + deltaOpen, CTRADER_PRICE_SCALE))
+                .highPrice(highPrice)
+                .lowPrice(lowPrice)
+                .closePrice(BigDecimal.valueOf(low + deltaClose, CTRADER_PRICE_SCALE))
+                .volume(volume)
+                .sessionName(MarketSessions.sessionAt(timestamp))
+                .sessionProgress(MarketSessions.progressAt(timestamp))
+                .volatilityLevel(instrument.volatilityLevel(instrument.toTicks(highPrice) - instrument.toTicks(lowPrice)))
+                .dataSource("CTRADER")
+                .isMarketOpen(true)
+                .build();
+    }
+}
@@ -0,0 +1,100 @@
+package com.scalper.service.broker;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.scalper.model.price.Instrument;
+import com.scalper.service.market.TickCandleBuilder;
+import com.scalper.service.market.TickCandleBuilder.TickStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Alimentation du TickCandleBuilder depuis les prix spot cTrader (mode API réelle)
+ * Une seule tâche planifiée interroge tous les symboles : elle est l'unique
+ * producteur de chaque TickStream (contrat single-writer).
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "scalper.broker.simulation-mode", havingValue = "false")
+public class BrokerSpotFeed {
+
+    private final BrokerConnectionService brokerConnectionService;
+    private final Map<String, TickStream> streams = new LinkedHashMap<>();
+
+    // Décalage horloge broker - horloge locale observé au dernier spot, par symbole :
+    // le heartbeat doit être dans l'horloge des ticks pour ne pas clôturer une minute trop tôt
+    private final Map<String, Long> clockOffsets = new HashMap<>();
+
+    public BrokerSpotFeed(BrokerConnectionService brokerConnectionService,
+                          TickCandleBuilder tickCandleBuilder,
+                          @Value("${scalper.market-data.ticks.symbols:EURUSD,XAUUSD}") List<String> symbols) {
+        this.brokerConnectionService = brokerConnectionService;
+        for (String symbol : symbols) {
+            streams.put(symbol, tickCandleBuilder.openStream(symbol, "CTRADER_API"));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${scalper.market-data.ticks.poll-interval-ms:1000}")
+    public void pollSpotPrices() {
+        if (!brokerConnectionService.isConnected()) {
+            return;
+        }
+
+        for (Map.Entry<String, TickStream> entry : streams.entrySet()) {
+            String symbol = entry.getKey();
+            TickStream stream = entry.getValue();
+            try {
+                JsonNode spot = brokerConnectionService.getSpotPrices(symbol).join();
+                onSpot(symbol, stream, spot);
+            } catch (Exception e) {
+                log.warn("⚠️ Erreur lecture spot {}: {}", symbol, e.getMessage());
+            }
+            stream.heartbeat(brokerTimeMillis(symbol));
+        }
+    }
+
+    /**
+     * Réponse spot attendue : {"bid": ..., "ask": ..., "timestamp": epochMillis}
+     * (tableau accepté, horodatage local si absent)
+     */
+    void onSpot(String symbol, TickStream stream, JsonNode spot) {
+        if (spot == null) {
+            return;
+        }
+        if (spot.isArray()) {
+            for (JsonNode quote : spot) {
+                onSpot(symbol, stream, quote);
+            }
+            return;
+        }
+        if (!spot.hasNonNull("bid") || !spot.hasNonNull("ask")) {
+            log.debug("Spot {} incomplet: {}", symbol, spot);
+            return;
+        }
+
+        Instrument instrument = Instrument.of(symbol);
+        long bid = instrument.toTicks(spot.get("bid").asDouble());
+        long ask = instrument.toTicks(spot.get("ask").asDouble());
+        long now = System.currentTimeMillis();
+        long timestamp = now;
+        if (spot.hasNonNull("timestamp")) {
+            timestamp = spot.get("timestamp").asLong();
+            clockOffsets.put(symbol, timestamp - now);
+        }
+        stream.onTick(timestamp, bid, ask);
+    }
+
+    /**
+     * Heure courante estimée dans l'horloge du broker (horloge locale tant qu'aucun spot horodaté)
+     */
+    long brokerTimeMillis(String symbol) {
+        return System.currentTimeMillis() + clockOffsets.getOrDefault(symbol, 0L);
+    }
+}
@@ -0,0 +1,234 @@
+package com.scalper.service.broker;
+
+import com.scalper.model.entity.MarketData;
+import com.scalper.repository.BackfillCheckpointRepository;
+import com.scalper.repository.MarketDataBulkRepository;
+import com.scalper.service.market.MarketDataPartitionService;
+import com.scalper.service.market.MarketQueryCache;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Backfill historique depuis l'API broker
+ * La plage est découpée en chunks de N barres, téléchargés en parallèle (parallélisme borné,
+ * requêtes espacées par un limiteur de débit), lus en flux et écrits par lots JDBC en upsert idempotent.
+ * Chaque chunk terminé est enregistré comme point de reprise : une exécution interrompue
+ * ou partiellement en échec se relance sur la même plage sans retélécharger l'acquis.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "scalper.broker.simulation-mode", havingValue = "false")
+public class HistoricalBackfillService {
+
+    private final BrokerHistoryClient historyClient;
+    private final MarketDataBulkRepository bulkRepository;
+    private final BackfillCheckpointRepository checkpointRepository;
+    private final MarketDataPartitionService partitionService;
+    private final MarketQueryCache marketQueryCache;
+    private final int parallelism;
+    private final int chunkCandles;
+    private final int batchSize;
+    private final int maxRetries;
+    private final RequestPacer pacer;
+
+    // Un backfill à la fois : les demandes REST sont mises en file, le débit broker reste borné
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor();
+
+    public HistoricalBackfillService(BrokerHistoryClient historyClient,
+                                     MarketDataBulkRepository bulkRepository,
+                                     BackfillCheckpointRepository checkpointRepository,
+                                     MarketDataPartitionService partitionService,
+                                     MarketQueryCache marketQueryCache,
+                                     @Value("${scalper.broker.ctrader.backfill.parallelism:4}") int parallelism,
+                                     @Value("${scalper.broker.ctrader.backfill.chunk-candles:1000}") int chunkCandles,
+                                     @Value("${scalper.broker.ctrader.backfill.batch-size:500}") int batchSize,
+                                     @Value("${scalper.broker.ctrader.backfill.requests-per-second:5}") double requestsPerSecond,
+                                     @Value("${scalper.broker.ctrader.max-retries:3}") int maxRetries) {
+        this.historyClient = historyClient;
+        this.bulkRepository = bulkRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.partitionService = partitionService;
+        this.marketQueryCache = marketQueryCache;
+        this.parallelism = parallelism;
+        this.chunkCandles = chunkCandles;
+        this.batchSize = batchSize;
+        this.maxRetries = maxRetries;
+        this.pacer = new RequestPacer(requestsPerSecond);
+    }
+
+    /**
+     * Backfill asynchrone (endpoint REST)
+     */
+    public CompletableFuture<BackfillReport> backfillAsync(String symbol, String timeframe,
+                                                           LocalDateTime from, LocalDateTime to) {
+        return CompletableFuture.supplyAsync(() -> backfill(symbol, timeframe, from, to), coordinator);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+    }
+
+    /**
+     * Backfill de [from, to), bloquant jusqu'à la fin de tous les chunks
+     */
+    public BackfillReport backfill(String symbol, String timeframe, LocalDateTime from, LocalDateTime to) {
+        long startMs = System.currentTimeMillis();
+        List<LocalDateTime[]> chunks = split(from, to, minutesOf(timeframe) * (long) chunkCandles);
+
+        partitionService.ensurePartitions(from.toLocalDate(), to.toLocalDate());
+        checkpointRepository.ensureTable();
+        Set<LocalDateTime> completed = checkpointRepository.findCompletedChunks(symbol, timeframe, from, to);
+
+        log.info("🎯 Backfill {} {} [{} - {}): {} chunks dont {} déjà terminés, parallélisme {}",
+                symbol, timeframe, from, to, chunks.size(), completed.size(), parallelism);
+
+        AtomicLong fetched = new AtomicLong();
+        AtomicLong inserted = new AtomicLong();
+        AtomicInteger failed = new AtomicInteger();
+        int skipped = 0;
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (LocalDateTime[] chunk : chunks) {
+                if (completed.contains(chunk[0])) {
+                    skipped++;
+                    continue;
+                }
+                futures.add(executor.submit(() -> {
+                    if (!runChunk(symbol, timeframe, chunk[0], chunk[1], fetched, inserted)) {
+                        failed.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed.incrementAndGet(); // Rapport partiel : les chunks non terminés seront repris
+            log.warn("⚠️ Backfill {} {} interrompu", symbol, timeframe);
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            log.error("❌ Erreur backfill {} {}: {}", symbol, timeframe, e.getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Plage [from, to) conservée hors rétention, y compris après un backfill partiel
+        partitionService.retainDays(from.toLocalDate(), to.minusNanos(1).toLocalDate(), "BACKFILL");
+
+        // Les requêtes historiques en cache peuvent couvrir la plage complétée
+        marketQueryCache.invalidate(symbol, timeframe);
+
+        BackfillReport report = new BackfillReport(symbol, timeframe, from, to, chunks.size(), skipped,
+                failed.get(), fetched.get(), inserted.get(), System.currentTimeMillis() - startMs);
+        if (report.isComplete()) {
+            log.info("✅ Backfill {} {} terminé: {} barres lues, {} insérées en {} ms",
+                    symbol, timeframe, report.candlesFetched(), report.candlesInserted(), report.durationMs());
+        } else {
+            log.warn("⚠️ Backfill {} {} partiel: {} chunks en échec, relancer pour reprendre",
+                    symbol, timeframe, report.failedChunks());
+        }
+        return report;
+    }
+
+    /**
+     * Un chunk : téléchargement en flux, écriture par lots, point de reprise en fin de chunk
+     * Un chunk rejoué après échec réécrit ses barres sans doublon (upsert sur la clé unique).
+     */
+    private boolean runChunk(String symbol, String timeframe, LocalDateTime chunkStart, LocalDateTime chunkEnd,
+                             AtomicLong fetched, AtomicLong inserted) {
+        for (int attempt = 1; attempt <= maxRetries; attempt++) {
+            try {
+                pacer.acquire();
+                List<MarketData> batch = new ArrayList<>(batchSize);
+                long[] chunkInserted = {0};
+                int count = historyClient.fetch(symbol, timeframe, chunkStart, chunkEnd, candle -> {
+                    batch.add(candle);
+                    if (batch.size() >= batchSize) {
+                        chunkInserted[0] += bulkRepository.upsert(batch);
+                        batch.clear();
+                    }
+                });
+                chunkInserted[0] += bulkRepository.upsert(batch);
+
+                checkpointRepository.markCompleted(symbol, timeframe, chunkStart, chunkEnd, count);
+                fetched.addAndGet(count);
+                inserted.addAndGet(chunkInserted[0]);
+                log.debug("Chunk {} {} [{} - {}): {} barres", symbol, timeframe, chunkStart, chunkEnd, count);
+                return true;
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (Exception e) {
+                log.warn("⚠️ Chunk {} {} [{} - {}) tentative {}/{}: {}", symbol, timeframe, chunkStart, chunkEnd,
+                        attempt, maxRetries, e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    static List<LocalDateTime[]> split(LocalDateTime from, LocalDateTime to, long chunkMinutes) {
+        List<LocalDateTime[]> chunks = new ArrayList<>();
+        for (LocalDateTime start = from; start.isBefore(to); start = start.plusMinutes(chunkMinutes)) {
+            LocalDateTime end = start.plusMinutes(chunkMinutes);
+            chunks.add(new LocalDateTime[]{start, end.isAfter(to) ? to : end});
+        }
+        return chunks;
+    }
+
+    private static int minutesOf(String timeframe) {
+        return switch (timeframe) {
+            case "M1" -> 1;
+            case "M5" -> 5;
+            case "M30" -> 30;
+            case "H1" -> 60;
+            case "D1" -> 1440;
+            default -> throw new IllegalArgumentException("Timeframe non supporté: " + timeframe);
+        };
+    }
+
+    /**
+     * Limiteur de débit : espace les départs de requêtes d'au moins 1/débit,
+     * tous threads de téléchargement confondus
+     */
+    static final class RequestPacer {
+        private final long intervalNanos;
+        private long nextSlot = System.nanoTime();
+
+        RequestPacer(double requestsPerSecond) {
+            this.intervalNanos = requestsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond) : 0;
+        }
+
+        void acquire() throws InterruptedException {
+            long waitNanos;
+            synchronized (this) {
+                long now = System.nanoTime();
+                long slot = Math.max(nextSlot, now);
+                nextSlot = slot + intervalNanos;
+                waitNanos = slot - now;
+            }
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        }
+    }
+}
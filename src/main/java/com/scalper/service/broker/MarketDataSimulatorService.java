@@ -1,79 +1,159 @@
 package com.scalper.service.broker;
 
+import com.scalper.config.SimulationProperties;
 import com.scalper.model.entity.MarketData;
-import com.scalper.repository.MarketDataRepository;
-import lombok.RequiredArgsConstructor;
+import com.scalper.model.price.Instrument;
+import com.scalper.service.market.CandleIngestService;
+import com.scalper.service.market.CandleWriteBehindQueue;
+import com.scalper.service.market.MarketDataPartitionService;
+import com.scalper.service.market.MarketSessions;
+import com.scalper.service.market.SessionLevelTracker;
+import com.scalper.service.market.TickCandleBuilder;
+import com.scalper.service.market.TickCandleBuilder.TickStream;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.data.redis.core.RedisTemplate;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Simulateur de données de marché cTrader - ÉTAPE 3 Phase Simulateur
  * Génère des données EURUSD/XAUUSD réalistes avec sessions Asia/London/NY
+ *
+ * Trois modes, même chemin d'ingestion (agrégation, persistance write-behind, caches) :
+ * - live : une M1 par minute réelle, horodatée par l'horloge injectée ;
+ * - replay : [from, to) rejoué minute simulée par minute simulée, à speed-multiplier minutes
+ *   par minute réelle (0 = aussi vite que la file d'écriture absorbe). Avec une graine fixe,
+ *   la série générée est identique d'une exécution à l'autre (fixture de test, générateur de charge) ;
+ * - tick : un thread par symbole pousse N ticks bid/ask par seconde dans TickCandleBuilder
+ *   (chemin du flux broker), spread selon la session, rafales sur choc news. Débit atteint,
+ *   retard sur la cadence cible et latence de clôture des M1 sont publiés (scalper.simulator.tick*).
+ *
+ * État par symbole à écrivain unique : chaque SimulationContext (SplittableRandom dédié, fenêtre
+ * de prix primitive) n'est muté que par la tâche de son symbole, sans verrou ni aléa partagé ;
+ * les symboles d'une même minute sont générés en parallèle.
  */
 @Service
 @Slf4j
-@RequiredArgsConstructor
 @ConditionalOnProperty(name = "scalper.broker.simulation-mode", havingValue = "true", matchIfMissing = true)
 public class MarketDataSimulatorService {
 
-    private final MarketDataRepository marketDataRepository;
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final CandleIngestService candleIngestService;
+    private final SessionLevelTracker sessionLevelTracker;
+    private final CandleWriteBehindQueue candleWriteBehindQueue;
+    private final MarketDataPartitionService partitionService;
+    private final MeterRegistry meterRegistry;
+    private final TickCandleBuilder tickCandleBuilder;
+    private final Clock clock;
+    private final SimulationProperties properties;
+    private final long seed;
 
     // État du simulateur
     private final Map<String, MarketData> currentPrices = new ConcurrentHashMap<>();
     private final Map<String, SimulationContext> simulationContexts = new ConcurrentHashMap<>();
-    private final Random random = new Random();
-
-    // Configuration simulateur (from application.yml)
-    private static final Map<String, SymbolConfig> SYMBOL_CONFIGS = Map.of(
-            "EURUSD", new SymbolConfig(new BigDecimal("1.0850"), 80, new BigDecimal("0.5")),
-            "XAUUSD", new SymbolConfig(new BigDecimal("1950.0"), 1500, new BigDecimal("20"))
-    );
+    private final ExecutorService replayExecutor = Executors.newSingleThreadExecutor();
+    private final AtomicInteger symbolThreadIndex = new AtomicInteger();
+    private final ExecutorService symbolExecutor = Executors.newFixedThreadPool(SYMBOL_CONFIGS.size(), task -> {
+        Thread thread = new Thread(task, "simulator-symbol-" + symbolThreadIndex.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final List<TickFeed> tickFeeds = new CopyOnWriteArrayList<>();
+    // Propriété exclusive des contextes de simulation : minute planifiée ou replay, jamais les deux
+    private final ReentrantLock generationLock = new ReentrantLock();
+    private volatile boolean replaying;
+    private volatile boolean tickFeedRunning;
+
+    // Configuration simulateur (from application.yml), ordre fixe pour un replay reproductible
+    private static final Map<String, SymbolConfig> SYMBOL_CONFIGS = new TreeMap<>(Map.of(
+            "EURUSD", new SymbolConfig(Instrument.EURUSD, new BigDecimal("1.0850"), 80, new BigDecimal("0.5")),
+            "XAUUSD", new SymbolConfig(Instrument.XAUUSD, new BigDecimal("1950.0"), 1500, new BigDecimal("20"))
+    ));
+
+    public MarketDataSimulatorService(CandleIngestService candleIngestService,
+                                      SessionLevelTracker sessionLevelTracker,
+                                      CandleWriteBehindQueue candleWriteBehindQueue,
+                                      MarketDataPartitionService partitionService,
+                                      TickCandleBuilder tickCandleBuilder,
+                                      MeterRegistry meterRegistry,
+                                      Clock clock,
+                                      SimulationProperties properties) {
+        this.candleIngestService = candleIngestService;
+        this.sessionLevelTracker = sessionLevelTracker;
+        this.candleWriteBehindQueue = candleWriteBehindQueue;
+        this.partitionService = partitionService;
+        this.tickCandleBuilder = tickCandleBuilder;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.properties = properties;
+        // Graine 0 : tirée au démarrage mais journalisée, le run reste rejouable
+        this.seed = properties.seed() != 0 ? properties.seed() : new Random().nextLong();
+    }
 
     @PostConstruct
     public void initializeSimulator() {
-        log.info("🎯 Initialisation Simulateur cTrader - ÉTAPE 3");
+        log.info("🎯 Initialisation Simulateur cTrader - ÉTAPE 3 (graine {})", seed);
+        LocalDateTime now = LocalDateTime.now(clock);
+        // Un flux par symbole, dérivé dans l'ordre des symboles : série reproductible pour une graine
+        SplittableRandom rootRandom = new SplittableRandom(seed);
 
         // Initialiser contextes de simulation pour chaque symbole
         SYMBOL_CONFIGS.forEach((symbol, config) -> {
-            SimulationContext context = new SimulationContext(symbol, config);
+            SimulationContext context = new SimulationContext(symbol, config, rootRandom.split(),
+                    Timer.builder("scalper.simulator.candle.generate")
+                            .description("Génération d'une bougie simulée")
+                            .tags("symbol", symbol, "timeframe", "M1")
+                            .publishPercentileHistogram()
+                            .register(meterRegistry));
             simulationContexts.put(symbol, context);
 
             // Prix initial
+            Instrument instrument = config.instrument;
             MarketData initialPrice = MarketData.builder()
                     .symbol(symbol)
                     .timeframe("M1")
-                    .timestamp(LocalDateTime.now())
-                    .openPrice(config.basePrice)
-                    .highPrice(config.basePrice.add(BigDecimal.valueOf(0.0001)))
-                    .lowPrice(config.basePrice.subtract(BigDecimal.valueOf(0.0001)))
-                    .closePrice(config.basePrice)
+                    .timestamp(now)
+                    .openPrice(instrument.toPrice(config.basePriceTicks))
+                    .highPrice(instrument.toPrice(config.basePriceTicks + instrument.toTicks(0.0001)))
+                    .lowPrice(instrument.toPrice(config.basePriceTicks - instrument.toTicks(0.0001)))
+                    .closePrice(instrument.toPrice(config.basePriceTicks))
                     .volume(1000L)
-                    .sessionName(getCurrentSession())
-                    .sessionProgress(calculateSessionProgress())
+                    .sessionName(MarketSessions.sessionAt(now))
+                    .sessionProgress(MarketSessions.progressAt(now))
                     .dataSource("SIMULATOR")
                     .volatilityLevel("NORMAL")
                     .spreadPips(config.spreadPips)
-                    .isMarketOpen(isMarketOpen())
+                    .isMarketOpen(MarketSessions.isMarketOpen(now))
                     .build();
 
             currentPrices.put(symbol, initialPrice);
             log.info("📊 Simulateur initialisé pour {} - Prix de base: {}",
-                    symbol, config.basePrice);
+                    symbol, instrument.toPrice(config.basePriceTicks));
         });
 
         log.info("✅ Simulateur cTrader démarré - {} symboles actifs", SYMBOL_CONFIGS.size());
@@ -81,246 +161,398 @@ public class MarketDataSimulatorService {
 
 
     /**
-     * Génération continue des données M1 (toutes les minutes)
+     * Génération continue des données M1, alignée sur le début de chaque minute.
+     * Les bougies M5/M30 sont agrégées en flux par CandleIngestService.
+     * Suspendue pendant un replay : les deux modes partagent les contextes de simulation.
+     * En mode tick, les M1 viennent de TickCandleBuilder : seules les barres expirées sont clôturées.
      */
-    @Scheduled(fixedRate = 60000) // 60 seconds = 1 minute
+    @Scheduled(cron = "0 * * * * *")
     public void generateM1Data() {
-        if (!isMarketOpen()) {
-            return; // Pas de génération en dehors des heures de marché
+        if (!generationLock.tryLock()) {
+            log.debug("Minute planifiée ignorée : replay en cours");
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now(clock);
+            if (tickFeedRunning) {
+                candleIngestService.closeExpiredBars(now);
+                logTickThroughput();
+                return;
+            }
+            tick(now.truncatedTo(ChronoUnit.MINUTES).minusMinutes(1), now); // Minute écoulée
+        } finally {
+            generationLock.unlock();
         }
+    }
 
-        SYMBOL_CONFIGS.keySet().forEach(this::generateNextCandle);
+    /**
+     * Replay ou flux de ticks configuré au démarrage, sur des threads dédiés
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startConfiguredMode() {
+        if (properties.ticks().enabled()) {
+            startTickFeed();
+            return;
+        }
+        SimulationProperties.Replay replay = properties.replay();
+        if (!replay.enabled()) {
+            return;
+        }
+        LocalDateTime to = replay.to().isBlank()
+                ? LocalDateTime.now(clock).truncatedTo(ChronoUnit.DAYS) : LocalDateTime.parse(replay.to());
+        LocalDateTime from = replay.from().isBlank() ? to.minusDays(14) : LocalDateTime.parse(replay.from());
+        replayExecutor.execute(() -> replay(from, to));
     }
 
     /**
-     * Génération des bougies M5 et M30 basées sur les données M1
+     * Rejoue [from, to) minute par minute sur le chemin d'ingestion live, bloquant
+     * Attend que la file d'écriture redescende sous max-backlog avant chaque minute :
+     * à vitesse 0, le débit est celui que la persistance absorbe, sans bougie rejetée.
+     * Les partitions de la plage sont créées avant la première minute (init.sql ne couvre que
+     * J-30 à J+7) et les jours rejoués sont exclus de la rétention, comme l'import et le backfill.
+     * Le verrou de génération est pris avant toute autre étape : une minute planifiée déjà
+     * démarrée se termine d'abord, les suivantes sont ignorées jusqu'à la fin du replay.
+     *
+     * @return nombre de bougies M1 générées
      */
-    @Scheduled(fixedRate = 300000) // 5 minutes
-    public void generateM5Data() {
-        if (!isMarketOpen()) return;
+    public long replay(LocalDateTime from, LocalDateTime to) {
+        generationLock.lock();
+        replaying = true;
+        try {
+            return replayLocked(from, to);
+        } finally {
+            replaying = false;
+            generationLock.unlock();
+        }
+    }
 
-        SYMBOL_CONFIGS.keySet().forEach(symbol -> {
-            generateAggregatedCandle(symbol, "M5", 5);
-        });
+    private long replayLocked(LocalDateTime from, LocalDateTime to) {
+        partitionService.ensurePartitions(from.toLocalDate(), to.toLocalDate());
+
+        double speedMultiplier = properties.speedMultiplier();
+        int maxBacklog = properties.replay().maxBacklog();
+        long minuteNanos = speedMultiplier > 0 ? (long) (TimeUnit.MINUTES.toNanos(1) / speedMultiplier) : 0;
+        long startNanos = System.nanoTime();
+        long generated = 0;
+        long minutes = 0;
+
+        log.info("🎯 Replay simulateur [{} - {}) - vitesse x{}, graine {}",
+                from, to, speedMultiplier > 0 ? speedMultiplier : "max", seed);
+        try {
+            for (LocalDateTime minute = from; minute.isBefore(to); minute = minute.plusMinutes(1)) {
+                while (candleWriteBehindQueue.getQueueDepth() >= maxBacklog) {
+                    TimeUnit.MILLISECONDS.sleep(5);
+                }
+                generated += tick(minute, minute.plusMinutes(1));
+                minutes++;
+
+                long aheadNanos = startNanos + minutes * minuteNanos - System.nanoTime();
+                if (minuteNanos > 0 && aheadNanos > 0) {
+                    TimeUnit.NANOSECONDS.sleep(aheadNanos);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("⚠️ Replay simulateur interrompu après {} minutes", minutes);
+        }
+        if (generated > 0) {
+            partitionService.retainDays(from.toLocalDate(), to.minusNanos(1).toLocalDate(), "REPLAY");
+        }
+
+        long elapsedMs = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+        log.info("✅ Replay simulateur terminé: {} minutes, {} bougies M1 en {} ms ({} bougies/s)",
+                minutes, generated, elapsedMs, generated * 1000 / elapsedMs);
+        return generated;
+    }
+
+    /**
+     * Une minute simulée : M1 de chaque symbole si le marché est ouvert, puis clôture
+     * des barres M5/M30 restées ouvertes (marché fermé, trou de données) à l'instant {@code now}
+     *
+     * @return nombre de bougies M1 générées
+     */
+    private int tick(LocalDateTime candleTime, LocalDateTime now) {
+        Timer.Sample tick = Timer.start(meterRegistry);
+        int generated = 0;
+        if (MarketSessions.isMarketOpen(candleTime)) {
+            List<Future<Boolean>> results = new ArrayList<>(SYMBOL_CONFIGS.size());
+            for (String symbol : SYMBOL_CONFIGS.keySet()) {
+                results.add(symbolExecutor.submit(() -> generateNextCandle(symbol, candleTime)));
+            }
+            generated = awaitGenerated(results);
+        }
+
+        candleIngestService.closeExpiredBars(now);
+        candleIngestService.endOfTick();
+        tick.stop(meterRegistry.timer("scalper.simulator.tick"));
+        return generated;
     }
 
-    @Scheduled(fixedRate = 1800000) // 30 minutes
-    public void generateM30Data() {
-        if (!isMarketOpen()) return;
+    // ========== Mode Tick ==========
 
-        SYMBOL_CONFIGS.keySet().forEach(symbol -> {
-            generateAggregatedCandle(symbol, "M30", 30);
+    /**
+     * Démarre un producteur de ticks par symbole, unique écrivain de son TickStream
+     */
+    public synchronized void startTickFeed() {
+        if (tickFeedRunning) {
+            return;
+        }
+        SimulationProperties.Ticks ticks = properties.ticks();
+        tickFeedRunning = true;
+        simulationContexts.forEach((symbol, context) -> {
+            TickFeed feed = new TickFeed(context, tickCandleBuilder.openStream(symbol, "SIMULATOR"), meterRegistry);
+            feed.thread = new Thread(() -> runTickFeed(feed, ticks), "simulator-ticks-" + symbol);
+            feed.thread.setDaemon(true);
+            feed.thread.start();
+            tickFeeds.add(feed);
         });
+        log.info("🎯 Simulateur en mode tick - {} ticks/s par symbole (x{} pendant {}s sur choc news), graine {}",
+                ticks.ticksPerSecond(), ticks.burstMultiplier(), ticks.burstSeconds(), seed);
+    }
+
+    public synchronized void stopTickFeed() {
+        tickFeedRunning = false;
+        for (TickFeed feed : tickFeeds) {
+            feed.thread.interrupt();
+            try {
+                feed.thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        tickFeeds.clear();
+    }
+
+    /**
+     * Boucle d'un producteur : marche aléatoire du bid calibrée sur le modèle M1
+     * (écart-type par minute réparti sur les ticks de la minute), cadence tenue sur un échéancier
+     * nanoTime. Un choc news (tirage par minute) ouvre une rafale : débit x burst-multiplier,
+     * dérive du prix sur la durée du choc, spread triplé.
+     */
+    private void runTickFeed(TickFeed feed, SimulationProperties.Ticks ticks) {
+        SimulationContext context = feed.context;
+        SymbolConfig config = context.config;
+        Instrument instrument = config.instrument;
+        SplittableRandom random = context.random;
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, ticks.ticksPerSecond());
+        long burstIntervalNanos = Math.max(1, (long) (intervalNanos / Math.max(1.0, ticks.burstMultiplier())));
+        long burstTicks = Math.max(1, TimeUnit.SECONDS.toNanos(ticks.burstSeconds()) / burstIntervalNanos);
+        double maxMovement = config.dailyRangePips * 0.1;
+
+        long bid = context.lastCloseTicks;
+        long minute = Long.MIN_VALUE;
+        boolean marketOpen = false;
+        double sigmaTicks = 0;
+        long spreadTicks = 0;
+        long burstEndMillis = 0;
+        double burstDriftTicks = 0;
+        long closedCandles = feed.stream.getClosedCandles();
+        long nextNanos = System.nanoTime();
+
+        while (tickFeedRunning) {
+            long nowMillis = clock.millis();
+            long nowMinute = Math.floorDiv(nowMillis, 60_000L);
+            if (nowMinute != minute) {
+                minute = nowMinute;
+                LocalDateTime time = LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+                String session = MarketSessions.sessionAt(time);
+                marketOpen = MarketSessions.isMarketOpen(time);
+                sigmaTicks = maxMovement * getSessionVolatilityMultiplier(session) * instrument.getPipTicks()
+                        / Math.sqrt(60.0 * ticks.ticksPerSecond());
+                spreadTicks = Math.max(1, instrument.pipsToTicks(
+                        config.spreadPips.doubleValue() * getSessionSpreadMultiplier(session)));
+
+                double newsImpact = simulateNewsImpact(random);
+                if (newsImpact != 0.0) {
+                    burstEndMillis = nowMillis + TimeUnit.SECONDS.toMillis(ticks.burstSeconds());
+                    burstDriftTicks = instrument.pipsToTicks(newsImpact * maxMovement * 0.5) / (double) burstTicks;
+                    feed.shockCounter.increment();
+                }
+            }
+
+            if (!marketOpen) {
+                feed.stream.heartbeat(nowMillis);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+                nextNanos = System.nanoTime();
+                continue;
+            }
+
+            boolean burst = nowMillis < burstEndMillis;
+            double step = random.nextGaussian() * sigmaTicks + (burst ? burstDriftTicks : 0.0);
+            bid = Math.max(config.minPriceTicks, Math.min(config.maxPriceTicks, bid + Math.round(step)));
+            feed.stream.onTick(nowMillis, bid, bid + (burst ? spreadTicks * 3 : spreadTicks));
+            feed.tickCounter.increment();
+
+            // M1 précédente clôturée et ingérée par ce tick : latence depuis la fin de sa minute
+            if (feed.stream.getClosedCandles() != closedCandles) {
+                closedCandles = feed.stream.getClosedCandles();
+                feed.candleLatency.record(clock.millis() - minute * 60_000L, TimeUnit.MILLISECONDS);
+            }
+
+            nextNanos += burst ? burstIntervalNanos : intervalNanos;
+            long aheadNanos = nextNanos - System.nanoTime();
+            if (aheadNanos > 0) {
+                feed.lagMillis.set(0);
+                LockSupport.parkNanos(aheadNanos);
+            } else {
+                feed.lagMillis.set(TimeUnit.NANOSECONDS.toMillis(-aheadNanos));
+                if (-aheadNanos > TimeUnit.SECONDS.toNanos(1)) {
+                    nextNanos = System.nanoTime(); // Débit cible hors d'atteinte : pas de rattrapage en rafale
+                }
+            }
+        }
+        context.lastCloseTicks = bid;
+    }
+
+    private void logTickThroughput() {
+        for (TickFeed feed : tickFeeds) {
+            long total = feed.stream.getTotalTicks();
+            log.info("📈 {} ticks: {}/s (cible {}), retard {} ms, {} M1 clôturées",
+                    feed.context.symbol, (total - feed.lastLoggedTicks) / 60, properties.ticks().ticksPerSecond(),
+                    feed.lagMillis.get(), feed.stream.getClosedCandles());
+            feed.lastLoggedTicks = total;
+        }
+    }
+
+    /**
+     * Attend les bougies de la minute : la clôture des barres expirées suit toutes les M1
+     */
+    private int awaitGenerated(List<Future<Boolean>> results) {
+        int generated = 0;
+        for (Future<Boolean> result : results) {
+            try {
+                if (result.get()) {
+                    generated++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return generated;
+            } catch (ExecutionException e) {
+                log.error("❌ Erreur génération minute simulée: {}", e.getCause().getMessage());
+            }
+        }
+        return generated;
     }
 
     /**
-     * Génère la prochaine bougie pour un symbole
+     * Génère la prochaine bougie pour un symbole (tâche du symbole, seul écrivain de son contexte)
      */
-    private void generateNextCandle(String symbol) {
+    private boolean generateNextCandle(String symbol, LocalDateTime timestamp) {
         try {
             SimulationContext context = simulationContexts.get(symbol);
             MarketData lastCandle = currentPrices.get(symbol);
 
             if (lastCandle == null) {
                 log.warn("⚠️ Pas de prix précédent pour {}, initialisation...", symbol);
-                return;
+                return false;
             }
 
-            // Calculer nouveau prix basé sur volatilité de session et tendance
-            BigDecimal newPrice = calculateNextPrice(symbol, lastCandle, context);
+            // Calculer nouveau prix (ticks) basé sur volatilité de session et tendance
+            long start = System.nanoTime();
+            String session = MarketSessions.sessionAt(timestamp);
+            long newPriceTicks = calculateNextPrice(context, session);
 
             // Générer bougie réaliste avec spread et volatilité
-            MarketData newCandle = generateRealisticCandle(symbol, newPrice, context);
+            MarketData newCandle = generateRealisticCandle(symbol, newPriceTicks, context, timestamp, session);
+            context.generateTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 
-            // Sauvegarder en base et cache
-            marketDataRepository.save(newCandle);
+            // Persistance, store mémoire, agrégation et cache
+            candleIngestService.ingest(newCandle);
             currentPrices.put(symbol, newCandle);
-            cacheLatestPrice(symbol, newCandle);
 
             // Mise à jour contexte simulation
             context.updateContext(newCandle);
 
-            // Log occasionnel pour monitoring
-            if (random.nextInt(10) == 0) { // 10% des fois
-                log.info("📈 {} M1: O:{} H:{} L:{} C:{} | Session: {} | Vol: {}",
+            // Log occasionnel pour monitoring (live uniquement, sans consommer l'aléa de la série)
+            if (!replaying && context.candleCount % 10 == 0) { // 1 bougie sur 10
+                log.info("📈 {} M1: O:{} H:{} L:{} C:{} | SMA{}: {} | Session: {} | Vol: {}",
                         symbol, newCandle.getOpenPrice(), newCandle.getHighPrice(),
                         newCandle.getLowPrice(), newCandle.getClosePrice(),
+                        context.recentCloses.size(), context.config.instrument.toPrice(context.recentCloses.mean()),
                         newCandle.getSessionName(), newCandle.getVolatilityLevel());
             }
+            return true;
 
         } catch (Exception e) {
             log.error("❌ Erreur génération bougie pour {}: {}", symbol, e.getMessage());
+            return false;
         }
     }
 
     /**
-     * Calcule le prochain prix basé sur volatilité de session et momentum
+     * Calcule le prochain prix (en ticks) basé sur volatilité de session et momentum
      */
-    private BigDecimal calculateNextPrice(String symbol, MarketData lastCandle, SimulationContext context) {
-        SymbolConfig config = SYMBOL_CONFIGS.get(symbol);
-        BigDecimal currentPrice = lastCandle.getClosePrice();
+    private long calculateNextPrice(SimulationContext context, String session) {
+        SymbolConfig config = context.config;
+        SplittableRandom random = context.random;
+        long currentPrice = context.lastCloseTicks;
 
         // Facteurs d'influence sur le prix
-        double sessionVolatility = getSessionVolatilityMultiplier();
+        double sessionVolatility = getSessionVolatilityMultiplier(session);
         double trendMomentum = context.getTrendMomentum();
-        double newsImpact = simulateNewsImpact();
+        double newsImpact = simulateNewsImpact(random);
 
-        // Calcul du movement (en pourcentage du daily range)
+        // Calcul du movement (en pips, pourcentage du daily range)
         double maxMovement = config.dailyRangePips * 0.1; // Max 10% du range quotidien par bougie
         double movement = (random.nextGaussian() * maxMovement * sessionVolatility) +
                 (trendMomentum * maxMovement * 0.3) +
                 (newsImpact * maxMovement * 0.5);
 
-        // Conversion en prix
-        BigDecimal pipSize = symbol.equals("EURUSD") ?
-                BigDecimal.valueOf(0.0001) : BigDecimal.valueOf(0.01);
-        BigDecimal priceMovement = BigDecimal.valueOf(movement).multiply(pipSize);
-
-        BigDecimal newPrice = currentPrice.add(priceMovement);
-
-        // Contraintes réalistes (éviter prix aberrants)
-        BigDecimal minPrice = config.basePrice.multiply(BigDecimal.valueOf(0.95));
-        BigDecimal maxPrice = config.basePrice.multiply(BigDecimal.valueOf(1.05));
-
-        if (newPrice.compareTo(minPrice) < 0) newPrice = minPrice;
-        if (newPrice.compareTo(maxPrice) > 0) newPrice = maxPrice;
+        // Conversion pips -> ticks
+        long newPrice = currentPrice + config.instrument.pipsToTicks(movement);
 
-        return newPrice;
+        // Contraintes réalistes (éviter prix aberrants : +/- 5% du prix de base)
+        return Math.max(config.minPriceTicks, Math.min(config.maxPriceTicks, newPrice));
     }
 
     /**
-     * Génère une bougie réaliste avec OHLC cohérent
+     * Génère une bougie réaliste avec OHLC cohérent (calculs en ticks)
      */
-    private MarketData generateRealisticCandle(String symbol, BigDecimal targetPrice,
-                                               SimulationContext context) {
-        MarketData lastCandle = currentPrices.get(symbol);
-        BigDecimal open = lastCandle.getClosePrice();
-        BigDecimal close = targetPrice;
+    private MarketData generateRealisticCandle(String symbol, long close, SimulationContext context,
+                                               LocalDateTime timestamp, String session) {
+        SymbolConfig config = context.config;
+        Instrument instrument = config.instrument;
+        SplittableRandom random = context.random;
+        long open = context.lastCloseTicks;
 
-        // Génération High/Low réaliste
-        BigDecimal range = close.subtract(open).abs();
-        BigDecimal maxRange = range.multiply(BigDecimal.valueOf(1.5)); // 50% de range supplémentaire max
+        // Génération High/Low réaliste : jusqu'à 150% du corps en mèches
+        long maxRange = Math.abs(close - open) * 3 / 2;
 
-        BigDecimal high = open.max(close).add(
-                BigDecimal.valueOf(random.nextDouble() * maxRange.doubleValue()));
-        BigDecimal low = open.min(close).subtract(
-                BigDecimal.valueOf(random.nextDouble() * maxRange.doubleValue()));
-
-        // Assurer cohérence OHLC
-        high = high.max(open).max(close);
-        low = low.min(open).min(close);
+        long high = Math.max(open, close) + (long) (random.nextDouble() * maxRange);
+        long low = Math.min(open, close) - (long) (random.nextDouble() * maxRange);
 
         // Volume simulé basé sur session
-        long volume = generateRealisticVolume(symbol, getCurrentSession());
+        long volume = generateRealisticVolume(symbol, session, random);
+
+        // VWAP réel de la session (Σpv / Σv des M1 déjà ingérées), prix courant si session vide
+        long vwap = sessionLevelTracker.currentVwapTicks(symbol, session, timestamp.toLocalDate(), close);
 
         return MarketData.builder()
                 .symbol(symbol)
                 .timeframe("M1")
-                .timestamp(LocalDateTime.now())
-                .openPrice(open.setScale(5, RoundingMode.HALF_UP))
-                .highPrice(high.setScale(5, RoundingMode.HALF_UP))
-                .lowPrice(low.setScale(5, RoundingMode.HALF_UP))
-                .closePrice(close.setScale(5, RoundingMode.HALF_UP))
+                .timestamp(timestamp)
+                .openPrice(instrument.toPrice(open))
+                .highPrice(instrument.toPrice(high))
+                .lowPrice(instrument.toPrice(low))
+                .closePrice(instrument.toPrice(close))
                 .volume(volume)
-                .sessionName(getCurrentSession())
-                .sessionProgress(calculateSessionProgress())
-                .vwapSession(context.calculateCurrentVWAP())
-                .distanceToVwapPips(calculateDistanceToVWAP(close, context.calculateCurrentVWAP(), symbol))
-                .volatilityLevel(determineVolatilityLevel(high.subtract(low)))
-                .majorNewsProximityMinutes(simulateNewsProximity())
+                .sessionName(session)
+                .sessionProgress(MarketSessions.progressAt(timestamp))
+                .vwapSession(instrument.toPrice(vwap))
+                .distanceToVwapPips(calculateDistanceToVWAP(close, vwap, instrument))
+                .volatilityLevel(instrument.volatilityLevel(high - low))
+                .majorNewsProximityMinutes(simulateNewsProximity(random))
                 .dataSource("SIMULATOR")
-                .spreadPips(SYMBOL_CONFIGS.get(symbol).spreadPips)
+                .spreadPips(config.spreadPips)
                 .isMarketOpen(true)
                 .build();
     }
 
-    /**
-     * Génère bougies aggregées (M5, M30) basées sur données M1
-     */
-    private void generateAggregatedCandle(String symbol, String timeframe, int minutes) {
-        LocalDateTime endTime = LocalDateTime.now();
-        LocalDateTime startTime = endTime.minusMinutes(minutes);
-
-        List<MarketData> m1Candles = marketDataRepository
-                .findBySymbolAndTimeframeAndTimestampBetween(symbol, "M1", startTime, endTime);
-
-        if (m1Candles.isEmpty()) {
-            log.warn("⚠️ Pas de données M1 pour générer {} {}", symbol, timeframe);
-            return;
-        }
-
-        // Agrégation OHLCV
-        BigDecimal open = m1Candles.get(0).getOpenPrice();
-        BigDecimal close = m1Candles.get(m1Candles.size() - 1).getClosePrice();
-        BigDecimal high = m1Candles.stream()
-                .map(MarketData::getHighPrice)
-                .max(BigDecimal::compareTo)
-                .orElse(open);
-        BigDecimal low = m1Candles.stream()
-                .map(MarketData::getLowPrice)
-                .min(BigDecimal::compareTo)
-                .orElse(open);
-        long totalVolume = m1Candles.stream()
-                .mapToLong(MarketData::getVolume)
-                .sum();
-
-        MarketData aggregatedCandle = MarketData.builder()
-                .symbol(symbol)
-                .timeframe(timeframe)
-                .timestamp(endTime)
-                .openPrice(open)
-                .highPrice(high)
-                .lowPrice(low)
-                .closePrice(close)
-                .volume(totalVolume)
-                .sessionName(getCurrentSession())
-                .sessionProgress(calculateSessionProgress())
-                .dataSource("SIMULATOR")
-                .volatilityLevel(determineVolatilityLevel(high.subtract(low)))
-                .spreadPips(SYMBOL_CONFIGS.get(symbol).spreadPips)
-                .isMarketOpen(true)
-                .build();
-
-        marketDataRepository.save(aggregatedCandle);
-        cacheLatestPrice(symbol + "_" + timeframe, aggregatedCandle);
-    }
-
     // ========== Méthodes Utilitaires ==========
 
-    private String getCurrentSession() {
-        int hour = LocalDateTime.now().getHour();
-        if (hour >= 0 && hour < 6) return "ASIA";
-        if (hour >= 7 && hour < 11) return "LONDON";
-        if (hour >= 12 && hour < 16) return "NEWYORK";
-        return "OVERLAP";
-    }
-
-    private BigDecimal calculateSessionProgress() {
-        int hour = LocalDateTime.now().getHour();
-        int minute = LocalDateTime.now().getMinute();
-        double totalMinutes = hour * 60.0 + minute;
-
-        return switch (getCurrentSession()) {
-            case "ASIA" -> BigDecimal.valueOf((totalMinutes - 0) / 360.0).setScale(2, RoundingMode.HALF_UP);
-            case "LONDON" -> BigDecimal.valueOf((totalMinutes - 420) / 240.0).setScale(2, RoundingMode.HALF_UP);
-            case "NEWYORK" -> BigDecimal.valueOf((totalMinutes - 720) / 240.0).setScale(2, RoundingMode.HALF_UP);
-            default -> BigDecimal.valueOf(0.5);
-        };
-    }
-
-    private boolean isMarketOpen() {
-        int hour = LocalDateTime.now().getHour();
-        int dayOfWeek = LocalDateTime.now().getDayOfWeek().getValue();
-
-        // Fermé weekend (samedi-dimanche)
-        if (dayOfWeek >= 6) return false;
-
-        // Ouvert 24h en semaine sauf pause entre NY close et Asia open
-        return !(hour >= 17 && hour < 23); // Pause 17h-23h UTC
-    }
-
-    private double getSessionVolatilityMultiplier() {
-        return switch (getCurrentSession()) {
+    private double getSessionVolatilityMultiplier(String session) {
+        return switch (session) {
             case "ASIA" -> 0.7; // Session calme
             case "LONDON" -> 1.2; // Session active
             case "NEWYORK" -> 1.0; // Session normale
@@ -328,13 +560,21 @@ public class MarketDataSimulatorService {
         };
     }
 
-    private double simulateNewsImpact() {
+    private double getSessionSpreadMultiplier(String session) {
+        return switch (session) {
+            case "LONDON", "NEWYORK" -> 1.0; // Liquidité maximale
+            case "ASIA" -> 1.5;
+            default -> 2.5; // Transitions et pause de marché
+        };
+    }
+
+    private double simulateNewsImpact(SplittableRandom random) {
         // 5% de chance d'avoir un impact news significatif
         return random.nextDouble() < 0.05 ?
                 (random.nextGaussian() * 2.0) : 0.0;
     }
 
-    private long generateRealisticVolume(String symbol, String session) {
+    private long generateRealisticVolume(String symbol, String session, SplittableRandom random) {
         long baseVolume = symbol.equals("EURUSD") ? 1000L : 500L;
         double sessionMultiplier = switch (session) {
             case "LONDON" -> 1.5;
@@ -345,94 +585,157 @@ public class MarketDataSimulatorService {
         return (long) (baseVolume * sessionMultiplier * (0.5 + random.nextDouble()));
     }
 
-    private String determineVolatilityLevel(BigDecimal range) {
-        double rangeValue = range.doubleValue();
-
-        if (rangeValue < 0.0005) return "LOW";
-        if (rangeValue < 0.002) return "NORMAL";
-        if (rangeValue < 0.005) return "HIGH";
-        return "EXTREME";
-    }
-
-    private Integer simulateNewsProximity() {
+    private Integer simulateNewsProximity(SplittableRandom random) {
         // Simuler proximité news (0-360 minutes)
         return random.nextInt(360);
     }
 
-    private Integer calculateDistanceToVWAP(BigDecimal currentPrice, BigDecimal vwap, String symbol) {
-        if (vwap == null) return null;
-
-        BigDecimal distance = currentPrice.subtract(vwap).abs();
-        BigDecimal pipSize = symbol.equals("EURUSD") ?
-                BigDecimal.valueOf(0.0001) : BigDecimal.valueOf(0.01);
-
-        return distance.divide(pipSize, 0, RoundingMode.HALF_UP).intValue();
-    }
-
-    private void cacheLatestPrice(String key, MarketData candle) {
-        try {
-            redisTemplate.opsForValue().set("market:latest:" + key, candle);
-            redisTemplate.expire("market:latest:" + key,
-                    java.time.Duration.ofMinutes(10));
-        } catch (Exception e) {
-            log.warn("⚠️ Erreur cache Redis pour {}: {}", key, e.getMessage());
-        }
+    private Integer calculateDistanceToVWAP(long currentPrice, long vwap, Instrument instrument) {
+        return (int) instrument.ticksToWholePips(Math.abs(currentPrice - vwap));
     }
 
     @PreDestroy
     public void shutdown() {
+        stopTickFeed();
+        replayExecutor.shutdownNow();
+        symbolExecutor.shutdownNow();
         log.info("🔚 Arrêt Simulateur cTrader");
     }
 
     // ========== Classes Internes ==========
 
     private static class SymbolConfig {
-        final BigDecimal basePrice;
+        final Instrument instrument;
+        final long basePriceTicks;
+        final long minPriceTicks;
+        final long maxPriceTicks;
         final int dailyRangePips;
         final BigDecimal spreadPips;
 
-        SymbolConfig(BigDecimal basePrice, int dailyRangePips, BigDecimal spreadPips) {
-            this.basePrice = basePrice;
+        SymbolConfig(Instrument instrument, BigDecimal basePrice, int dailyRangePips, BigDecimal spreadPips) {
+            this.instrument = instrument;
+            this.basePriceTicks = instrument.toTicks(basePrice);
+            this.minPriceTicks = basePriceTicks * 95 / 100;
+            this.maxPriceTicks = basePriceTicks * 105 / 100;
             this.dailyRangePips = dailyRangePips;
             this.spreadPips = spreadPips;
         }
     }
 
+    /**
+     * Producteur de ticks d'un symbole et ses métriques
+     */
+    private static final class TickFeed {
+        private final SimulationContext context;
+        private final TickStream stream;
+        private final Counter tickCounter;
+        private final Counter shockCounter;
+        private final Timer candleLatency;
+        private final AtomicLong lagMillis = new AtomicLong();
+        private Thread thread;
+        private long lastLoggedTicks;
+
+        TickFeed(SimulationContext context, TickStream stream, MeterRegistry meterRegistry) {
+            this.context = context;
+            this.stream = stream;
+            this.tickCounter = Counter.builder("scalper.simulator.ticks")
+                    .description("Ticks bid/ask générés")
+                    .tag("symbol", context.symbol)
+                    .register(meterRegistry);
+            this.shockCounter = Counter.builder("scalper.simulator.tick.shocks")
+                    .description("Chocs news (rafales de ticks)")
+                    .tag("symbol", context.symbol)
+                    .register(meterRegistry);
+            this.candleLatency = Timer.builder("scalper.simulator.tick.candle.latency")
+                    .description("Fin de minute -> M1 construite et ingérée")
+                    .tag("symbol", context.symbol)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            Gauge.builder("scalper.simulator.tick.lag", lagMillis, AtomicLong::get)
+                    .description("Retard du producteur sur la cadence cible (ms)")
+                    .tag("symbol", context.symbol)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * État de simulation d'un symbole, muté par un seul thread à la fois
+     * (tâche du symbole pour la minute en cours, ou producteur de ticks)
+     */
     private static class SimulationContext {
         private final String symbol;
         private final SymbolConfig config;
-        private final List<BigDecimal> recentPrices = new ArrayList<>();
+        private final SplittableRandom random;
+        private final Timer generateTimer;
+        private final PriceWindow recentCloses = new PriceWindow(20);
+        private long lastCloseTicks;
+        private long candleCount;
         private double momentum = 0.0;
 
-        SimulationContext(String symbol, SymbolConfig config) {
+        SimulationContext(String symbol, SymbolConfig config, SplittableRandom random, Timer generateTimer) {
             this.symbol = symbol;
             this.config = config;
+            this.random = random;
+            this.generateTimer = generateTimer;
+            this.lastCloseTicks = config.basePriceTicks;
         }
 
         void updateContext(MarketData newCandle) {
-            recentPrices.add(newCandle.getClosePrice());
-            if (recentPrices.size() > 20) {
-                recentPrices.remove(0);
-            }
+            long close = config.instrument.toTicks(newCandle.getClosePrice());
+            recentCloses.add(close);
 
-            // Calcul simple du momentum
-            if (recentPrices.size() >= 2) {
-                BigDecimal current = recentPrices.get(recentPrices.size() - 1);
-                BigDecimal previous = recentPrices.get(recentPrices.size() - 2);
-                momentum = current.subtract(previous).doubleValue() * 10000; // En pips
+            // Calcul simple du momentum (en pips)
+            if (recentCloses.size() >= 2) {
+                momentum = config.instrument.ticksToPips(close - recentCloses.previous());
             }
+            lastCloseTicks = close;
+            candleCount++;
         }
 
         double getTrendMomentum() {
             return Math.tanh(momentum / 10.0); // Normalisation entre -1 et 1
         }
+    }
 
-        BigDecimal calculateCurrentVWAP() {
-            if (recentPrices.isEmpty()) return config.basePrice;
+    /**
+     * Fenêtre glissante des derniers prix (ticks) : tableau circulaire primitif et somme courante,
+     * ajout et moyenne en O(1) sans allocation
+     */
+    private static final class PriceWindow {
+        private final long[] prices;
+        private int head;   // Prochaine position d'écriture
+        private int size;
+        private long sum;
+
+        PriceWindow(int capacity) {
+            this.prices = new long[capacity];
+        }
+
+        void add(long price) {
+            if (size == prices.length) {
+                sum -= prices[head];
+            } else {
+                size++;
+            }
+            prices[head] = price;
+            sum += price;
+            head = (head + 1) % prices.length;
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Avant-dernier prix ajouté (size >= 2)
+         */
+        long previous() {
+            return prices[Math.floorMod(head - 2, prices.length)];
+        }
 
-            return recentPrices.stream()
-                    .reduce(BigDecimal.ZERO, BigDecimal::add)
-                    .divide(BigDecimal.valueOf(recentPrices.size()), 5, RoundingMode.HALF_UP);
+        long mean() {
+            return size == 0 ? 0 : Instrument.divideHalfUp(sum, size);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,74 @@
+package com.scalper.service.broker;
+
+import com.scalper.model.price.Instrument;
+import com.scalper.service.market.TickCandleBuilder;
+import com.scalper.service.market.TickCandleBuilder.TickStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Feed de ticks local (marche aléatoire bid/ask) pour tester le chemin live sans broker
+ * Un thread par symbole, unique producteur de son TickStream.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "scalper.market-data.ticks.stub-feed.enabled", havingValue = "true")
+public class StubSpotFeed {
+
+    private final TickCandleBuilder tickCandleBuilder;
+    private final List<String> symbols;
+    private final int ticksPerSecond;
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+
+    public StubSpotFeed(TickCandleBuilder tickCandleBuilder,
+                        @Value("${scalper.market-data.ticks.symbols:EURUSD,XAUUSD}") List<String> symbols,
+                        @Value("${scalper.market-data.ticks.stub-feed.ticks-per-second:10}") int ticksPerSecond) {
+        this.tickCandleBuilder = tickCandleBuilder;
+        this.symbols = List.copyOf(symbols);
+        this.ticksPerSecond = ticksPerSecond;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (String symbol : symbols) {
+            TickStream stream = tickCandleBuilder.openStream(symbol, "SIMULATOR");
+            Thread thread = new Thread(() -> run(Instrument.of(symbol), stream), "stub-feed-" + symbol);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        log.info("🎯 Feed de ticks local démarré - {} ticks/s pour {}", ticksPerSecond, symbols);
+    }
+
+    private void run(Instrument instrument, TickStream stream) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long bid = instrument == Instrument.XAUUSD ? instrument.toTicks(1950.0) : instrument.toTicks(1.0850);
+        long spread = instrument.getPipTicks();
+        long stepTicks = Math.max(1, instrument.getPipTicks() / 10);
+        long intervalNanos = 1_000_000_000L / Math.max(1, ticksPerSecond);
+
+        while (running) {
+            bid += (random.nextInt(3) - 1) * stepTicks;
+            stream.onTick(System.currentTimeMillis(), bid, bid + spread);
+            LockSupport.parkNanos(intervalNanos);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        threads.forEach(Thread::interrupt);
+        log.info("🔚 Arrêt feed de ticks local");
+    }
+}
@@ -0,0 +1,221 @@
+package com.scalper.service.market;
+
+import com.scalper.model.entity.MarketData;
+import com.scalper.model.price.Instrument;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Agrégation incrémentale M1 -> M5/M30 (H1/D1 optionnels) en mémoire
+ * Chaque bougie M1 est intégrée dans les barres ouvertes ; une barre est émise
+ * dès que la M1 qui clôture son intervalle arrive (alignement exact sur l'horloge UTC),
+ * ou lorsqu'une M1 d'un intervalle suivant arrive (trou de données).
+ * Aucune requête DB : coût constant quel que soit l'historique.
+ */
+@Component
+@Slf4j
+public class CandleAggregator {
+
+    private final List<String> targetTimeframes;
+    private final Map<String, SymbolBars> barsBySymbol = new ConcurrentHashMap<>();
+
+    public CandleAggregator(@Value("${scalper.market-data.aggregation.timeframes:M5,M30}") List<String> targetTimeframes) {
+        for (String timeframe : targetTimeframes) {
+            minutesOf(timeframe); // Validation configuration
+        }
+        this.targetTimeframes = List.copyOf(targetTimeframes);
+        log.info("CandleAggregator - timeframes agrégés depuis M1: {}", this.targetTimeframes);
+    }
+
+    /**
+     * Intègre une bougie M1 clôturée
+     *
+     * @return barres agrégées clôturées par cette bougie (souvent vide)
+     */
+    public List<MarketData> onM1Candle(MarketData m1) {
+        if (!"M1".equals(m1.getTimeframe())) {
+            return Collections.emptyList();
+        }
+        SymbolBars bars = barsBySymbol.computeIfAbsent(m1.getSymbol(), s -> new SymbolBars(s, targetTimeframes));
+        return bars.fold(m1);
+    }
+
+    /**
+     * Émet les barres dont l'intervalle est terminé à l'instant donné
+     * (fin de session, marché fermé, flux interrompu)
+     */
+    public List<MarketData> closeExpiredBars(LocalDateTime now) {
+        long nowMinute = epochMinute(now);
+        List<MarketData> closed = new ArrayList<>();
+        for (SymbolBars bars : barsBySymbol.values()) {
+            bars.closeExpired(nowMinute, closed);
+        }
+        return closed;
+    }
+
+    public List<String> getTargetTimeframes() {
+        return targetTimeframes;
+    }
+
+    static int minutesOf(String timeframe) {
+        return switch (timeframe) {
+            case "M5" -> 5;
+            case "M30" -> 30;
+            case "H1" -> 60;
+            case "D1" -> 1440;
+            default -> throw new IllegalArgumentException("Timeframe d'agrégation non supporté: " + timeframe);
+        };
+    }
+
+    static long epochMinute(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    // ========== Classes Internes ==========
+
+    /**
+     * Barres ouvertes d'un symbole, une par timeframe cible
+     */
+    private static final class SymbolBars {
+        private final Instrument instrument;
+        private final OpenBar[] bars;
+
+        SymbolBars(String symbol, List<String> timeframes) {
+            this.instrument = Instrument.of(symbol);
+            this.bars = new OpenBar[timeframes.size()];
+            for (int i = 0; i < bars.length; i++) {
+                bars[i] = new OpenBar(symbol, timeframes.get(i), minutesOf(timeframes.get(i)));
+            }
+        }
+
+        synchronized List<MarketData> fold(MarketData m1) {
+            long minute = epochMinute(m1.getTimestamp());
+            long open = instrument.toTicks(m1.getOpenPrice());
+            long high = instrument.toTicks(m1.getHighPrice());
+            long low = instrument.toTicks(m1.getLowPrice());
+            long close = instrument.toTicks(m1.getClosePrice());
+            long volume = m1.getVolume() != null ? m1.getVolume() : 0L;
+
+            List<MarketData> closed = null;
+            for (OpenBar bar : bars) {
+                long bucket = minute - Math.floorMod(minute, bar.minutes);
+
+                // M1 tardive (période déjà émise ou antérieure à la barre ouverte) : ignorée
+                if (bucket <= bar.lastEmittedBucket || (bar.isOpen() && bucket < bar.bucketStart)) {
+                    continue;
+                }
+
+                // Nouvelle période alors que la précédente n'a pas reçu sa dernière M1
+                if (bar.isOpen() && bucket != bar.bucketStart) {
+                    closed = add(closed, bar.toCandle(instrument));
+                    bar.reset();
+                }
+
+                bar.fold(bucket, open, high, low, close, volume, m1);
+
+                // La M1 qui termine l'intervalle clôture la barre exactement sur la frontière
+                if (minute + 1 == bucket + bar.minutes) {
+                    closed = add(closed, bar.toCandle(instrument));
+                    bar.reset();
+                }
+            }
+            return closed != null ? closed : Collections.emptyList();
+        }
+
+        synchronized void closeExpired(long nowMinute, List<MarketData> closed) {
+            for (OpenBar bar : bars) {
+                if (bar.isOpen() && nowMinute >= bar.bucketStart + bar.minutes) {
+                    closed.add(bar.toCandle(instrument));
+                    bar.reset();
+                }
+            }
+        }
+
+        private static List<MarketData> add(List<MarketData> list, MarketData candle) {
+            List<MarketData> result = list != null ? list : new ArrayList<>(2);
+            result.add(candle);
+            return result;
+        }
+    }
+
+    /**
+     * Barre en cours de construction (champs primitifs, réutilisée d'une période à l'autre)
+     */
+    private static final class OpenBar {
+        private final String symbol;
+        private final String timeframe;
+        private final int minutes;
+
+        private long bucketStart = Long.MIN_VALUE;
+        private long lastEmittedBucket = Long.MIN_VALUE;
+        private long open;
+        private long high;
+        private long low;
+        private long close;
+        private long volume;
+        private MarketData first;
+        private MarketData last;
+
+        OpenBar(String symbol, String timeframe, int minutes) {
+            this.symbol = symbol;
+            this.timeframe = timeframe;
+            this.minutes = minutes;
+        }
+
+        boolean isOpen() {
+            return first != null;
+        }
+
+        void fold(long bucket, long o, long h, long l, long c, long v, MarketData m1) {
+            if (!isOpen()) {
+                bucketStart = bucket;
+                open = o;
+                high = h;
+                low = l;
+                volume = 0;
+                first = m1;
+            } else {
+                high = Math.max(high, h);
+                low = Math.min(low, l);
+            }
+            close = c;
+            volume += v;
+            last = m1;
+        }
+
+        MarketData toCandle(Instrument instrument) {
+            return MarketData.builder()
+                    .symbol(symbol)
+                    .timeframe(timeframe)
+                    .timestamp(LocalDateTime.ofEpochSecond(bucketStart * 60, 0, ZoneOffset.UTC))
+                    .openPrice(instrument.toPrice(open))
+                    .highPrice(instrument.toPrice(high))
+                    .lowPrice(instrument.toPrice(low))
+                    .closePrice(instrument.toPrice(close))
+                    .volume(volume)
+                    .sessionName(first.getSessionName())
+                    .sessionProgress(last.getSessionProgress())
+                    .dataSource(last.getDataSource())
+                    .volatilityLevel(instrument.volatilityLevel(high - low))
+                    .spreadPips(last.getSpreadPips())
+                    .isMarketOpen(true)
+                    .build();
+        }
+
+        void reset() {
+            lastEmittedBucket = bucketStart;
+            bucketStart = Long.MIN_VALUE;
+            first = null;
+            last = null;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.scalper.service.market;
+
+import com.scalper.model.entity.MarketData;
+import com.scalper.model.price.Instrument;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Formats des fichiers CSV de bougies historiques importables
+ * Lecture ligne à ligne sans regex ni DateTimeFormatter (découpage par index) : le parseur
+ * tourne sur plusieurs threads et traite des fichiers de plusieurs millions de lignes.
+ */
+public enum CandleFileFormat {
+
+    /**
+     * HistData ASCII M1 : {@code 20250115 030000;1.084700;1.085100;1.084500;1.084900;0}
+     * Heure EST sans changement d'heure (UTC-5 toute l'année), convertie en UTC.
+     */
+    HISTDATA(ZoneOffset.ofHours(-5)),
+
+    /**
+     * Export cTrader : {@code 2025-01-15 08:00:00,1.08470,1.08510,1.08450,1.08490,100}
+     * Heure UTC, séparateur virgule, point-virgule ou tabulation ; date en tirets ou en points,
+     * 'T' et secondes optionnels.
+     */
+    CTRADER(ZoneOffset.UTC);
+
+    private final ZoneOffset fileOffset;
+
+    CandleFileFormat(ZoneOffset fileOffset) {
+        this.fileOffset = fileOffset;
+    }
+
+    /**
+     * Une ligne du fichier -> bougie enrichie (session, volatilité), horodatée en UTC
+     *
+     * @return null pour une ligne vide ou un en-tête
+     * @throws IllegalArgumentException ligne mal formée ou OHLC incohérent
+     */
+    public MarketData parse(String line, String symbol, String timeframe, Instrument instrument) {
+        if (line.isEmpty() || !Character.isDigit(line.charAt(0))) {
+            return null;
+        }
+        String[] fields = split(line, separatorOf(line));
+
+        LocalDateTime timestamp = (this == HISTDATA ? parseHistDataTime(fields[0]) : parseIsoLikeTime(fields[0]))
+                .atOffset(fileOffset).withOffsetSameInstant(ZoneOffset.UTC).toLocalDateTime();
+        BigDecimal open = price(fields[1], instrument);
+        BigDecimal high = price(fields[2], instrument);
+        BigDecimal low = price(fields[3], instrument);
+        BigDecimal close = price(fields[4], instrument);
+        long volume = fields[5].isEmpty() ? 0L : Long.parseLong(fields[5]);
+
+        if (high.compareTo(low) < 0 || high.compareTo(open.max(close)) < 0 || low.compareTo(open.min(close)) > 0) {
+            throw new IllegalArgumentException("OHLC incohérent: " + line);
+        }
+
+        return MarketData.builder()
+                .symbol(symbol)
+                .timeframe(timeframe)
+                .timestamp(timestamp)
+                .openPrice(open)
+                .highPrice(high)
+                .lowPrice(low)
+                .closePrice(close)
+                .volume(volume)
+                .sessionName(MarketSessions.sessionAt(timestamp))
+                .sessionProgress(MarketSessions.progressAt(timestamp))
+                .volatilityLevel(instrument.volatilityLevel(instrument.toTicks(high) - instrument.toTicks(low)))
+                .dataSource(name())
+                .isMarketOpen(true)
+                .build();
+    }
+
+    private char separatorOf(String line) {
+        if (this == HISTDATA) {
+            return ';';
+        }
+        if (line.indexOf(',') >= 0) return ',';
+        if (line.indexOf(';') >= 0) return ';';
+        return '\t';
+    }
+
+    /**
+     * Six champs : horodatage, open, high, low, close, volume (volume absent toléré)
+     */
+    private static String[] split(String line, char separator) {
+        String[] fields = new String[6];
+        int start = 0;
+        for (int i = 0; i < 6; i++) {
+            int end = line.indexOf(separator, start);
+            if (end < 0) {
+                end = line.length();
+            }
+            if (start > line.length()) {
+                if (i == 5) {
+                    fields[i] = "";
+                    break;
+                }
+                throw new IllegalArgumentException("Colonnes manquantes: " + line);
+            }
+            fields[i] = line.substring(start, end).trim();
+            start = end + 1;
+        }
+        return fields;
+    }
+
+    /**
+     * yyyyMMdd HHmmss
+     */
+    private static LocalDateTime parseHistDataTime(String value) {
+        if (value.length() < 15) {
+            throw new IllegalArgumentException("Horodatage HistData invalide: " + value);
+        }
+        return LocalDateTime.of(digits(value, 0, 4), digits(value, 4, 6), digits(value, 6, 8),
+                digits(value, 9, 11), digits(value, 11, 13), digits(value, 13, 15));
+    }
+
+    /**
+     * yyyy-MM-dd HH:mm[:ss][.SSS][Z], séparateurs de date et heure quelconques
+     */
+    private static LocalDateTime parseIsoLikeTime(String value) {
+        if (value.length() < 16) {
+            throw new IllegalArgumentException("Horodatage invalide: " + value);
+        }
+        int second = value.length() >= 19 && Character.isDigit(value.charAt(17)) ? digits(value, 17, 19) : 0;
+        return LocalDateTime.of(digits(value, 0, 4), digits(value, 5, 7), digits(value, 8, 10),
+                digits(value, 11, 13), digits(value, 14, 16), second);
+    }
+
+    private static int digits(String value, int from, int to) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Horodatage invalide: " + value);
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    private static BigDecimal price(String value, Instrument instrument) {
+        return new BigDecimal(value).setScale(instrument.getPriceScale(), RoundingMode.HALF_UP);
+    }
+}
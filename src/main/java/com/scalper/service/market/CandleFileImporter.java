@@ -0,0 +1,238 @@
+package com.scalper.service.market;
+
+import com.scalper.model.entity.MarketData;
+import com.scalper.model.price.Instrument;
+import com.scalper.repository.MarketDataCopyRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Import de fichiers CSV de bougies historiques (HistData, export cTrader) pour le backtesting
+ * Le fichier est lu en flux par blocs de lignes, parsés en parallèle puis écrits dans l'ordre
+ * dans le flux COPY de la staging (MarketDataCopyRepository), fusionnée en fin de lecture.
+ * Le nombre de blocs en vol est borné : mémoire constante quelle que soit la taille du fichier.
+ */
+@Service
+@Slf4j
+public class CandleFileImporter {
+
+    private final MarketDataCopyRepository copyRepository;
+    private final MarketDataPartitionService partitionService;
+    private final MarketQueryCache marketQueryCache;
+    private final Path importDirectory;
+    private final int parserThreads;
+    private final int blockLines;
+
+    // Un import à la fois : la fusion d'un fichier de plusieurs Go occupe déjà la base
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor();
+
+    public CandleFileImporter(MarketDataCopyRepository copyRepository,
+                              MarketDataPartitionService partitionService,
+                              MarketQueryCache marketQueryCache,
+                              @Value("${scalper.market-data.import.directory:./data/import}") String importDirectory,
+                              @Value("${scalper.market-data.import.parser-threads:4}") int parserThreads,
+                              @Value("${scalper.market-data.import.block-lines:10000}") int blockLines) {
+        this.copyRepository = copyRepository;
+        this.partitionService = partitionService;
+        this.marketQueryCache = marketQueryCache;
+        this.importDirectory = Path.of(importDirectory).toAbsolutePath().normalize();
+        this.parserThreads = parserThreads;
+        this.blockLines = blockLines;
+    }
+
+    /**
+     * Fichier du répertoire d'import, sans sortie possible du répertoire
+     *
+     * @throws IllegalArgumentException chemin hors du répertoire d'import
+     * @throws NoSuchFileException      fichier absent
+     */
+    public Path resolve(String file) throws NoSuchFileException {
+        Path path = importDirectory.resolve(file).normalize();
+        if (!path.startsWith(importDirectory)) {
+            throw new IllegalArgumentException("Fichier hors du répertoire d'import: " + file);
+        }
+        if (!Files.isRegularFile(path)) {
+            throw new NoSuchFileException(path.toString());
+        }
+        return path;
+    }
+
+    /**
+     * Import asynchrone (endpoint REST)
+     */
+    public CompletableFuture<CandleImportReport> importAsync(Path file, String symbol, String timeframe,
+                                                             CandleFileFormat format) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return importFile(file, symbol, timeframe, format);
+            } catch (IOException e) {
+                throw new IllegalStateException("Échec lecture " + file + ": " + e.getMessage(), e);
+            }
+        }, coordinator);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+    }
+
+    /**
+     * Import bloquant : lecture, parsing parallèle, COPY puis fusion en une transaction
+     */
+    public CandleImportReport importFile(Path file, String symbol, String timeframe, CandleFileFormat format)
+            throws IOException {
+        long startNanos = System.nanoTime();
+        Instrument instrument = Instrument.of(symbol);
+        ImportProgress progress = new ImportProgress();
+        long merged;
+
+        log.info("🎯 Import {} {} {} depuis {} ({} threads de parsing)", format, symbol, timeframe, file, parserThreads);
+
+        ExecutorService parsers = Executors.newFixedThreadPool(parserThreads);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            merged = copyRepository.copyAndMerge(format.name(), sink -> {
+                Deque<Future<ParsedBlock>> inFlight = new ArrayDeque<>();
+                List<String> lines = new ArrayList<>(blockLines);
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines.add(line);
+                    if (lines.size() == blockLines) {
+                        inFlight.add(submit(parsers, lines, symbol, timeframe, format, instrument));
+                        lines = new ArrayList<>(blockLines);
+                        if (inFlight.size() >= parserThreads * 2) {
+                            progress.write(inFlight.poll().get(), sink);
+                        }
+                    }
+                }
+                if (!lines.isEmpty()) {
+                    inFlight.add(submit(parsers, lines, symbol, timeframe, format, instrument));
+                }
+                while (!inFlight.isEmpty()) {
+                    progress.write(inFlight.poll().get(), sink);
+                }
+
+                // Partitions créées avant la fusion, une fois la plage du fichier connue
+                if (progress.rows > 0) {
+                    partitionService.ensurePartitions(progress.first.toLocalDate(), progress.last.toLocalDate());
+                }
+            });
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Échec import " + file + ": " + e.getMessage(), e);
+        } finally {
+            parsers.shutdownNow();
+        }
+
+        // Historique de backtesting : jamais purgé par la rétention journalière
+        if (progress.rows > 0) {
+            partitionService.retainDays(progress.first.toLocalDate(), progress.last.toLocalDate(), "IMPORT_" + format);
+        }
+        marketQueryCache.invalidate(symbol, timeframe);
+
+        long durationMs = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+        CandleImportReport report = new CandleImportReport(file.getFileName().toString(), symbol, timeframe, format,
+                progress.rows, progress.rejected, merged, durationMs, progress.rows * 1000 / durationMs);
+
+        if (report.rowsRejected() > 0) {
+            log.warn("⚠️ Import {}: {} lignes rejetées (mal formées ou OHLC incohérent)",
+                    report.file(), report.rowsRejected());
+        }
+        log.info("✅ Import {} {} {} terminé: {} lignes, {} bougies fusionnées en {} ms ({} lignes/s)",
+                report.file(), symbol, timeframe, report.rowsParsed(), report.rowsMerged(),
+                report.durationMs(), report.rowsPerSecond());
+        return report;
+    }
+
+    private Future<ParsedBlock> submit(ExecutorService parsers, List<String> lines, String symbol, String timeframe,
+                                       CandleFileFormat format, Instrument instrument) {
+        return parsers.submit(() -> parseBlock(lines, symbol, timeframe, format, instrument));
+    }
+
+    /**
+     * Bloc de lignes -> lignes CSV du flux COPY (colonnes MarketDataCopyRepository.STAGING_COLUMNS)
+     */
+    private static ParsedBlock parseBlock(List<String> lines, String symbol, String timeframe,
+                                          CandleFileFormat format, Instrument instrument) {
+        StringBuilder csv = new StringBuilder(lines.size() * 96);
+        int rows = 0;
+        int rejected = 0;
+        LocalDateTime first = null;
+        LocalDateTime last = null;
+
+        for (String line : lines) {
+            MarketData candle;
+            try {
+                candle = format.parse(line, symbol, timeframe, instrument);
+            } catch (RuntimeException e) {
+                rejected++;
+                log.debug("Ligne rejetée: {}", e.getMessage());
+                continue;
+            }
+            if (candle == null) {
+                continue;
+            }
+
+            LocalDateTime timestamp = candle.getTimestamp();
+            first = first == null || timestamp.isBefore(first) ? timestamp : first;
+            last = last == null || timestamp.isAfter(last) ? timestamp : last;
+            rows++;
+
+            csv.append(symbol).append(',')
+                    .append(timeframe).append(',')
+                    .append(timestamp).append(',')
+                    .append(candle.getOpenPrice().toPlainString()).append(',')
+                    .append(candle.getHighPrice().toPlainString()).append(',')
+                    .append(candle.getLowPrice().toPlainString()).append(',')
+                    .append(candle.getClosePrice().toPlainString()).append(',')
+                    .append(candle.getVolume()).append(',')
+                    .append(candle.getSessionName() != null ? candle.getSessionName() : "").append(',')
+                    .append(candle.getSessionProgress() != null ? candle.getSessionProgress().toPlainString() : "")
+                    .append(',')
+                    .append(candle.getVolatilityLevel())
+                    .append('\n');
+        }
+        return new ParsedBlock(csv.toString().getBytes(StandardCharsets.UTF_8), rows, rejected, first, last);
+    }
+
+    private record ParsedBlock(byte[] copyRows, int rows, int rejected, LocalDateTime first, LocalDateTime last) {
+    }
+
+    /**
+     * Cumul des blocs, tenu par le seul thread lecteur (celui qui alimente le COPY)
+     */
+    private static final class ImportProgress {
+        private long rows;
+        private long rejected;
+        private LocalDateTime first;
+        private LocalDateTime last;
+
+        void write(ParsedBlock block, MarketDataCopyRepository.CopySink sink) throws Exception {
+            if (block.rows() > 0) {
+                sink.write(block.copyRows());
+                first = first == null || block.first().isBefore(first) ? block.first() : first;
+                last = last == null || block.last().isAfter(last) ? block.last() : last;
+            }
+            rows += block.rows();
+            rejected += block.rejected();
+        }
+    }
+}
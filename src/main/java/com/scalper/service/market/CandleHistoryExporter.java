@@ -0,0 +1,83 @@
+package com.scalper.service.market;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.scalper.model.entity.MarketData;
+import com.scalper.repository.MarketDataReadRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+
+/**
+ * Export historique des bougies en NDJSON (une bougie par ligne), écrit au fil de l'eau
+ * Une seule requête JDBC sur curseur serveur (fetch-size lignes à la fois), chaque ligne
+ * écrite dès sa lecture : ni entité gérée, ni page en mémoire, ni requête par page.
+ * Le curseur (timestamp, id) ne sert plus qu'à la reprise côté client.
+ */
+@Service
+@Slf4j
+public class CandleHistoryExporter {
+
+    private static final int FLUSH_EVERY = 1000;
+
+    private final MarketDataReadRepository marketDataReadRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter candleWriter;
+    private final int fetchSize;
+
+    public CandleHistoryExporter(MarketDataReadRepository marketDataReadRepository,
+                                 ObjectMapper objectMapper,
+                                 @Value("${scalper.market-data.export.fetch-size:1000}") int fetchSize) {
+        this.marketDataReadRepository = marketDataReadRepository;
+        this.objectMapper = objectMapper;
+        this.candleWriter = objectMapper.writerFor(MarketData.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Écrit les bougies de [from, to) après le curseur éventuel
+     * Transaction en lecture seule : pgjdbc ne lit par lots de fetch-size qu'hors autocommit
+     *
+     * @param afterId curseur de reprise : id de la dernière bougie reçue à {@code from}, null pour tout exporter
+     * @return nombre de bougies écrites
+     */
+    @Transactional(readOnly = true)
+    public long export(String symbol, String timeframe, LocalDateTime from, LocalDateTime to,
+                       Long afterId, OutputStream out) throws IOException {
+        long cursorId = afterId != null ? afterId : Long.MIN_VALUE;
+        long[] written = {0};
+
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null); // séparateur de lignes écrit explicitement
+        try {
+            marketDataReadRepository.streamCandlesAfter(symbol, timeframe, from, cursorId, to, fetchSize, rs -> {
+                try {
+                    candleWriter.writeValue(generator, MarketDataReadRepository.mapCandle(rs));
+                    generator.writeRaw('\n');
+                    if (++written[0] % FLUSH_EVERY == 0) {
+                        generator.flush(); // envoi progressif au client
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e); // client déconnecté : arrêt de la lecture
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            generator.close();
+        }
+
+        log.debug("Export {} {} [{} - {}): {} bougies", symbol, timeframe, from, to, written[0]);
+        return written[0];
+    }
+}
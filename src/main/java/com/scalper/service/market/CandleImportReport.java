@@ -0,0 +1,19 @@
+package com.scalper.service.market;
+
+/**
+ * Bilan d'un import de fichier de bougies historiques
+ *
+ * @param rowsRejected  lignes mal formées ou OHLC incohérent, ignorées
+ * @param rowsMerged    bougies insérées ou modifiées (doublons et rejeux à l'identique exclus)
+ * @param rowsPerSecond débit de bout en bout : lignes parsées par seconde, COPY et fusion compris
+ */
+public record CandleImportReport(String file,
+                                 String symbol,
+                                 String timeframe,
+                                 CandleFileFormat format,
+                                 long rowsParsed,
+                                 long rowsRejected,
+                                 long rowsMerged,
+                                 long durationMs,
+                                 long rowsPerSecond) {
+}
@@ -0,0 +1,117 @@
+package com.scalper.service.market;
+
+import com.scalper.model.entity.MarketData;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point d'entrée unique des bougies M1 clôturées (simulateur, flux broker)
+ * Persistance asynchrone (write-behind), store mémoire, agrégation M5/M30,
+ * niveaux de session, pivots de swing, index des gaps, cache Redis du dernier prix et diffusion SSE.
+ * Chaque étape est chronométrée par symbole/timeframe (scalper.ingest.*).
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CandleIngestService {
+
+    private final CandleWriteBehindQueue candleWriteBehindQueue;
+    private final CandleStore candleStore;
+    private final CandleAggregator candleAggregator;
+    private final SessionLevelTracker sessionLevelTracker;
+    private final MarketStreamService marketStreamService;
+    private final MarketQueryCache marketQueryCache;
+    private final SwingPivotService swingPivotService;
+    private final PriceGapIndex priceGapIndex;
+    private final LatestPricePublisher latestPricePublisher;
+    private final RollingCandleCounter rollingCandleCounter;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void registerCacheInvalidation() {
+        // Les requêtes servies par la DB ne voient la bougie qu'après l'écriture asynchrone
+        // Une invalidation (un INCR Redis) par (symbole, timeframe) du lot, pas par bougie :
+        // aucun appel Redis bloquant sur le thread d'ingestion
+        candleWriteBehindQueue.addFlushListener(batch -> batch.stream()
+                .map(candle -> candle.getSymbol() + ":" + candle.getTimeframe())
+                .distinct()
+                .forEach(key -> {
+                    int separator = key.indexOf(':');
+                    marketQueryCache.invalidate(key.substring(0, separator), key.substring(separator + 1));
+                }));
+    }
+
+    /**
+     * Ingestion d'une bougie M1 clôturée et des barres agrégées qu'elle clôture
+     */
+    public void ingest(MarketData m1) {
+        long start = System.nanoTime();
+        priceGapIndex.onCandle(m1); // avant ajout au store : compare à la M1 précédente
+        store(m1, m1.getSymbol());
+        sessionLevelTracker.onCandle(m1);
+        if (m1.getSessionName() != null) {
+            marketStreamService.publishLevels(sessionLevelTracker.getLevels(m1.getSymbol(), m1.getSessionName(),
+                    m1.getTimestamp().toLocalDate()));
+        }
+
+        long aggregationStart = System.nanoTime();
+        List<MarketData> closedBars = candleAggregator.onM1Candle(m1);
+        timer("scalper.ingest.aggregation", m1.getSymbol(), m1.getTimeframe())
+                .record(System.nanoTime() - aggregationStart, TimeUnit.NANOSECONDS);
+
+        for (MarketData aggregated : closedBars) {
+            store(aggregated, aggregated.getSymbol() + "_" + aggregated.getTimeframe());
+            log.debug("Barre {} {} clôturée: {}", aggregated.getSymbol(), aggregated.getTimeframe(),
+                    aggregated.getTimestamp());
+        }
+        timer("scalper.ingest.candle", m1.getSymbol(), m1.getTimeframe())
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Clôture les barres agrégées dont l'intervalle est écoulé sans M1 finale
+     */
+    public void closeExpiredBars(LocalDateTime now) {
+        for (MarketData aggregated : candleAggregator.closeExpiredBars(now)) {
+            store(aggregated, aggregated.getSymbol() + "_" + aggregated.getTimeframe());
+        }
+    }
+
+    private void store(MarketData candle, String cacheKey) {
+        long start = System.nanoTime();
+        candleWriteBehindQueue.enqueue(candle);
+        candleStore.append(candle);
+        swingPivotService.onCandle(candle);
+        rollingCandleCounter.record(candle);
+        latestPricePublisher.stage(cacheKey, candle);
+        marketStreamService.publishCandle(candle);
+        timer("scalper.ingest.store", candle.getSymbol(), candle.getTimeframe())
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Fin de tick de la source : publie en un seul pipeline Redis les derniers prix du tick
+     */
+    public void endOfTick() {
+        latestPricePublisher.flush();
+    }
+
+    private Timer timer(String name, String symbol, String timeframe) {
+        return timers.computeIfAbsent(name + ":" + symbol + ":" + timeframe, k -> Timer.builder(name)
+                .tags("symbol", symbol, "timeframe", timeframe)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,95 @@
+package com.scalper.service.market;
+
+import com.scalper.model.entity.MarketData;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Buffer circulaire des dernières bougies d'un couple (symbole, timeframe)
+ * Les bougies sont ajoutées dans l'ordre chronologique par le flux d'ingestion
+ */
+public class CandleRingBuffer {
+
+    private final MarketData[] candles;
+    private int head = 0;   // Prochaine position d'écriture
+    private int size = 0;
+
+    public CandleRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacité buffer invalide: " + capacity);
+        }
+        this.candles = new MarketData[capacity];
+    }
+
+    /**
+     * Ajoute une bougie. Une bougie au même timestamp que la dernière la remplace,
+     * une bougie plus ancienne est ignorée (elle reste disponible en base).
+     *
+     * @return true si la bougie a été ajoutée ou a remplacé la dernière
+     */
+    public synchronized boolean append(MarketData candle) {
+        if (size > 0) {
+            int lastIndex = index(size - 1);
+            LocalDateTime lastTimestamp = candles[lastIndex].getTimestamp();
+            int cmp = candle.getTimestamp().compareTo(lastTimestamp);
+            if (cmp == 0) {
+                candles[lastIndex] = candle;
+                return true;
+            }
+            if (cmp < 0) {
+                return false;
+            }
+        }
+
+        candles[head] = candle;
+        head = (head + 1) % candles.length;
+        if (size < candles.length) {
+            size++;
+        }
+        return true;
+    }
+
+    /**
+     * Retourne les N dernières bougies, de la plus récente à la plus ancienne
+     */
+    public synchronized List<MarketData> latest(int limit) {
+        int count = Math.min(limit, size);
+        List<MarketData> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(candles[index(size - 1 - i)]);
+        }
+        return result;
+    }
+
+    public synchronized MarketData last() {
+        return size == 0 ? null : candles[index(size - 1)];
+    }
+
+    public synchronized MarketData oldest() {
+        return size == 0 ? null : candles[index(0)];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return candles.length;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(candles, null);
+        head = 0;
+        size = 0;
+    }
+
+    // Position physique de la i-ème bougie (0 = plus ancienne)
+    private int index(int logical) {
+        int start = head - size;
+        if (start < 0) start += candles.length;
+        return (start + logical) % candles.length;
+    }
+}
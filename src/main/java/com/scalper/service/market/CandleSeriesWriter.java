@@ -0,0 +1,129 @@
+package com.scalper.service.market;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.scalper.model.entity.MarketData;
+import com.scalper.model.price.Instrument;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Format colonnes des bougies pour les graphiques : tableaux parallèles t/o/h/l/c/v
+ * au lieu d'un objet MarketData complet (~20 champs) par bougie.
+ *
+ * Colonnes en ordre chronologique, t en secondes epoch UTC, prix en ticks entiers
+ * (prix = tick / 10^scale). Écriture directe depuis les bougies via un générateur
+ * Jackson ou un tampon little-endian, sans liste intermédiaire de DTO.
+ */
+@Component
+public class CandleSeriesWriter {
+
+    public static final String JSON_MEDIA_TYPE = "application/vnd.scalper.candles+json";
+    public static final String BINARY_MEDIA_TYPE = "application/vnd.scalper.candles+binary";
+
+    /** Version du format binaire (premier octet) - v2 : en-tête aligné sur 8 octets */
+    public static final byte BINARY_VERSION = 2;
+
+    /** Taille de l'en-tête binaire : les colonnes int64 commencent sur une frontière de 8 octets */
+    public static final int BINARY_HEADER_BYTES = 8;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * {"symbol","timeframe","scale","count","t":[..],"o":[..],"h":[..],"l":[..],"c":[..],"v":[..]}
+     */
+    public void writeJson(String symbol, String timeframe, List<MarketData> candles, OutputStream out) throws IOException {
+        Instrument instrument = Instrument.of(symbol);
+        boolean newestFirst = isNewestFirst(candles);
+
+        try (JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeStringField("symbol", symbol);
+            generator.writeStringField("timeframe", timeframe);
+            generator.writeNumberField("scale", instrument.getPriceScale());
+            generator.writeNumberField("count", candles.size());
+            writeJsonColumn(generator, "t", candles, newestFirst, CandleSeriesWriter::epochSecond);
+            writeJsonColumn(generator, "o", candles, newestFirst, c -> instrument.toTicks(c.getOpenPrice()));
+            writeJsonColumn(generator, "h", candles, newestFirst, c -> instrument.toTicks(c.getHighPrice()));
+            writeJsonColumn(generator, "l", candles, newestFirst, c -> instrument.toTicks(c.getLowPrice()));
+            writeJsonColumn(generator, "c", candles, newestFirst, c -> instrument.toTicks(c.getClosePrice()));
+            writeJsonColumn(generator, "v", candles, newestFirst, CandleSeriesWriter::volume);
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Bloc little-endian : [version:1][scale:1][réservé:2][count:int32] puis 6 colonnes de count int64
+     * (t, o, h, l, c, v) ; colonne k à l'offset 8 + 8 × k × count, lisible directement en
+     * BigInt64Array(buf, offset, count) / numpy '<i8'
+     */
+    public void writeBinary(String symbol, List<MarketData> candles, OutputStream out) throws IOException {
+        Instrument instrument = Instrument.of(symbol);
+        boolean newestFirst = isNewestFirst(candles);
+
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(BINARY_VERSION);
+        buffer.put((byte) instrument.getPriceScale());
+        buffer.putShort((short) 0); // réservé
+        buffer.putInt(candles.size());
+
+        writeBinaryColumn(buffer, out, candles, newestFirst, CandleSeriesWriter::epochSecond);
+        writeBinaryColumn(buffer, out, candles, newestFirst, c -> instrument.toTicks(c.getOpenPrice()));
+        writeBinaryColumn(buffer, out, candles, newestFirst, c -> instrument.toTicks(c.getHighPrice()));
+        writeBinaryColumn(buffer, out, candles, newestFirst, c -> instrument.toTicks(c.getLowPrice()));
+        writeBinaryColumn(buffer, out, candles, newestFirst, c -> instrument.toTicks(c.getClosePrice()));
+        writeBinaryColumn(buffer, out, candles, newestFirst, CandleSeriesWriter::volume);
+
+        out.write(buffer.array(), 0, buffer.position());
+        out.flush();
+    }
+
+    private static void writeJsonColumn(JsonGenerator generator, String name, List<MarketData> candles,
+                                        boolean newestFirst, ToLongFunction<MarketData> column) throws IOException {
+        generator.writeArrayFieldStart(name);
+        int size = candles.size();
+        for (int i = 0; i < size; i++) {
+            generator.writeNumber(column.applyAsLong(candles.get(newestFirst ? size - 1 - i : i)));
+        }
+        generator.writeEndArray();
+    }
+
+    private static void writeBinaryColumn(ByteBuffer buffer, OutputStream out, List<MarketData> candles,
+                                          boolean newestFirst, ToLongFunction<MarketData> column) throws IOException {
+        int size = candles.size();
+        for (int i = 0; i < size; i++) {
+            if (buffer.remaining() < Long.BYTES) {
+                out.write(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+            buffer.putLong(column.applyAsLong(candles.get(newestFirst ? size - 1 - i : i)));
+        }
+    }
+
+    /**
+     * Le CandleStore renvoie la plus récente en premier, les requêtes par plage l'inverse
+     */
+    private static boolean isNewestFirst(List<MarketData> candles) {
+        return candles.size() > 1
+                && candles.get(0).getTimestamp().isAfter(candles.get(candles.size() - 1).getTimestamp());
+    }
+
+    private static long epochSecond(MarketData candle) {
+        return candle.getTimestamp().toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long volume(MarketData candle) {
+        return candle.getVolume() != null ? candle.getVolume() : 0L;
+    }
+}
@@ -0,0 +1,104 @@
+package com.scalper.service.market;
+
+import com.scalper.model.entity.MarketData;
+import com.scalper.repository.CandleBar;
+import com.scalper.repository.MarketDataReadRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Store mémoire des dernières bougies par (symbole, timeframe)
+ * Chargé depuis la DB au démarrage puis alimenté par le flux d'ingestion (simulateur / broker).
+ * La DB n'est interrogée que pour les bougies plus anciennes que le buffer.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CandleStore {
+
+    private final MarketDataReadRepository marketDataReadRepository;
+
+    @Value("${scalper.market-data.collection.max-history-candles:1000}")
+    private int bufferCapacity;
+
+    private final Map<String, CandleRingBuffer> buffers = new ConcurrentHashMap<>();
+
+    /**
+     * Charge les dernières bougies depuis la DB pour chaque couple (symbole, timeframe)
+     */
+    public void warmUp(Collection<String> symbols, Collection<String> timeframes) {
+        for (String symbol : symbols) {
+            for (String timeframe : timeframes) {
+                List<MarketData> latest = marketDataReadRepository.findLatestCandles(
+                        symbol, timeframe, bufferCapacity);
+
+                CandleRingBuffer buffer = buffer(symbol, timeframe);
+                buffer.clear();
+                // Ajout du plus ancien au plus récent
+                for (int i = latest.size() - 1; i >= 0; i--) {
+                    buffer.append(latest.get(i));
+                }
+                log.debug("Buffer {} {} chargé: {} bougies", symbol, timeframe, buffer.size());
+            }
+        }
+        log.info("CandleStore initialisé - {} buffers (capacité {})", buffers.size(), bufferCapacity);
+    }
+
+    /**
+     * Ajoute une bougie clôturée provenant du flux d'ingestion
+     */
+    public void append(MarketData candle) {
+        buffer(candle.getSymbol(), candle.getTimeframe()).append(candle);
+    }
+
+    /**
+     * Retourne les N dernières bougies (plus récente en premier).
+     * Complète depuis la DB uniquement si le buffer ne contient pas assez d'historique.
+     */
+    public List<MarketData> getLatestCandles(String symbol, String timeframe, int limit) {
+        CandleRingBuffer buffer = buffer(symbol, timeframe);
+        List<MarketData> candles = buffer.latest(limit);
+        if (candles.size() >= limit) {
+            return candles;
+        }
+
+        int missing = limit - candles.size();
+        MarketData oldest = candles.isEmpty() ? null : candles.get(candles.size() - 1);
+        // Historique graphique : OHLCV seulement, pas les 21 colonnes de la bougie complète
+        List<CandleBar> older = oldest == null
+                ? marketDataReadRepository.findLatestBars(symbol, timeframe, missing)
+                : marketDataReadRepository.findLatestBarsBefore(symbol, timeframe, oldest.getTimestamp(), missing);
+
+        if (older.isEmpty()) {
+            return candles;
+        }
+
+        List<MarketData> result = new ArrayList<>(candles.size() + older.size());
+        result.addAll(candles);
+        for (CandleBar bar : older) {
+            result.add(bar.toCandle(symbol, timeframe));
+        }
+        log.debug("Buffer {} {} insuffisant - {} bougies complétées depuis DB", symbol, timeframe, older.size());
+        return result;
+    }
+
+    public MarketData getLastCandle(String symbol, String timeframe) {
+        return buffer(symbol, timeframe).last();
+    }
+
+    public int bufferedCount(String symbol, String timeframe) {
+        return buffer(symbol, timeframe).size();
+    }
+
+    private CandleRingBuffer buffer(String symbol, String timeframe) {
+        return buffers.computeIfAbsent(symbol + ":" + timeframe, key -> new CandleRingBuffer(bufferCapacity));
+    }
+}
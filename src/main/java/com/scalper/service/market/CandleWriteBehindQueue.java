@@ -0,0 +1,184 @@
+package com.scalper.service.market;
+
+import com.scalper.model.entity.MarketData;
+import com.scalper.repository.MarketDataBulkRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Persistance write-behind des bougies : file bornée alimentée par l'ingestion,
+ * vidée par un thread d'écriture unique en lots (upsert JDBC batch sur (symbole, timeframe, timestamp) :
+ * une bougie rejouée ou réémise met à jour sa ligne au lieu d'échouer sur la clé unique).
+ * L'ingestion ne bloque jamais sur Postgres : si la file est pleine, la bougie est
+ * rejetée et comptée (elle reste servie par le store mémoire et Redis).
+ */
+@Service
+@Slf4j
+public class CandleWriteBehindQueue {
+
+    private final MarketDataBulkRepository bulkRepository;
+    private final BlockingQueue<MarketData> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+
+    private final Timer flushTimer;
+    private final Counter persistedCounter;
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+
+    private final List<Consumer<List<MarketData>>> flushListeners = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public CandleWriteBehindQueue(MarketDataBulkRepository bulkRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${scalper.market-data.persistence.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${scalper.market-data.persistence.batch-size:50}") int batchSize,
+                                  @Value("${scalper.market-data.persistence.flush-interval-ms:500}") long flushIntervalMs) {
+        this.bulkRepository = bulkRepository;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+
+        Gauge.builder("scalper.candles.write.queue.depth", queue, BlockingQueue::size)
+                .description("Bougies en attente de persistance")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("scalper.candles.write.flush")
+                .description("Latence d'écriture d'un lot de bougies")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.persistedCounter = meterRegistry.counter("scalper.candles.write.persisted");
+        this.rejectedCounter = meterRegistry.counter("scalper.candles.write.rejected");
+        this.failedCounter = meterRegistry.counter("scalper.candles.write.failed");
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::writeLoop, "candle-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("CandleWriteBehindQueue démarré - capacité: {}, lot: {}, flush: {}ms",
+                queue.remainingCapacity(), batchSize, flushIntervalMs);
+    }
+
+    /**
+     * Met une bougie en file de persistance (non bloquant)
+     *
+     * @return false si la file est pleine
+     */
+    public boolean enqueue(MarketData candle) {
+        if (queue.offer(candle)) {
+            return true;
+        }
+        rejectedCounter.increment();
+        log.warn("⚠️ File d'écriture pleine, bougie {} {} {} non persistée",
+                candle.getSymbol(), candle.getTimeframe(), candle.getTimestamp());
+        return false;
+    }
+
+    /**
+     * Notifié après chaque lot persisté (thread d'écriture) : invalidation des lectures DB
+     */
+    public void addFlushListener(Consumer<List<MarketData>> listener) {
+        flushListeners.add(listener);
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (writerThread != null) {
+            writerThread.interrupt();
+            try {
+                writerThread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Vidage final sur le thread d'arrêt
+        List<MarketData> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            flush(batch);
+            batch.clear();
+        }
+        log.info("CandleWriteBehindQueue arrêté");
+    }
+
+    private void writeLoop() {
+        List<MarketData> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                MarketData first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<MarketData> batch) {
+        try {
+            flushTimer.record(() -> bulkRepository.upsert(batch));
+            persistedCounter.increment(batch.size());
+        } catch (Exception e) {
+            log.error("❌ Erreur écriture lot de {} bougies, reprise unitaire: {}", batch.size(), e.getMessage());
+            saveIndividually(batch);
+        }
+        notifyFlushed(batch);
+    }
+
+    private void notifyFlushed(List<MarketData> batch) {
+        for (Consumer<List<MarketData>> listener : flushListeners) {
+            try {
+                listener.accept(batch);
+            } catch (Exception e) {
+                log.warn("⚠️ Erreur listener post-écriture: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Repli après échec d'un lot : isole la ou les bougies fautives
+     */
+    private void saveIndividually(List<MarketData> batch) {
+        for (MarketData candle : batch) {
+            try {
+                bulkRepository.upsert(List.of(candle));
+                persistedCounter.increment();
+            } catch (Exception e) {
+                failedCounter.increment();
+                log.error("❌ Bougie {} {} {} non persistée: {}", candle.getSymbol(), candle.getTimeframe(),
+                        candle.getTimestamp(), e.getMessage());
+            }
+        }
+    }
+}
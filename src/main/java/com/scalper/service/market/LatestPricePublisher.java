@@ -0,0 +1,157 @@
+package com.scalper.service.market;
+
+import com.scalper.model.entity.MarketData;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publication Redis des derniers prix ("market:latest:{clé}")
+ * Les mises à jour d'un même tick du scheduler sont coalescées par clé (la dernière gagne)
+ * puis écrites en un seul aller-retour pipeliné de SET EX, au lieu d'un SET + EXPIRE
+ * par bougie. Les lectures groupées passent par MGET.
+ */
+@Service
+@Slf4j
+public class LatestPricePublisher {
+
+    public static final String KEY_PREFIX = "market:latest:";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Duration ttl;
+    private final Map<String, MarketData> pending = new ConcurrentHashMap<>();
+    private final AtomicLong stagedUpdates = new AtomicLong();
+
+    private final Counter flushCounter;
+    private final Counter roundTripsSaved;
+    private final Counter errorCounter;
+    private final Timer publishTimer;
+
+    public LatestPricePublisher(RedisTemplate<String, Object> redisTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${scalper.market-data.latest.ttl-seconds:600}") long ttlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.flushCounter = meterRegistry.counter("scalper.redis.latest.flushes");
+        this.roundTripsSaved = Counter.builder("scalper.redis.latest.roundtrips.saved")
+                .description("Allers-retours Redis économisés par rapport à SET + EXPIRE par bougie")
+                .register(meterRegistry);
+        this.errorCounter = meterRegistry.counter("scalper.redis.latest.errors");
+        this.publishTimer = Timer.builder("scalper.redis.latest.publish")
+                .description("Latence du pipeline Redis des derniers prix")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Met à jour le dernier prix d'une clé (symbole ou symbole_timeframe), publié au prochain flush
+     */
+    public void stage(String key, MarketData candle) {
+        pending.put(key, candle);
+        stagedUpdates.incrementAndGet();
+    }
+
+    /**
+     * Écrit en un seul pipeline toutes les clés en attente
+     * Appelé en fin de tick par les sources de bougies, et périodiquement pour les flux continus.
+     *
+     * @return nombre de clés écrites
+     */
+    @Scheduled(fixedDelayString = "${scalper.market-data.latest.publish-interval-ms:250}")
+    public int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, MarketData> batch = new HashMap<>();
+        for (String key : new ArrayList<>(pending.keySet())) {
+            MarketData candle = pending.remove(key);
+            if (candle != null) {
+                batch.put(KEY_PREFIX + key, candle);
+            }
+        }
+        long updates = stagedUpdates.getAndSet(0);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            publishTimer.record(() -> redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    batch.forEach((key, candle) -> ops.opsForValue().set(key, candle, ttl));
+                    return null;
+                }
+            }));
+            flushCounter.increment();
+            // Avant : SET + EXPIRE par mise à jour ; maintenant : un aller-retour par tick
+            roundTripsSaved.increment(Math.max(0, 2 * updates - 1));
+        } catch (Exception e) {
+            errorCounter.increment();
+            log.warn("⚠️ Erreur publication Redis de {} derniers prix: {}", batch.size(), e.getMessage());
+        }
+        return batch.size();
+    }
+
+    /**
+     * Lecture groupée (MGET) des derniers prix publiés
+     *
+     * @return clé -> dernière bougie, clés absentes ou expirées omises
+     */
+    public Map<String, MarketData> getLatest(Collection<String> keys) {
+        Map<String, MarketData> result = new LinkedHashMap<>();
+        if (keys.isEmpty()) {
+            return result;
+        }
+
+        List<String> redisKeys = keys.stream().map(key -> KEY_PREFIX + key).toList();
+        try {
+            List<Object> values = redisTemplate.opsForValue().multiGet(redisKeys);
+            if (values == null) {
+                return result;
+            }
+            int index = 0;
+            for (String key : keys) {
+                if (values.get(index++) instanceof MarketData candle) {
+                    result.put(key, candle);
+                }
+            }
+        } catch (Exception e) {
+            errorCounter.increment();
+            log.debug("Lecture Redis des derniers prix impossible: {}", e.getMessage());
+        }
+        return result;
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pending", pending.size());
+        stats.put("flushes", (long) flushCounter.count());
+        stats.put("roundTripsSaved", (long) roundTripsSaved.count());
+        return stats;
+    }
+}
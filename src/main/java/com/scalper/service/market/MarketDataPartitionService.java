@@ -0,0 +1,176 @@
+package com.scalper.service.market;
+
+import com.scalper.repository.MarketDataRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Maintenance des partitions journalières de market_data_sessions
+ * Création anticipée des partitions futures et rétention par DETACH + DROP
+ * (aucun DELETE massif). Si la table n'est pas partitionnée (base créée par
+ * ddl-auto en dev), la rétention retombe sur un DELETE classique.
+ * Les jours chargés pour le backtesting (import CSV, backfill broker, replay) sont inscrits
+ * dans market_data_retained_days et échappent à la rétention, partitionnée ou non.
+ */
+@Service
+@Slf4j
+public class MarketDataPartitionService {
+
+    static final String TABLE = "market_data_sessions";
+    static final String PARTITION_PREFIX = TABLE + "_p";
+    static final String RETAINED_DAYS = "market_data_retained_days";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final String CREATE_RETAINED_DAYS =
+            "CREATE TABLE IF NOT EXISTS " + RETAINED_DAYS + " (" +
+            " day DATE PRIMARY KEY," +
+            " source VARCHAR(15) NOT NULL," +
+            " retained_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MarketDataRepository marketDataRepository;
+    private final int daysAhead;
+
+    public MarketDataPartitionService(JdbcTemplate jdbcTemplate,
+                                      MarketDataRepository marketDataRepository,
+                                      @Value("${scalper.market-data.retention.partition-days-ahead:7}") int daysAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.marketDataRepository = marketDataRepository;
+        this.daysAhead = daysAhead;
+    }
+
+    /**
+     * Création des partitions à venir au démarrage puis chaque jour
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 30 0 * * ?") // 00h30 chaque jour
+    public void ensureFuturePartitions() {
+        try {
+            LocalDate today = LocalDate.now();
+            ensurePartitions(today, today.plusDays(daysAhead));
+        } catch (Exception e) {
+            log.error("Erreur création partitions {}: {}", TABLE, e.getMessage());
+        }
+    }
+
+    /**
+     * Garantit l'existence des partitions journalières sur [from, to] (historique, backfill)
+     */
+    public void ensurePartitions(LocalDate from, LocalDate to) {
+        if (!isPartitioned()) {
+            return;
+        }
+        int created = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            jdbcTemplate.execute(String.format(
+                    "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                    partitionName(day), TABLE, day, day.plusDays(1)));
+            created++;
+        }
+        log.debug("Partitions {} vérifiées du {} au {} ({} jours)", TABLE, from, to, created);
+    }
+
+    /**
+     * Soustrait les jours [from, to] à la rétention : historique chargé pour le backtesting
+     * (un jour déjà inscrit garde sa source d'origine)
+     *
+     * @param source IMPORT_xxx, BACKFILL, REPLAY...
+     */
+    public void retainDays(LocalDate from, LocalDate to, String source) {
+        if (to.isBefore(from)) {
+            return;
+        }
+        ensureRetainedDaysTable();
+        int retained = jdbcTemplate.update("INSERT INTO " + RETAINED_DAYS + " (day, source) " +
+                        "SELECT CAST(d AS DATE), ? " +
+                        "FROM generate_series(CAST(? AS DATE), CAST(? AS DATE), INTERVAL '1 day') d " +
+                        "ON CONFLICT (day) DO NOTHING",
+                source, from, to);
+        log.info("📌 Jours {} au {} exclus de la rétention ({}, {} nouveaux)", from, to, source, retained);
+    }
+
+    /**
+     * Supprime les données antérieures au cutoff, hors jours conservés (retainDays)
+     * Partitions entièrement antérieures : DETACH puis DROP (coût constant, pas de bloat)
+     *
+     * @return nombre de partitions supprimées (-1 si repli sur DELETE)
+     */
+    public int applyRetention(LocalDateTime cutoff) {
+        ensureRetainedDaysTable();
+        if (!isPartitioned()) {
+            marketDataRepository.deleteOldData(cutoff);
+            log.info("Table {} non partitionnée - rétention par DELETE (cutoff: {})", TABLE, cutoff);
+            return -1;
+        }
+
+        Set<LocalDate> retained = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT day FROM " + RETAINED_DAYS + " WHERE day < ?", LocalDate.class, cutoff.toLocalDate()));
+        int dropped = 0;
+        for (String partition : listPartitions()) {
+            LocalDate day = parsePartitionDay(partition);
+            // Partition [day, day+1[ entièrement avant le cutoff, hors historique conservé
+            if (day != null && !day.plusDays(1).atStartOfDay().isAfter(cutoff) && !retained.contains(day)) {
+                jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + partition);
+                jdbcTemplate.execute("DROP TABLE " + partition);
+                dropped++;
+                log.info("Partition {} détachée et supprimée", partition);
+            }
+        }
+        return dropped;
+    }
+
+    public boolean isPartitioned() {
+        Boolean partitioned = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt " +
+                        "JOIN pg_class c ON c.oid = pt.partrelid WHERE c.relname = ?)",
+                Boolean.class, TABLE);
+        return Boolean.TRUE.equals(partitioned);
+    }
+
+    /**
+     * Table créée par init.sql ; garantie ici pour les bases créées par ddl-auto (dev)
+     */
+    private void ensureRetainedDaysTable() {
+        jdbcTemplate.execute(CREATE_RETAINED_DAYS);
+    }
+
+    private List<String> listPartitions() {
+        return jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i " +
+                        "JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "JOIN pg_class p ON p.oid = i.inhparent " +
+                        "WHERE p.relname = ? ORDER BY c.relname",
+                String.class, TABLE);
+    }
+
+    public static String partitionName(LocalDate day) {
+        return PARTITION_PREFIX + SUFFIX.format(day);
+    }
+
+    /**
+     * Jour d'une partition market_data_sessions_pyyyyMMdd, null pour tout autre nom
+     */
+    public static LocalDate parsePartitionDay(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
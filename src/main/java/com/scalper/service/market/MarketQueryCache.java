@@ -0,0 +1,253 @@
+package com.scalper.service.market;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Cache deux niveaux des requêtes de marché : L1 Caffeine (borné, en mémoire) + L2 Redis
+ * Invalidation par génération : chaque (symbole, timeframe) porte un compteur incrémenté
+ * à l'arrivée d'une bougie ; il fait partie de la clé, donc une nouvelle bougie rend
+ * immédiatement inatteignables toutes les entrées dérivées, sans deviner de TTL.
+ * Le compteur vit dans Redis (INCR market:q:gen:symbole:timeframe) : toutes les instances,
+ * redémarrages compris, calculent les mêmes clés L2 et voient les invalidations des autres.
+ * Lecture mise en cache localement pendant generation-refresh-ms ; l'instance qui invalide
+ * voit sa nouvelle génération immédiatement. Le TTL Redis ne sert qu'à libérer la mémoire
+ * des générations périmées.
+ */
+@Service
+@Slf4j
+public class MarketQueryCache {
+
+    private static final String KEY_PREFIX = "market:q:";
+    private static final String GENERATION_PREFIX = KEY_PREFIX + "gen:";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Cache<String, Object> l1;
+    private final Duration l2Ttl;
+    private final long generationRefreshNanos;
+    private final Map<String, Generation> generations = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RequestCounters> counters = new ConcurrentHashMap<>();
+
+    public MarketQueryCache(RedisTemplate<String, Object> redisTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${scalper.market-data.cache.max-cache-size:10000}") long maxCacheSize,
+                            @Value("${scalper.market-data.cache.ttl-seconds:300}") long ttlSeconds,
+                            @Value("${scalper.market-data.cache.generation-refresh-ms:1000}") long generationRefreshMs) {
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.l2Ttl = Duration.ofSeconds(ttlSeconds);
+        this.generationRefreshNanos = TimeUnit.MILLISECONDS.toNanos(generationRefreshMs);
+        this.l1 = Caffeine.newBuilder()
+                .maximumSize(maxCacheSize)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, l1, "marketQueryL1");
+    }
+
+    /**
+     * Lecture L1 -> L2 -> loader, avec remplissage des niveaux manquants
+     *
+     * @param query identifiant de la requête (paramètres inclus), unique par (symbole, timeframe)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String symbol, String timeframe, String query, Supplier<T> loader) {
+        RequestCounters requests = counters(symbol, timeframe);
+        String key = prefix(symbol, timeframe) + currentGeneration(symbol, timeframe, requests) + ":" + query;
+
+        Object cached = l1.getIfPresent(key);
+        if (cached != null) {
+            requests.l1Hits.increment();
+            return (T) cached;
+        }
+        requests.l1Misses.increment();
+
+        try {
+            cached = redisTemplate.opsForValue().get(key);
+        } catch (Exception e) {
+            requests.l2Errors.increment();
+            log.debug("Cache L2 indisponible pour {}: {}", key, e.getMessage());
+            cached = null;
+        }
+        if (cached != null) {
+            requests.l2Hits.increment();
+            l1.put(key, cached);
+            return (T) cached;
+        }
+        requests.l2Misses.increment();
+
+        T value = loader.get();
+        if (value != null) {
+            l1.put(key, value);
+            try {
+                redisTemplate.opsForValue().set(key, value, l2Ttl);
+            } catch (Exception e) {
+                requests.l2Errors.increment();
+                log.debug("Écriture cache L2 impossible pour {}: {}", key, e.getMessage());
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Nouvelle bougie pour (symbole, timeframe) : invalide toutes les requêtes dérivées
+     */
+    public void invalidate(String symbol, String timeframe) {
+        Generation generation = generation(symbol, timeframe);
+        try {
+            Long shared = redisTemplate.opsForValue().increment(GENERATION_PREFIX + symbol + ":" + timeframe);
+            if (shared != null) {
+                update(generation, shared, System.nanoTime());
+                return;
+            }
+        } catch (Exception e) {
+            counters(symbol, timeframe).l2Errors.increment();
+            log.debug("Invalidation L2 impossible pour {} {}: {}", symbol, timeframe, e.getMessage());
+        }
+        // Redis injoignable : la génération partagée n'a pas bougé, purge des seules entrées L1 dérivées
+        evictLocal(symbol, timeframe);
+    }
+
+    /**
+     * Invalidation globale (purge de rétention)
+     */
+    public void invalidateAll() {
+        generations.values().forEach(generation -> invalidate(generation.symbol, generation.timeframe));
+        l1.invalidateAll();
+    }
+
+    public Map<String, Object> getStats() {
+        CacheStats stats = l1.stats();
+        Map<String, Object> result = new HashMap<>();
+        result.put("l1Size", l1.estimatedSize());
+        result.put("l1HitRate", stats.hitRate());
+        result.put("l2Hits", counters.values().stream().mapToLong(c -> (long) c.l2Hits.count()).sum());
+        result.put("l2Misses", counters.values().stream().mapToLong(c -> (long) c.l2Misses.count()).sum());
+        return result;
+    }
+
+    private static String prefix(String symbol, String timeframe) {
+        return KEY_PREFIX + symbol + ":" + timeframe + ":";
+    }
+
+    /**
+     * Génération partagée, relue dans Redis au plus une fois par fenêtre de rafraîchissement
+     * (INCRBY 0 : lecture atomique, clé créée à 0 si absente, sans passer par le sérialiseur de valeurs)
+     */
+    private long currentGeneration(String symbol, String timeframe, RequestCounters requests) {
+        Generation generation = generation(symbol, timeframe);
+        long now = System.nanoTime();
+        if (generation.loaded && now - generation.readAtNanos < generationRefreshNanos) {
+            return generation.value;
+        }
+        try {
+            Long shared = redisTemplate.opsForValue().increment(GENERATION_PREFIX + symbol + ":" + timeframe, 0L);
+            if (shared != null) {
+                update(generation, shared, now);
+            }
+        } catch (Exception e) {
+            requests.l2Errors.increment();
+            log.debug("Génération L2 illisible pour {} {}: {}", symbol, timeframe, e.getMessage());
+            generation.markRead(now); // pas de nouvelle tentative avant la fenêtre suivante
+        }
+        return generation.value;
+    }
+
+    /**
+     * Une génération qui recule (Redis vidé, ou lecture antérieure à un INCR concurrent)
+     * rendrait de nouveau atteignables des entrées L1 périmées : elles sont purgées
+     */
+    private void update(Generation generation, long shared, long now) {
+        if (generation.set(shared, now)) {
+            evictLocal(generation.symbol, generation.timeframe);
+        }
+    }
+
+    private void evictLocal(String symbol, String timeframe) {
+        String prefix = prefix(symbol, timeframe);
+        l1.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    private RequestCounters counters(String symbol, String timeframe) {
+        return counters.computeIfAbsent(symbol + ":" + timeframe,
+                k -> new RequestCounters(meterRegistry, symbol, timeframe));
+    }
+
+    private Generation generation(String symbol, String timeframe) {
+        return generations.computeIfAbsent(symbol + ":" + timeframe, k -> new Generation(symbol, timeframe));
+    }
+
+    /**
+     * Dernière génération partagée connue pour (symbole, timeframe)
+     */
+    private static final class Generation {
+        final String symbol;
+        final String timeframe;
+        volatile long value;
+        volatile long readAtNanos;
+        volatile boolean loaded;
+
+        Generation(String symbol, String timeframe) {
+            this.symbol = symbol;
+            this.timeframe = timeframe;
+        }
+
+        /**
+         * @return true si la génération a reculé
+         */
+        synchronized boolean set(long shared, long now) {
+            boolean regressed = loaded && shared < value;
+            value = shared;
+            markRead(now);
+            return regressed;
+        }
+
+        void markRead(long now) {
+            readAtNanos = now;
+            loaded = true;
+        }
+    }
+
+    /**
+     * Compteurs hit/miss par (symbole, timeframe), résolus une fois puis réutilisés
+     */
+    private static final class RequestCounters {
+        final Counter l1Hits;
+        final Counter l1Misses;
+        final Counter l2Hits;
+        final Counter l2Misses;
+        final Counter l2Errors;
+
+        RequestCounters(MeterRegistry meterRegistry, String symbol, String timeframe) {
+            this.l1Hits = counter(meterRegistry, "scalper.cache.l1.requests", "hit", symbol, timeframe);
+            this.l1Misses = counter(meterRegistry, "scalper.cache.l1.requests", "miss", symbol, timeframe);
+            this.l2Hits = counter(meterRegistry, "scalper.cache.l2.requests", "hit", symbol, timeframe);
+            this.l2Misses = counter(meterRegistry, "scalper.cache.l2.requests", "miss", symbol, timeframe);
+            this.l2Errors = counter(meterRegistry, "scalper.cache.l2.requests", "error", symbol, timeframe);
+        }
+
+        private static Counter counter(MeterRegistry meterRegistry, String name, String result,
+                                       String symbol, String timeframe) {
+            return Counter.builder(name)
+                    .tags("symbol", symbol, "timeframe", timeframe, "result", result)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.scalper.service.market;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+/**
+ * Calendrier des sessions de marché (heures UTC)
+ * ASIA 00h-06h | LONDON 07h-11h | NEWYORK 12h-16h | OVERLAP sinon
+ */
+public final class MarketSessions {
+
+    private MarketSessions() {
+    }
+
+    public static String sessionAt(LocalDateTime time) {
+        int hour = time.getHour();
+        if (hour >= 0 && hour < 6) return "ASIA";
+        if (hour >= 7 && hour < 11) return "LONDON";
+        if (hour >= 12 && hour < 16) return "NEWYORK";
+        return "OVERLAP";
+    }
+
+    /**
+     * Avancement dans la session (0.00 à 1.00)
+     */
+    public static BigDecimal progressAt(LocalDateTime time) {
+        double totalMinutes = time.getHour() * 60.0 + time.getMinute();
+
+        return switch (sessionAt(time)) {
+            case "ASIA" -> BigDecimal.valueOf((totalMinutes - 0) / 360.0).setScale(2, RoundingMode.HALF_UP);
+            case "LONDON" -> BigDecimal.valueOf((totalMinutes - 420) / 240.0).setScale(2, RoundingMode.HALF_UP);
+            case "NEWYORK" -> BigDecimal.valueOf((totalMinutes - 720) / 240.0).setScale(2, RoundingMode.HALF_UP);
+            default -> BigDecimal.valueOf(0.5);
+        };
+    }
+
+    public static boolean isMarketOpen(LocalDateTime time) {
+        int hour = time.getHour();
+        int dayOfWeek = time.getDayOfWeek().getValue();
+
+        // Fermé weekend (samedi-dimanche)
+        if (dayOfWeek >= 6) return false;
+
+        // Ouvert 24h en semaine sauf pause entre NY close et Asia open
+        return !(hour >= 17 && hour < 23); // Pause 17h-23h UTC
+    }
+}
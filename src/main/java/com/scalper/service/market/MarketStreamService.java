@@ -0,0 +1,128 @@
+package com.scalper.service.market;
+
+import com.scalper.model.entity.MarketData;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Diffusion en mémoire des événements de marché par symbole (SSE)
+ * Un seul fan-out remplace le polling des dashboards :
+ * - "forming" : bougie M1 en formation, coalescée (seule la dernière compte)
+ * - "candle" / "levels" / "breakout" : événements discrets, tampon borné par client
+ * Les producteurs ne bloquent jamais : un client lent perd des mises à jour, pas le flux.
+ */
+@Service
+@Slf4j
+public class MarketStreamService {
+
+    private final Map<String, SymbolChannel> channels = new ConcurrentHashMap<>();
+    private final int clientBufferSize;
+
+    public MarketStreamService(@Value("${scalper.market-data.stream.client-buffer-size:256}") int clientBufferSize) {
+        this.clientBufferSize = clientBufferSize;
+    }
+
+    /**
+     * Flux SSE d'un symbole pour un client
+     */
+    public Flux<ServerSentEvent<Object>> subscribe(String symbol) {
+        SymbolChannel channel = channel(symbol);
+
+        Flux<ServerSentEvent<Object>> forming = channel.forming.asFlux()
+                .onBackpressureLatest();
+        Flux<ServerSentEvent<Object>> events = channel.events.asFlux()
+                .onBackpressureBuffer(clientBufferSize,
+                        dropped -> log.debug("Client SSE lent {}: événement abandonné", symbol),
+                        BufferOverflowStrategy.DROP_OLDEST);
+        Flux<ServerSentEvent<Object>> keepAlive = Flux.interval(Duration.ofSeconds(15))
+                .map(tick -> ServerSentEvent.<Object>builder().comment("keep-alive").build());
+
+        return Flux.merge(forming, events, keepAlive);
+    }
+
+    /**
+     * Bougie M1 en formation (déjà throttlée par le TickStream producteur)
+     */
+    public void publishForming(MarketData candle) {
+        SymbolChannel channel = channel(candle.getSymbol());
+        channel.emit(channel.forming, event("forming", candle));
+    }
+
+    /**
+     * Bougie clôturée (tous timeframes) et breakout éventuel
+     */
+    public void publishCandle(MarketData candle) {
+        SymbolChannel channel = channel(candle.getSymbol());
+        channel.emit(channel.events, event("candle", candle));
+        if (candle.isBreakoutCandle()) {
+            channel.emit(channel.events, event("breakout", candle));
+        }
+    }
+
+    /**
+     * Niveaux de la session courante après intégration d'une M1
+     */
+    public void publishLevels(SessionLevelSnapshot snapshot) {
+        if (snapshot.isEmpty()) {
+            return;
+        }
+        Map<String, Object> levels = new LinkedHashMap<>();
+        String session = snapshot.sessionName();
+        levels.put("symbol", snapshot.symbol());
+        levels.put("session", session);
+        levels.put(session + "_HIGH", snapshot.high());
+        levels.put(session + "_LOW", snapshot.low());
+        levels.put(session + "_MID", snapshot.mid());
+        BigDecimal vwap = snapshot.vwap();
+        if (vwap != null) {
+            levels.put(session + "_VWAP", vwap);
+        }
+
+        SymbolChannel channel = channel(snapshot.symbol());
+        channel.emit(channel.events, event("levels", levels));
+    }
+
+    public int getSubscriberCount(String symbol) {
+        SymbolChannel channel = channels.get(symbol);
+        return channel != null ? channel.events.currentSubscriberCount() : 0;
+    }
+
+    private SymbolChannel channel(String symbol) {
+        return channels.computeIfAbsent(symbol, s -> new SymbolChannel());
+    }
+
+    private static ServerSentEvent<Object> event(String type, Object data) {
+        return ServerSentEvent.<Object>builder().event(type).data(data).build();
+    }
+
+    // ========== Classes Internes ==========
+
+    private static final class SymbolChannel {
+        // directBestEffort : un abonné sans demande est sauté, les autres reçoivent
+        private final Sinks.Many<ServerSentEvent<Object>> forming = Sinks.many().multicast().directBestEffort();
+        private final Sinks.Many<ServerSentEvent<Object>> events = Sinks.many().multicast().directBestEffort();
+
+        /**
+         * Émission sérialisée (producteurs multiples : simulateur, feeds de ticks, agrégation)
+         */
+        void emit(Sinks.Many<ServerSentEvent<Object>> sink, ServerSentEvent<Object> event) {
+            if (sink.currentSubscriberCount() == 0) {
+                return;
+            }
+            synchronized (sink) {
+                sink.tryEmitNext(event);
+            }
+        }
+    }
+}
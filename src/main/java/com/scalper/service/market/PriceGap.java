@@ -0,0 +1,42 @@
+package com.scalper.service.market;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Gap de prix entre la clôture d'une bougie M1 et l'ouverture de la suivante
+ *
+ * @param gapTicks ouverture - clôture précédente, en ticks (positif = gap haussier)
+ */
+public record PriceGap(String symbol,
+                       Type type,
+                       LocalDateTime previousTimestamp,
+                       LocalDateTime timestamp,
+                       BigDecimal previousClose,
+                       BigDecimal open,
+                       long gapTicks,
+                       double gapPips) {
+
+    public enum Type {
+        WEEKEND,     // Réouverture après la fermeture du week-end
+        TIME_GAP,    // Barres manquantes en semaine (fermeture, trou de données)
+        PRICE_JUMP   // Barres consécutives : saut de prix (news)
+    }
+
+    /**
+     * Type de gap selon l'intervalle entre les deux bougies M1
+     */
+    public static Type classify(LocalDateTime previous, LocalDateTime current) {
+        Duration elapsed = Duration.between(previous, current);
+        if (elapsed.compareTo(Duration.ofMinutes(1)) <= 0) {
+            return Type.PRICE_JUMP;
+        }
+        boolean fromWeekEnd = previous.getDayOfWeek() == DayOfWeek.FRIDAY
+                || previous.getDayOfWeek() == DayOfWeek.SATURDAY;
+        boolean toWeekStart = current.getDayOfWeek() == DayOfWeek.SUNDAY
+                || current.getDayOfWeek() == DayOfWeek.MONDAY;
+        return fromWeekEnd && toWeekStart && elapsed.toHours() >= 24 ? Type.WEEKEND : Type.TIME_GAP;
+    }
+}
@@ -0,0 +1,154 @@
+package com.scalper.service.market;
+
+import com.scalper.model.entity.MarketData;
+import com.scalper.model.price.Instrument;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index mémoire des gaps de prix M1 par symbole (week-end, trous, sauts de news)
+ * Amorcé une fois par une requête LAG() en passe unique sur la fenêtre récente,
+ * puis alimenté à l'ingestion en comparant chaque ouverture à la clôture précédente.
+ * Les endpoints lisent l'index directement, sans rescanner market_data_sessions.
+ */
+@Service
+@Slf4j
+public class PriceGapIndex {
+
+    private static final String GAP_QUERY =
+            "SELECT prev_timestamp, timestamp, prev_close, open_price FROM (" +
+            " SELECT timestamp, open_price," +
+            " LAG(close_price) OVER w AS prev_close, LAG(timestamp) OVER w AS prev_timestamp" +
+            " FROM market_data_sessions WHERE symbol = ? AND timeframe = 'M1' AND timestamp >= ?" +
+            " WINDOW w AS (ORDER BY timestamp)) g " +
+            "WHERE prev_close IS NOT NULL AND ABS(open_price - prev_close) >= ? " +
+            "ORDER BY timestamp ASC";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CandleStore candleStore;
+    private final int seedDays;
+    private final int maxGaps;
+
+    private final Map<String, ArrayDeque<PriceGap>> gaps = new ConcurrentHashMap<>();
+
+    public PriceGapIndex(JdbcTemplate jdbcTemplate,
+                         CandleStore candleStore,
+                         @Value("${scalper.market-data.gaps.seed-days:14}") int seedDays,
+                         @Value("${scalper.market-data.gaps.max-gaps:500}") int maxGaps) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.candleStore = candleStore;
+        this.seedDays = seedDays;
+        this.maxGaps = maxGaps;
+    }
+
+    /**
+     * Nouvelle M1, appelé avant son ajout au CandleStore (dont la dernière M1 est la précédente)
+     *
+     * @return le gap détecté, null sinon
+     */
+    public PriceGap onCandle(MarketData m1) {
+        MarketData previous = candleStore.getLastCandle(m1.getSymbol(), "M1");
+        if (previous == null || !previous.getTimestamp().isBefore(m1.getTimestamp())) {
+            return null;
+        }
+
+        Instrument instrument = m1.instrument();
+        PriceGap gap = detect(instrument, previous.getTimestamp(), m1.getTimestamp(),
+                instrument.toTicks(previous.getClosePrice()), instrument.toTicks(m1.getOpenPrice()));
+        if (gap != null) {
+            ArrayDeque<PriceGap> index = index(m1.getSymbol());
+            synchronized (index) {
+                // L'amorçage DB peut déjà contenir ce gap
+                if (index.isEmpty() || index.peekLast().timestamp().isBefore(gap.timestamp())) {
+                    add(index, gap);
+                    log.info("🎯 Gap {} {} détecté: {} pips ({} -> {})", gap.type(), gap.symbol(),
+                            gap.gapPips(), gap.previousTimestamp(), gap.timestamp());
+                }
+            }
+        }
+        return gap;
+    }
+
+    /**
+     * Gaps depuis {@code since}, plus récent en premier, éventuellement filtrés par type
+     */
+    public List<PriceGap> getGaps(String symbol, PriceGap.Type type, LocalDateTime since, int limit) {
+        ArrayDeque<PriceGap> index = index(symbol);
+        List<PriceGap> result = new ArrayList<>();
+        synchronized (index) {
+            Iterator<PriceGap> it = index.descendingIterator();
+            while (it.hasNext() && result.size() < limit) {
+                PriceGap gap = it.next();
+                if (gap.timestamp().isBefore(since)) {
+                    break;
+                }
+                if (type == null || gap.type() == type) {
+                    result.add(gap);
+                }
+            }
+        }
+        return result;
+    }
+
+    private ArrayDeque<PriceGap> index(String symbol) {
+        return gaps.computeIfAbsent(symbol, this::seed);
+    }
+
+    /**
+     * Passe unique LAG() sur la fenêtre récente : O(n) au lieu d'une sous-requête par ligne
+     */
+    private ArrayDeque<PriceGap> seed(String symbol) {
+        ArrayDeque<PriceGap> index = new ArrayDeque<>();
+        Instrument instrument = Instrument.of(symbol);
+        try {
+            jdbcTemplate.query(GAP_QUERY, rs -> {
+                PriceGap gap = detect(instrument,
+                        rs.getTimestamp("prev_timestamp").toLocalDateTime(),
+                        rs.getTimestamp("timestamp").toLocalDateTime(),
+                        instrument.toTicks(rs.getBigDecimal("prev_close")),
+                        instrument.toTicks(rs.getBigDecimal("open_price")));
+                if (gap != null) {
+                    add(index, gap);
+                }
+            }, symbol, Timestamp.valueOf(LocalDateTime.now().minusDays(seedDays)), minGap(instrument));
+            log.debug("Index des gaps {} amorcé: {} gaps sur {} jours", symbol, index.size(), seedDays);
+        } catch (Exception e) {
+            log.warn("⚠️ Amorçage index des gaps {} impossible: {}", symbol, e.getMessage());
+        }
+        return index;
+    }
+
+    private PriceGap detect(Instrument instrument, LocalDateTime previousTimestamp, LocalDateTime timestamp,
+                            long previousCloseTicks, long openTicks) {
+        long gapTicks = openTicks - previousCloseTicks;
+        if (Math.abs(gapTicks) < instrument.pipsToTicks(instrument.getPivotRangePips())) {
+            return null;
+        }
+        return new PriceGap(instrument.name(), PriceGap.classify(previousTimestamp, timestamp),
+                previousTimestamp, timestamp, instrument.toPrice(previousCloseTicks), instrument.toPrice(openTicks),
+                gapTicks, instrument.ticksToPips(gapTicks));
+    }
+
+    private BigDecimal minGap(Instrument instrument) {
+        return instrument.toPrice(instrument.pipsToTicks(instrument.getPivotRangePips()));
+    }
+
+    private void add(ArrayDeque<PriceGap> index, PriceGap gap) {
+        if (index.size() == maxGaps) {
+            index.pollFirst();
+        }
+        index.addLast(gap);
+    }
+}
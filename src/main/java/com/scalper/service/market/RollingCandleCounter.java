@@ -0,0 +1,154 @@
+package com.scalper.service.market;
+
+import com.scalper.model.entity.MarketData;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compteurs glissants 24h des bougies reçues par (symbole, timeframe)
+ * 288 seaux de 5 minutes par couple avec total courant : incrément et lecture en O(1)
+ * amorti, exposés en jauges Micrometer (scalper.candles.24h). Remplace le COUNT SQL
+ * exécuté à chaque appel de /api/market/stats et à chaque scrape.
+ * Amorcé une fois au démarrage par un COUNT groupé par seau sur les dernières 24h.
+ */
+@Service
+@Slf4j
+public class RollingCandleCounter {
+
+    static final int BUCKET_SECONDS = 300;
+    static final int BUCKETS = 24 * 3600 / BUCKET_SECONDS;
+
+    private static final String SEED_QUERY =
+            "SELECT symbol, timeframe, FLOOR(EXTRACT(EPOCH FROM timestamp) / " + BUCKET_SECONDS + ") AS bucket, " +
+            "COUNT(*) AS candles FROM market_data_sessions " +
+            "WHERE timestamp >= ? AND created_at < ? GROUP BY symbol, timeframe, bucket";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    // Les bougies créées avant le démarrage viennent de l'amorçage DB, les suivantes de l'ingestion
+    private final LocalDateTime startedAt = LocalDateTime.now();
+
+    public RollingCandleCounter(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedFromDatabase() {
+        try {
+            long current = bucketOf(LocalDateTime.now());
+            int[] rows = {0};
+            jdbcTemplate.query(SEED_QUERY, rs -> {
+                window(rs.getString("symbol"), rs.getString("timeframe"))
+                        .add(rs.getLong("bucket"), rs.getLong("candles"), current);
+                rows[0]++;
+            }, Timestamp.valueOf(startedAt.minusHours(24)), Timestamp.valueOf(startedAt));
+            log.info("Compteurs 24h amorcés: {} seaux, {} couples symbole/timeframe", rows[0], windows.size());
+        } catch (Exception e) {
+            log.warn("⚠️ Amorçage des compteurs 24h impossible: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Bougie ingérée (tous timeframes)
+     */
+    public void record(MarketData candle) {
+        window(candle.getSymbol(), candle.getTimeframe())
+                .add(bucketOf(candle.getTimestamp()), 1, bucketOf(LocalDateTime.now()));
+    }
+
+    /**
+     * Bougies des dernières 24h (précision d'un seau de 5 minutes)
+     */
+    public long count(String symbol, String timeframe) {
+        Window window = windows.get(key(symbol, timeframe));
+        return window != null ? window.total(bucketOf(LocalDateTime.now())) : 0L;
+    }
+
+    private Window window(String symbol, String timeframe) {
+        return windows.computeIfAbsent(key(symbol, timeframe), k -> {
+            Window window = new Window();
+            Gauge.builder("scalper.candles.24h", window, w -> w.total(bucketOf(LocalDateTime.now())))
+                    .description("Bougies reçues sur 24h glissantes")
+                    .tags("symbol", symbol, "timeframe", timeframe)
+                    .register(meterRegistry);
+            return window;
+        });
+    }
+
+    private static long bucketOf(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), BUCKET_SECONDS);
+    }
+
+    private static String key(String symbol, String timeframe) {
+        return symbol + ":" + timeframe;
+    }
+
+    /**
+     * Fenêtre circulaire de seaux ; les seaux sortis de la fenêtre sont retranchés
+     * du total au fil de l'eau (chaque seau expiré une seule fois)
+     */
+    static final class Window {
+        private final long[] bucketIds = new long[BUCKETS];
+        private final long[] counts = new long[BUCKETS];
+        private long total;
+        private long expiredUpTo = Long.MIN_VALUE;
+
+        synchronized void add(long bucket, long candles, long current) {
+            expire(current);
+            if (bucket <= current - BUCKETS) {
+                return; // hors fenêtre (backfill ancien)
+            }
+            bucket = Math.min(bucket, current); // horodatage en avance : compté dans le seau courant
+            int slot = (int) Math.floorMod(bucket, (long) BUCKETS);
+            if (bucketIds[slot] != bucket) {
+                total -= counts[slot];
+                counts[slot] = 0;
+                bucketIds[slot] = bucket;
+            }
+            counts[slot] += candles;
+            total += candles;
+        }
+
+        synchronized long total(long current) {
+            expire(current);
+            return total;
+        }
+
+        private void expire(long current) {
+            long limit = current - BUCKETS;
+            if (limit <= expiredUpTo) {
+                return;
+            }
+            if (expiredUpTo == Long.MIN_VALUE || limit - expiredUpTo >= BUCKETS) {
+                // Saut d'au moins une fenêtre : tous les seaux présents sont expirés
+                Arrays.fill(counts, 0L);
+                total = 0;
+                expiredUpTo = limit;
+                return;
+            }
+            for (long bucket = expiredUpTo + 1; bucket <= limit; bucket++) {
+                int slot = (int) Math.floorMod(bucket, (long) BUCKETS);
+                if (bucketIds[slot] == bucket) {
+                    total -= counts[slot];
+                    counts[slot] = 0;
+                }
+            }
+            expiredUpTo = limit;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.scalper.service.market;
+
+import com.scalper.model.price.Instrument;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Photo immuable des niveaux d'une session (High/Low/VWAP) à un instant donné
+ * Prix en ticks long, convertis en BigDecimal uniquement pour l'exposition REST.
+ */
+public record SessionLevelSnapshot(String symbol,
+                                   String sessionName,
+                                   LocalDate sessionDate,
+                                   long highTicks,
+                                   long lowTicks,
+                                   long vwapTicks,
+                                   long totalVolume,
+                                   long candleCount) {
+
+    public boolean isEmpty() {
+        return candleCount == 0;
+    }
+
+    public Instrument instrument() {
+        return Instrument.of(symbol);
+    }
+
+    public BigDecimal high() {
+        return instrument().toPrice(highTicks);
+    }
+
+    public BigDecimal low() {
+        return instrument().toPrice(lowTicks);
+    }
+
+    public BigDecimal mid() {
+        return instrument().toPrice(Instrument.divideHalfUp(highTicks + lowTicks, 2));
+    }
+
+    public BigDecimal vwap() {
+        return totalVolume > 0 ? instrument().toPrice(vwapTicks) : null;
+    }
+}
@@ -0,0 +1,173 @@
+package com.scalper.service.market;
+
+import com.scalper.model.entity.MarketData;
+import com.scalper.model.price.Instrument;
+import com.scalper.repository.MarketDataRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Accumulateurs courants par (symbole, session) : High, Low, Σ(prix typique × volume), Σ volume
+ * Mis à jour à chaque bougie M1 ingérée et remis à zéro au changement de jour de session.
+ * La DB n'est lue que pour amorcer l'accumulateur au premier flux après démarrage, et pour répondre
+ * en lecture seule sur une autre date : l'accumulateur courant n'est jamais réinitialisé par une lecture.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SessionLevelTracker {
+
+    private final MarketDataRepository marketDataRepository;
+
+    private final Map<String, SessionAccumulator> accumulators = new ConcurrentHashMap<>();
+
+    /**
+     * Intègre une bougie M1 dans l'accumulateur de sa session
+     */
+    public void onCandle(MarketData candle) {
+        if (!"M1".equals(candle.getTimeframe()) || candle.getSessionName() == null) {
+            return;
+        }
+        SessionAccumulator accumulator = accumulator(candle.getSymbol(), candle.getSessionName());
+        synchronized (accumulator) {
+            if (accumulator.date == null) {
+                // Premier flux depuis le démarrage : reprise des M1 déjà persistées avant cette bougie
+                LocalDate date = candle.getTimestamp().toLocalDate();
+                rebuildFromDatabase(accumulator, date, candle.getTimestamp());
+            }
+            accumulator.add(candle);
+        }
+    }
+
+    /**
+     * Niveaux de la session pour la date donnée - lecture O(1) sur la session courante,
+     * agrégat DB en lecture seule pour toute autre date (historique, session sans flux depuis le démarrage)
+     */
+    public SessionLevelSnapshot getLevels(String symbol, String sessionName, LocalDate date) {
+        SessionAccumulator accumulator = accumulators.get(symbol + ":" + sessionName);
+        if (accumulator != null) {
+            synchronized (accumulator) {
+                if (date.equals(accumulator.date)) {
+                    return accumulator.snapshot();
+                }
+            }
+        }
+
+        SessionAccumulator readOnly = new SessionAccumulator(symbol, sessionName);
+        rebuildFromDatabase(readOnly, date, date.plusDays(1).atStartOfDay());
+        return readOnly.snapshot();
+    }
+
+    /**
+     * VWAP courant de la session (ticks), ou la valeur par défaut si aucun volume
+     */
+    public long currentVwapTicks(String symbol, String sessionName, LocalDate date, long defaultTicks) {
+        SessionAccumulator accumulator = accumulators.get(symbol + ":" + sessionName);
+        if (accumulator == null) {
+            return defaultTicks;
+        }
+        synchronized (accumulator) {
+            if (!date.equals(accumulator.date) || accumulator.sumVolume == 0) {
+                return defaultTicks;
+            }
+            return accumulator.vwapTicks();
+        }
+    }
+
+    private SessionAccumulator accumulator(String symbol, String sessionName) {
+        return accumulators.computeIfAbsent(symbol + ":" + sessionName,
+                key -> new SessionAccumulator(symbol, sessionName));
+    }
+
+    private void rebuildFromDatabase(SessionAccumulator accumulator, LocalDate date, LocalDateTime before) {
+        List<Object[]> rows = marketDataRepository.findSessionAggregates(accumulator.symbol,
+                accumulator.sessionName, date.atStartOfDay(), before);
+
+        accumulator.reset(date);
+        if (rows.isEmpty() || rows.get(0)[4] == null || ((Number) rows.get(0)[4]).longValue() == 0) {
+            return;
+        }
+
+        Object[] row = rows.get(0);
+        Instrument instrument = accumulator.instrument;
+        accumulator.high = instrument.toTicks((BigDecimal) row[0]);
+        accumulator.low = instrument.toTicks((BigDecimal) row[1]);
+        accumulator.sumHlcVolume = row[2] != null ? instrument.toTicks(toBigDecimal(row[2])) : 0L;
+        accumulator.sumVolume = row[3] != null ? ((Number) row[3]).longValue() : 0L;
+        accumulator.count = ((Number) row[4]).longValue();
+
+        log.debug("Accumulateur {} {} reconstruit depuis DB: {} bougies", accumulator.symbol,
+                accumulator.sessionName, accumulator.count);
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+
+    // ========== Classes Internes ==========
+
+    private static final class SessionAccumulator {
+        private final String symbol;
+        private final String sessionName;
+        private final Instrument instrument;
+
+        private LocalDate date;
+        private long high;
+        private long low;
+        private long sumHlcVolume; // Σ (H+L+C) × volume, en ticks
+        private long sumVolume;
+        private long count;
+
+        SessionAccumulator(String symbol, String sessionName) {
+            this.symbol = symbol;
+            this.sessionName = sessionName;
+            this.instrument = Instrument.of(symbol);
+        }
+
+        void add(MarketData candle) {
+            LocalDate candleDate = candle.getTimestamp().toLocalDate();
+            if (date == null || candleDate.isAfter(date)) {
+                reset(candleDate);       // Nouvelle occurrence de la session
+            } else if (candleDate.isBefore(date)) {
+                return;                  // Bougie d'une session passée
+            }
+
+            long h = instrument.toTicks(candle.getHighPrice());
+            long l = instrument.toTicks(candle.getLowPrice());
+            long c = instrument.toTicks(candle.getClosePrice());
+            long volume = candle.getVolume() != null ? candle.getVolume() : 0L;
+
+            high = count == 0 ? h : Math.max(high, h);
+            low = count == 0 ? l : Math.min(low, l);
+            sumHlcVolume += (h + l + c) * volume;
+            sumVolume += volume;
+            count++;
+        }
+
+        void reset(LocalDate newDate) {
+            date = newDate;
+            high = 0;
+            low = 0;
+            sumHlcVolume = 0;
+            sumVolume = 0;
+            count = 0;
+        }
+
+        long vwapTicks() {
+            return Instrument.divideHalfUp(sumHlcVolume, 3 * sumVolume);
+        }
+
+        SessionLevelSnapshot snapshot() {
+            return new SessionLevelSnapshot(symbol, sessionName, date, high, low,
+                    sumVolume > 0 ? vwapTicks() : 0L, sumVolume, count);
+        }
+    }
+}
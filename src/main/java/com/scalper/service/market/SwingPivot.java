@@ -0,0 +1,23 @@
+package com.scalper.service.market;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Pivot de swing confirmé (sommet ou creux) sur un timeframe
+ *
+ * @param priceTicks prix du pivot en ticks de l'instrument (high du sommet, low du creux)
+ * @param confirmedAt clôture de la barre qui a confirmé le pivot
+ */
+public record SwingPivot(String symbol,
+                         String timeframe,
+                         Type type,
+                         LocalDateTime timestamp,
+                         BigDecimal price,
+                         long priceTicks,
+                         LocalDateTime confirmedAt) {
+
+    public enum Type {
+        SWING_HIGH, SWING_LOW
+    }
+}
@@ -0,0 +1,206 @@
+package com.scalper.service.market;
+
+import com.scalper.model.price.Instrument;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Détecteur incrémental de pivots de swing pour un (symbole, timeframe)
+ * Un appel par barre clôturée, en ticks long, sans allocation hors pivot confirmé :
+ * - FRACTAL : sommet si son high dépasse les {@code leftBars} barres précédentes et
+ *   n'est pas dépassé par les {@code rightBars} suivantes (creux symétrique), confirmé
+ *   {@code rightBars} barres plus tard. Coût O(left + right) par barre.
+ * - ZIGZAG : extrême courant confirmé dès un retournement d'au moins {@code reversalTicks}.
+ *   Coût O(1) par barre.
+ * Non thread-safe : synchronisé par {@link SwingPivotService}.
+ */
+public class SwingPivotDetector {
+
+    public enum Mode {
+        FRACTAL, ZIGZAG
+    }
+
+    private final String symbol;
+    private final String timeframe;
+    private final Instrument instrument;
+    private final Mode mode;
+    private final int leftBars;
+    private final int rightBars;
+    private final long reversalTicks;
+    private final int maxPivots;
+
+    // Fenêtre glissante FRACTAL (tableaux primitifs circulaires)
+    private final long[] times;
+    private final long[] highs;
+    private final long[] lows;
+    private int head;
+    private int count;
+
+    // État ZIGZAG
+    private int direction; // 1 hausse, -1 baisse, 0 indéterminé
+    private long extremeHigh = Long.MIN_VALUE;
+    private long extremeHighTime;
+    private long extremeLow = Long.MAX_VALUE;
+    private long extremeLowTime;
+
+    private long lastBarTime = Long.MIN_VALUE;
+    private final ArrayDeque<SwingPivot> pivots;
+
+    public SwingPivotDetector(String symbol, String timeframe, Mode mode, int leftBars, int rightBars,
+                              long reversalTicks, int maxPivots) {
+        if (leftBars < 1 || rightBars < 1) {
+            throw new IllegalArgumentException("Force gauche/droite >= 1 requise: " + leftBars + "/" + rightBars);
+        }
+        this.symbol = symbol;
+        this.timeframe = timeframe;
+        this.instrument = Instrument.of(symbol);
+        this.mode = mode;
+        this.leftBars = leftBars;
+        this.rightBars = rightBars;
+        this.reversalTicks = Math.max(1, reversalTicks);
+        this.maxPivots = maxPivots;
+
+        int window = leftBars + rightBars + 1;
+        this.times = new long[window];
+        this.highs = new long[window];
+        this.lows = new long[window];
+        this.pivots = new ArrayDeque<>(Math.min(maxPivots, 256));
+    }
+
+    /**
+     * Passe unique sur des colonnes OHLC primitives (ordre chronologique)
+     */
+    public void scan(long[] epochSeconds, long[] highTicks, long[] lowTicks) {
+        for (int i = 0; i < epochSeconds.length; i++) {
+            onBar(epochSeconds[i], highTicks[i], lowTicks[i]);
+        }
+    }
+
+    /**
+     * Barre clôturée ; les barres déjà vues (timestamp <= dernière) sont ignorées
+     *
+     * @return true si la barre a confirmé un pivot
+     */
+    public boolean onBar(long epochSecond, long highTicks, long lowTicks) {
+        if (epochSecond <= lastBarTime) {
+            return false;
+        }
+        lastBarTime = epochSecond;
+        return mode == Mode.FRACTAL
+                ? onFractalBar(epochSecond, highTicks, lowTicks)
+                : onZigZagBar(epochSecond, highTicks, lowTicks);
+    }
+
+    /**
+     * Pivots confirmés depuis {@code since}, plus récent en premier
+     */
+    public List<SwingPivot> recent(LocalDateTime since, int limit) {
+        List<SwingPivot> result = new ArrayList<>(Math.min(limit, pivots.size()));
+        Iterator<SwingPivot> it = pivots.descendingIterator();
+        while (it.hasNext() && result.size() < limit) {
+            SwingPivot pivot = it.next();
+            if (since != null && pivot.timestamp().isBefore(since)) {
+                break;
+            }
+            result.add(pivot);
+        }
+        return result;
+    }
+
+    public int size() {
+        return pivots.size();
+    }
+
+    public long getLastBarTime() {
+        return lastBarTime;
+    }
+
+    private boolean onFractalBar(long time, long high, long low) {
+        int window = times.length;
+        int slot = (head + count) % window;
+        if (count == window) {
+            head = (head + 1) % window;
+            slot = (head + window - 1) % window;
+        } else {
+            count++;
+        }
+        times[slot] = time;
+        highs[slot] = high;
+        lows[slot] = low;
+
+        if (count < window) {
+            return false;
+        }
+
+        // Candidat : la barre située rightBars barres avant la plus récente
+        int candidate = (head + leftBars) % window;
+        boolean swingHigh = true;
+        boolean swingLow = true;
+        for (int offset = 0; offset < window && (swingHigh || swingLow); offset++) {
+            if (offset == leftBars) {
+                continue;
+            }
+            int i = (head + offset) % window;
+            boolean left = offset < leftBars;
+            // Strict à gauche, égalité tolérée à droite : le premier de deux sommets égaux l'emporte
+            swingHigh &= left ? highs[candidate] > highs[i] : highs[candidate] >= highs[i];
+            swingLow &= left ? lows[candidate] < lows[i] : lows[candidate] <= lows[i];
+        }
+
+        if (swingHigh) {
+            addPivot(SwingPivot.Type.SWING_HIGH, times[candidate], highs[candidate], time);
+        }
+        if (swingLow) {
+            addPivot(SwingPivot.Type.SWING_LOW, times[candidate], lows[candidate], time);
+        }
+        return swingHigh || swingLow;
+    }
+
+    private boolean onZigZagBar(long time, long high, long low) {
+        if (high > extremeHigh) {
+            extremeHigh = high;
+            extremeHighTime = time;
+        }
+        if (low < extremeLow) {
+            extremeLow = low;
+            extremeLowTime = time;
+        }
+
+        if (direction >= 0 && extremeHigh - low >= reversalTicks && extremeHighTime < time) {
+            addPivot(SwingPivot.Type.SWING_HIGH, extremeHighTime, extremeHigh, time);
+            direction = -1;
+            extremeLow = low;
+            extremeLowTime = time;
+            extremeHigh = high;
+            extremeHighTime = time;
+            return true;
+        }
+        if (direction <= 0 && high - extremeLow >= reversalTicks && extremeLowTime < time) {
+            addPivot(SwingPivot.Type.SWING_LOW, extremeLowTime, extremeLow, time);
+            direction = 1;
+            extremeHigh = high;
+            extremeHighTime = time;
+            extremeLow = low;
+            extremeLowTime = time;
+            return true;
+        }
+        return false;
+    }
+
+    private void addPivot(SwingPivot.Type type, long pivotTime, long priceTicks, long confirmTime) {
+        if (pivots.size() == maxPivots) {
+            pivots.pollFirst();
+        }
+        pivots.addLast(new SwingPivot(symbol, timeframe, type, toDateTime(pivotTime),
+                instrument.toPrice(priceTicks), priceTicks, toDateTime(confirmTime)));
+    }
+
+    private static LocalDateTime toDateTime(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,102 @@
+package com.scalper.service.market;
+
+import com.scalper.model.entity.MarketData;
+import com.scalper.model.price.Instrument;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pivots de swing par (symbole, timeframe), tenus à jour à chaque barre clôturée
+ * Le détecteur est amorcé une fois sur la fenêtre mémoire du CandleStore (passe unique
+ * sur tableaux primitifs), puis mis à jour incrémentalement par l'ingestion : une requête
+ * de pivots ne fait que lire les derniers pivots confirmés, sans accès DB.
+ */
+@Service
+@Slf4j
+public class SwingPivotService {
+
+    private final CandleStore candleStore;
+    private final SwingPivotDetector.Mode mode;
+    private final int leftBars;
+    private final int rightBars;
+    private final int maxPivots;
+
+    private final Map<String, SwingPivotDetector> detectors = new ConcurrentHashMap<>();
+
+    public SwingPivotService(CandleStore candleStore,
+                             @Value("${scalper.market-data.pivots.mode:FRACTAL}") SwingPivotDetector.Mode mode,
+                             @Value("${scalper.market-data.pivots.left-bars:2}") int leftBars,
+                             @Value("${scalper.market-data.pivots.right-bars:2}") int rightBars,
+                             @Value("${scalper.market-data.pivots.max-pivots:200}") int maxPivots) {
+        this.candleStore = candleStore;
+        this.mode = mode;
+        this.leftBars = leftBars;
+        this.rightBars = rightBars;
+        this.maxPivots = maxPivots;
+    }
+
+    /**
+     * Barre clôturée, déjà ajoutée au CandleStore : si l'amorçage vient de l'inclure,
+     * le détecteur l'ignore (timestamp déjà vu)
+     */
+    public void onCandle(MarketData candle) {
+        SwingPivotDetector detector = detector(candle.getSymbol(), candle.getTimeframe());
+        Instrument instrument = candle.instrument();
+        synchronized (detector) {
+            detector.onBar(candle.getTimestamp().toEpochSecond(ZoneOffset.UTC),
+                    instrument.toTicks(candle.getHighPrice()), instrument.toTicks(candle.getLowPrice()));
+        }
+    }
+
+    /**
+     * Derniers pivots confirmés depuis {@code since}, plus récent en premier
+     */
+    public List<SwingPivot> getRecentPivots(String symbol, String timeframe, LocalDateTime since, int limit) {
+        SwingPivotDetector detector = detector(symbol, timeframe);
+        synchronized (detector) {
+            return detector.recent(since, limit);
+        }
+    }
+
+    private SwingPivotDetector detector(String symbol, String timeframe) {
+        return detectors.computeIfAbsent(key(symbol, timeframe), k -> seed(symbol, timeframe));
+    }
+
+    /**
+     * Passe unique sur la fenêtre mémoire, convertie en colonnes primitives chronologiques
+     */
+    private SwingPivotDetector seed(String symbol, String timeframe) {
+        Instrument instrument = Instrument.of(symbol);
+        SwingPivotDetector detector = new SwingPivotDetector(symbol, timeframe, mode, leftBars, rightBars,
+                instrument.pipsToTicks(instrument.getPivotRangePips()), maxPivots);
+
+        List<MarketData> window = candleStore.getLatestCandles(symbol, timeframe,
+                candleStore.bufferedCount(symbol, timeframe));
+        int size = window.size();
+        long[] times = new long[size];
+        long[] highs = new long[size];
+        long[] lows = new long[size];
+        for (int i = 0; i < size; i++) {
+            MarketData candle = window.get(size - 1 - i); // buffer : plus récente en premier
+            times[i] = candle.getTimestamp().toEpochSecond(ZoneOffset.UTC);
+            highs[i] = instrument.toTicks(candle.getHighPrice());
+            lows[i] = instrument.toTicks(candle.getLowPrice());
+        }
+        detector.scan(times, highs, lows);
+
+        log.debug("Détecteur pivots {} {} ({}) amorcé: {} barres, {} pivots",
+                symbol, timeframe, mode, size, detector.size());
+        return detector;
+    }
+
+    private static String key(String symbol, String timeframe) {
+        return symbol + ":" + timeframe;
+    }
+}
@@ -0,0 +1,203 @@
+package com.scalper.service.market;
+
+import com.scalper.model.entity.MarketData;
+import com.scalper.model.price.Instrument;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Construction des bougies M1 à partir des ticks bid/ask (flux broker ou feed local)
+ * Un {@link TickStream} par symbole, possédé par un seul thread producteur :
+ * aucun verrou ni allocation par tick, seules les bougies clôturées sont créées
+ * et transmises au pipeline d'ingestion commun (persistance, store, cache) ;
+ * la bougie en formation est diffusée au plus une fois par intervalle (SSE).
+ * OHLC sur le bid (convention cTrader), volume = nombre de ticks, spread moyen de la minute.
+ */
+@Component
+@Slf4j
+public class TickCandleBuilder {
+
+    private final Consumer<MarketData> closedCandleSink;
+    private final Consumer<MarketData> formingCandleSink;
+    private final long formingIntervalMs;
+    private final Map<String, TickStream> streams = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TickCandleBuilder(CandleIngestService candleIngestService,
+                             MarketStreamService marketStreamService,
+                             @Value("${scalper.market-data.stream.forming-interval-ms:250}") long formingIntervalMs) {
+        this(candleIngestService::ingest, marketStreamService::publishForming, formingIntervalMs);
+    }
+
+    public TickCandleBuilder(Consumer<MarketData> closedCandleSink) {
+        this(closedCandleSink, candle -> { }, Long.MAX_VALUE);
+    }
+
+    public TickCandleBuilder(Consumer<MarketData> closedCandleSink,
+                             Consumer<MarketData> formingCandleSink,
+                             long formingIntervalMs) {
+        this.closedCandleSink = closedCandleSink;
+        this.formingCandleSink = formingCandleSink;
+        this.formingIntervalMs = formingIntervalMs;
+    }
+
+    /**
+     * Ouvre (ou retrouve) le flux de ticks d'un symbole
+     * Le flux ne doit être alimenté que par un seul thread à la fois.
+     */
+    public TickStream openStream(String symbol, String dataSource) {
+        return streams.computeIfAbsent(symbol, s -> new TickStream(Instrument.of(s), s, dataSource,
+                closedCandleSink, formingCandleSink, formingIntervalMs));
+    }
+
+    public Collection<TickStream> getStreams() {
+        return Collections.unmodifiableCollection(streams.values());
+    }
+
+    // ========== Classes Internes ==========
+
+    /**
+     * État de la bougie M1 en formation d'un symbole (single-writer)
+     */
+    public static final class TickStream {
+        private final Instrument instrument;
+        private final String symbol;
+        private final String dataSource;
+        private final Consumer<MarketData> sink;
+        private final Consumer<MarketData> formingSink;
+        private final long formingIntervalMs;
+
+        private long minute = Long.MIN_VALUE; // minute epoch de la bougie ouverte
+        private long closedMinute = Long.MIN_VALUE; // filigrane : dernière minute clôturée
+        private long open;
+        private long high;
+        private long low;
+        private long close;
+        private long tickCount;
+        private long spreadSum;
+        private long lastFormingMillis;
+
+        // Compteurs lus par le monitoring (écriture single-writer, lecture volatile)
+        private volatile long totalTicks;
+        private volatile long closedCandles;
+        private volatile long lateTicks;
+
+        TickStream(Instrument instrument, String symbol, String dataSource,
+                   Consumer<MarketData> sink, Consumer<MarketData> formingSink, long formingIntervalMs) {
+            this.instrument = instrument;
+            this.symbol = symbol;
+            this.dataSource = dataSource;
+            this.sink = sink;
+            this.formingSink = formingSink;
+            this.formingIntervalMs = formingIntervalMs;
+        }
+
+        /**
+         * Intègre un tick (prix en ticks de l'instrument)
+         */
+        public void onTick(long epochMillis, long bidTicks, long askTicks) {
+            long tickMinute = Math.floorDiv(epochMillis, 60_000L);
+            if (tickMinute < minute || tickMinute <= closedMinute) {
+                lateTicks++;  // Tick d'une minute déjà clôturée (par un tick suivant ou un heartbeat)
+                return;
+            }
+            if (tickMinute > minute) {
+                closeCurrent();
+                minute = tickMinute;
+                open = bidTicks;
+                high = bidTicks;
+                low = bidTicks;
+                tickCount = 0;
+                spreadSum = 0;
+            } else {
+                if (bidTicks > high) high = bidTicks;
+                if (bidTicks < low) low = bidTicks;
+            }
+            close = bidTicks;
+            tickCount++;
+            spreadSum += askTicks - bidTicks;
+            totalTicks++;
+
+            // Photo de la bougie en formation pour la diffusion temps réel (au plus une par intervalle)
+            if (epochMillis - lastFormingMillis >= formingIntervalMs) {
+                lastFormingMillis = epochMillis;
+                formingSink.accept(toCandle());
+            }
+        }
+
+        /**
+         * Clôture la bougie ouverte si sa minute est écoulée (flux calme ou interrompu).
+         * L'horodatage doit être dans l'horloge des ticks : un tick de la minute clôturée
+         * arrivant ensuite est compté comme tardif, la M1 n'est jamais émise deux fois.
+         */
+        public void heartbeat(long epochMillis) {
+            if (tickCount > 0 && Math.floorDiv(epochMillis, 60_000L) > minute) {
+                closeCurrent();
+            }
+        }
+
+        private void closeCurrent() {
+            if (tickCount == 0) {
+                return;
+            }
+            MarketData candle = toCandle();
+            tickCount = 0;
+            closedMinute = minute;
+            closedCandles++;
+            try {
+                sink.accept(candle);
+            } catch (Exception e) {
+                log.error("❌ Erreur ingestion bougie tick {} {}: {}", symbol, candle.getTimestamp(), e.getMessage());
+            }
+        }
+
+        private MarketData toCandle() {
+            LocalDateTime timestamp = LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+            long averageSpread = Instrument.divideHalfUp(spreadSum, tickCount);
+
+            return MarketData.builder()
+                    .symbol(symbol)
+                    .timeframe("M1")
+                    .timestamp(timestamp)
+                    .openPrice(instrument.toPrice(open))
+                    .highPrice(instrument.toPrice(high))
+                    .lowPrice(instrument.toPrice(low))
+                    .closePrice(instrument.toPrice(close))
+                    .volume(tickCount)
+                    .sessionName(MarketSessions.sessionAt(timestamp))
+                    .sessionProgress(MarketSessions.progressAt(timestamp))
+                    .volatilityLevel(instrument.volatilityLevel(high - low))
+                    .dataSource(dataSource)
+                    .spreadPips(BigDecimal.valueOf(instrument.ticksToTenthPips(averageSpread), 1))
+                    .isMarketOpen(true)
+                    .build();
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+
+        public long getTotalTicks() {
+            return totalTicks;
+        }
+
+        public long getClosedCandles() {
+            return closedCandles;
+        }
+
+        public long getLateTicks() {
+            return lateTicks;
+        }
+    }
+}
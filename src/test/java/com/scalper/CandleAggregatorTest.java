@@ -0,0 +1,83 @@
+package com.scalper;
+
+import com.scalper.model.entity.MarketData;
+import com.scalper.service.market.CandleAggregator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests unitaires de l'agrégation incrémentale M1 -> M5/M30
+ */
+@DisplayName("Tests CandleAggregator")
+class CandleAggregatorTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 9, 22, 10, 0);
+
+    @Test
+    @DisplayName("Émet la M5 exactement sur la frontière avec OHLCV agrégé")
+    void testM5EmittedOnBoundary() {
+        CandleAggregator aggregator = new CandleAggregator(List.of("M5", "M30"));
+        List<MarketData> emitted = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            emitted.addAll(aggregator.onM1Candle(m1(T0.plusMinutes(i), 1.08500 + i * 0.0001)));
+            if (i < 4) {
+                assertThat(emitted).isEmpty();
+            }
+        }
+
+        assertThat(emitted).hasSize(1);
+        MarketData m5 = emitted.get(0);
+        assertThat(m5.getTimeframe()).isEqualTo("M5");
+        assertThat(m5.getTimestamp()).isEqualTo(T0);
+        assertThat(m5.getOpenPrice()).isEqualTo(new BigDecimal("1.08500"));
+        assertThat(m5.getClosePrice()).isEqualTo(new BigDecimal("1.08540"));
+        assertThat(m5.getHighPrice()).isEqualTo(new BigDecimal("1.08560"));
+        assertThat(m5.getLowPrice()).isEqualTo(new BigDecimal("1.08480"));
+        assertThat(m5.getVolume()).isEqualTo(500L);
+    }
+
+    @Test
+    @DisplayName("Clôture une barre incomplète à l'arrivée de la période suivante ou à expiration")
+    void testGapAndExpiry() {
+        CandleAggregator aggregator = new CandleAggregator(List.of("M5"));
+
+        aggregator.onM1Candle(m1(T0.plusMinutes(1), 1.08500));
+        List<MarketData> onGap = aggregator.onM1Candle(m1(T0.plusMinutes(7), 1.08600));
+        assertThat(onGap).hasSize(1);
+        assertThat(onGap.get(0).getTimestamp()).isEqualTo(T0);
+
+        assertThat(aggregator.closeExpiredBars(T0.plusMinutes(9))).isEmpty();
+        List<MarketData> expired = aggregator.closeExpiredBars(T0.plusMinutes(10));
+        assertThat(expired).hasSize(1);
+        assertThat(expired.get(0).getTimestamp()).isEqualTo(T0.plusMinutes(5));
+
+        // M1 tardive d'une période déjà émise : ignorée
+        assertThat(aggregator.onM1Candle(m1(T0.plusMinutes(9), 1.08600))).isEmpty();
+        assertThat(aggregator.closeExpiredBars(T0.plusMinutes(30))).isEmpty();
+    }
+
+    private MarketData m1(LocalDateTime timestamp, double close) {
+        BigDecimal closePrice = BigDecimal.valueOf(close).setScale(5, java.math.RoundingMode.HALF_UP);
+        return MarketData.builder()
+                .symbol("EURUSD")
+                .timeframe("M1")
+                .timestamp(timestamp)
+                .openPrice(closePrice)
+                .highPrice(closePrice.add(new BigDecimal("0.00020")))
+                .lowPrice(closePrice.subtract(new BigDecimal("0.00020")))
+                .closePrice(closePrice)
+                .volume(100L)
+                .sessionName("LONDON")
+                .dataSource("SIMULATOR")
+                .spreadPips(new BigDecimal("0.5"))
+                .build();
+    }
+}
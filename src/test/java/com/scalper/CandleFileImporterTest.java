@@ -0,0 +1,128 @@
+package com.scalper;
+
+import com.scalper.model.entity.MarketData;
+import com.scalper.model.price.Instrument;
+import com.scalper.repository.MarketDataCopyRepository;
+import com.scalper.service.market.CandleFileFormat;
+import com.scalper.service.market.CandleFileImporter;
+import com.scalper.service.market.CandleImportReport;
+import com.scalper.service.market.MarketDataPartitionService;
+import com.scalper.service.market.MarketQueryCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests de l'import CSV : parsing parallèle par blocs, flux COPY ordonné, formats HistData/cTrader
+ * Le COPY lui-même (pgjdbc) est remplacé par un mock qui capture le flux écrit.
+ */
+@DisplayName("Tests CandleFileImporter - import CSV par COPY")
+class CandleFileImporterTest {
+
+    private static final DateTimeFormatter HISTDATA_TIME = DateTimeFormatter.ofPattern("yyyyMMdd HHmmss");
+
+    @TempDir
+    Path importDirectory;
+
+    private final ByteArrayOutputStream copied = new ByteArrayOutputStream();
+    private MarketDataCopyRepository copyRepository;
+    private MarketDataPartitionService partitionService;
+    private CandleFileImporter importer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        copyRepository = mock(MarketDataCopyRepository.class);
+        when(copyRepository.copyAndMerge(anyString(), any())).thenAnswer(invocation -> {
+            MarketDataCopyRepository.CopyFeed feed = invocation.getArgument(1);
+            feed.writeTo(rows -> copied.write(rows, 0, rows.length));
+            return copied.toString(StandardCharsets.UTF_8).lines().count();
+        });
+        partitionService = mock(MarketDataPartitionService.class);
+
+        // Blocs de 1000 lignes sur 3 threads : plusieurs blocs en vol, écrits dans l'ordre du fichier
+        importer = new CandleFileImporter(copyRepository, partitionService, mock(MarketQueryCache.class),
+                importDirectory.toString(), 3, 1000);
+    }
+
+    @Test
+    @DisplayName("Fichier HistData : heure EST convertie en UTC, lignes invalides rejetées")
+    void testImportHistData() throws Exception {
+        Path file = importDirectory.resolve("DAT_ASCII_EURUSD_M1_202501.csv");
+        LocalDateTime start = LocalDateTime.of(2025, 1, 15, 3, 0); // EST = 08:00 UTC
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < 4500; i++) {
+                writer.write(start.plusMinutes(i).format(HISTDATA_TIME) + ";1.084700;1.085100;1.084500;1.084900;0\n");
+                if (i == 2000) {
+                    writer.write("20250116 104000;1.084700;1.084000;1.084500;1.084900;0\n"); // high < low
+                    writer.write("garbage;;\n");
+                }
+            }
+        }
+
+        CandleImportReport report = importer.importFile(file, "EURUSD", "M1", CandleFileFormat.HISTDATA);
+
+        assertThat(report.rowsParsed()).isEqualTo(4500);
+        assertThat(report.rowsRejected()).isEqualTo(1); // la ligne "garbage" est un en-tête ignoré
+        assertThat(report.rowsMerged()).isEqualTo(4500);
+        assertThat(report.rowsPerSecond()).isPositive();
+
+        List<String> rows = copied.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(rows).hasSize(4500);
+        assertThat(rows.get(0)).isEqualTo("EURUSD,M1,2025-01-15T08:00,1.08470,1.08510,1.08450,1.08490,0,LONDON,0.25,NORMAL");
+        assertThat(rows.get(4499)).startsWith("EURUSD,M1,2025-01-18T10:59,");
+
+        verify(copyRepository).copyAndMerge(eq("HISTDATA"), any());
+        verify(partitionService).ensurePartitions(LocalDate.of(2025, 1, 15), LocalDate.of(2025, 1, 18));
+        verify(partitionService).retainDays(LocalDate.of(2025, 1, 15), LocalDate.of(2025, 1, 18), "IMPORT_HISTDATA");
+    }
+
+    @Test
+    @DisplayName("Ligne d'export cTrader : UTC, séparateurs et secondes optionnels")
+    void testParseCtrader() {
+        Instrument instrument = Instrument.of("XAUUSD");
+
+        MarketData candle = CandleFileFormat.CTRADER.parse("2025-01-15 14:30:00,1951.2,1953.75,1950.1,1952.4,320",
+                "XAUUSD", "M5", instrument);
+        assertThat(candle.getTimestamp()).isEqualTo(LocalDateTime.of(2025, 1, 15, 14, 30));
+        assertThat(candle.getOpenPrice()).isEqualByComparingTo("1951.20000");
+        assertThat(candle.getHighPrice().scale()).isEqualTo(5);
+        assertThat(candle.getVolume()).isEqualTo(320L);
+        assertThat(candle.getDataSource()).isEqualTo("CTRADER");
+
+        MarketData noSeconds = CandleFileFormat.CTRADER.parse("2025.01.15 14:35;1952.4;1952.9;1952.0;1952.1",
+                "XAUUSD", "M5", instrument);
+        assertThat(noSeconds.getTimestamp()).isEqualTo(LocalDateTime.of(2025, 1, 15, 14, 35));
+        assertThat(noSeconds.getVolume()).isZero();
+
+        assertThat(CandleFileFormat.CTRADER.parse("Date,Open,High,Low,Close,Volume", "XAUUSD", "M5", instrument))
+                .isNull();
+        assertThatThrownBy(() -> CandleFileFormat.CTRADER.parse("2025-01-15 14:40:00,1952.1", "XAUUSD", "M5", instrument))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Fichier résolu uniquement dans le répertoire d'import")
+    void testResolve() throws Exception {
+        Files.writeString(importDirectory.resolve("eurusd.csv"), "");
+
+        assertThat(importer.resolve("eurusd.csv")).isEqualTo(importDirectory.resolve("eurusd.csv").toAbsolutePath());
+        assertThatThrownBy(() -> importer.resolve("../secret.csv")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> importer.resolve("absent.csv")).isInstanceOf(NoSuchFileException.class);
+    }
+}
@@ -0,0 +1,128 @@
+package com.scalper;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.scalper.model.entity.MarketData;
+import com.scalper.repository.MarketDataReadRepository;
+import com.scalper.service.market.CandleHistoryExporter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires de l'export historique NDJSON sur curseur JDBC
+ */
+@DisplayName("Tests CandleHistoryExporter - export NDJSON en flux")
+class CandleHistoryExporterTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2025, 1, 15, 0, 0);
+    private static final LocalDateTime TO = FROM.plusDays(1);
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private MarketDataReadRepository repository;
+    private CandleHistoryExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(MarketDataReadRepository.class);
+        exporter = new CandleHistoryExporter(repository, objectMapper, 500);
+    }
+
+    @Test
+    @DisplayName("Une seule requête sur curseur, chaque ligne écrite dès sa lecture")
+    void testStreamsRows() throws Exception {
+        rows(3);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = exporter.export("EURUSD", "M1", FROM, TO, null, out);
+
+        assertThat(written).isEqualTo(3);
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(3);
+        MarketData last = objectMapper.readValue(lines.get(2), MarketData.class);
+        assertThat(last.getId()).isEqualTo(3L);
+        assertThat(last.getTimestamp()).isEqualTo(FROM.plusMinutes(2));
+        verify(repository).streamCandlesAfter(eq("EURUSD"), eq("M1"), eq(FROM), eq(Long.MIN_VALUE), eq(TO),
+                eq(500), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    @DisplayName("Reprise après un id : le curseur fourni est passé à la requête")
+    void testResumeFromCursor() throws Exception {
+        long written = exporter.export("EURUSD", "M1", FROM, TO, 42L, new ByteArrayOutputStream());
+
+        assertThat(written).isZero();
+        verify(repository).streamCandlesAfter(eq("EURUSD"), eq("M1"), eq(FROM), eq(42L), eq(TO),
+                eq(500), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    @DisplayName("Client déconnecté : l'IOException d'écriture interrompt la lecture")
+    void testWriteFailureStopsExport() throws Exception {
+        rows(1200); // au-delà d'un flush périodique
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThatThrownBy(() -> exporter.export("EURUSD", "M1", FROM, TO, null, broken))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Broken pipe");
+    }
+
+    /**
+     * Le repository simulé passe {@code count} lignes au handler, comme un curseur JDBC
+     */
+    private void rows(int count) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(6);
+            for (int i = 0; i < count; i++) {
+                handler.processRow(row(i + 1L, i));
+            }
+            return null;
+        }).when(repository).streamCandlesAfter(anyString(), anyString(), any(), anyLong(), any(), anyInt(), any());
+    }
+
+    private static ResultSet row(long id, int minute) throws Exception {
+        BigDecimal price = new BigDecimal("1.08500");
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(id);
+        when(rs.getString("symbol")).thenReturn("EURUSD");
+        when(rs.getString("timeframe")).thenReturn("M1");
+        when(rs.getTimestamp("timestamp")).thenReturn(Timestamp.valueOf(FROM.plusMinutes(minute)));
+        when(rs.getBigDecimal(anyString())).thenReturn(price);
+        return rs;
+    }
+}
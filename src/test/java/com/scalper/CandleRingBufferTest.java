@@ -0,0 +1,79 @@
+package com.scalper;
+
+import com.scalper.model.entity.MarketData;
+import com.scalper.service.market.CandleRingBuffer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests unitaires du buffer circulaire de bougies
+ */
+@DisplayName("Tests CandleRingBuffer")
+class CandleRingBufferTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 9, 22, 8, 0);
+
+    @Test
+    @DisplayName("Retourne les N dernières bougies, plus récente en premier")
+    void testLatestOrder() {
+        CandleRingBuffer buffer = new CandleRingBuffer(10);
+        for (int i = 0; i < 5; i++) {
+            buffer.append(candle(T0.plusMinutes(i)));
+        }
+
+        List<MarketData> latest = buffer.latest(3);
+
+        assertThat(latest).hasSize(3);
+        assertThat(latest.get(0).getTimestamp()).isEqualTo(T0.plusMinutes(4));
+        assertThat(latest.get(2).getTimestamp()).isEqualTo(T0.plusMinutes(2));
+        assertThat(buffer.latest(100)).hasSize(5);
+    }
+
+    @Test
+    @DisplayName("Écrase les plus anciennes bougies une fois plein")
+    void testWrapAround() {
+        CandleRingBuffer buffer = new CandleRingBuffer(3);
+        for (int i = 0; i < 7; i++) {
+            buffer.append(candle(T0.plusMinutes(i)));
+        }
+
+        assertThat(buffer.size()).isEqualTo(3);
+        assertThat(buffer.oldest().getTimestamp()).isEqualTo(T0.plusMinutes(4));
+        assertThat(buffer.last().getTimestamp()).isEqualTo(T0.plusMinutes(6));
+    }
+
+    @Test
+    @DisplayName("Remplace la dernière bougie au même timestamp, ignore les plus anciennes")
+    void testReplaceAndOutOfOrder() {
+        CandleRingBuffer buffer = new CandleRingBuffer(5);
+        buffer.append(candle(T0));
+        buffer.append(candle(T0.plusMinutes(1)));
+
+        MarketData update = candle(T0.plusMinutes(1));
+        update.setClosePrice(new BigDecimal("1.08600"));
+
+        assertThat(buffer.append(update)).isTrue();
+        assertThat(buffer.append(candle(T0.minusMinutes(1)))).isFalse();
+        assertThat(buffer.size()).isEqualTo(2);
+        assertThat(buffer.last().getClosePrice()).isEqualTo(new BigDecimal("1.08600"));
+    }
+
+    private MarketData candle(LocalDateTime timestamp) {
+        BigDecimal price = new BigDecimal("1.08500");
+        return MarketData.builder()
+                .symbol("EURUSD")
+                .timeframe("M1")
+                .timestamp(timestamp)
+                .openPrice(price)
+                .highPrice(price)
+                .lowPrice(price)
+                .closePrice(price)
+                .build();
+    }
+}
@@ -0,0 +1,112 @@
+package com.scalper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.scalper.model.entity.MarketData;
+import com.scalper.service.market.CandleSeriesWriter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests unitaires du format colonnes des bougies (JSON et binaire)
+ */
+@DisplayName("Tests CandleSeriesWriter - format colonnes t/o/h/l/c/v")
+class CandleSeriesWriterTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 15, 8, 0);
+
+    private final CandleSeriesWriter writer = new CandleSeriesWriter();
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    @DisplayName("JSON colonnes : ordre chronologique et prix en ticks")
+    void testJsonColumns() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeJson("EURUSD", "M1", newestFirst(3), out);
+
+        JsonNode series = objectMapper.readTree(out.toByteArray());
+        assertThat(series.get("scale").asInt()).isEqualTo(5);
+        assertThat(series.get("count").asInt()).isEqualTo(3);
+        assertThat(series.get("t").get(0).asLong()).isEqualTo(START.toEpochSecond(ZoneOffset.UTC));
+        assertThat(series.get("o").get(0).asLong()).isEqualTo(108_500L);
+        assertThat(series.get("c").get(2).asLong()).isEqualTo(108_512L);
+        assertThat(series.get("v").get(1).asLong()).isEqualTo(101L);
+    }
+
+    @Test
+    @DisplayName("Binaire : en-tête de 8 octets puis colonnes int64 little-endian alignées")
+    void testBinaryLayout() throws Exception {
+        int count = 2000; // plusieurs remplissages du tampon interne
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeBinary("EURUSD", newestFirst(count), out);
+
+        ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        int header = CandleSeriesWriter.BINARY_HEADER_BYTES;
+        assertThat(header % Long.BYTES).isZero(); // new BigInt64Array(buf, offset) exige un offset multiple de 8
+        assertThat(buffer.remaining()).isEqualTo(header + 6 * 8 * count);
+        assertThat(buffer.get()).isEqualTo(CandleSeriesWriter.BINARY_VERSION);
+        assertThat(buffer.get()).isEqualTo((byte) 5);
+        assertThat(buffer.getShort()).isZero();
+        assertThat(buffer.getInt()).isEqualTo(count);
+        assertThat(buffer.position()).isEqualTo(header);
+        assertThat(buffer.getLong(header)).isEqualTo(START.toEpochSecond(ZoneOffset.UTC));
+        assertThat(buffer.getLong(header + 8 * (count - 1)))
+                .isEqualTo(START.plusMinutes(count - 1).toEpochSecond(ZoneOffset.UTC));
+        assertThat(buffer.getLong(header + 8 * count)).isEqualTo(108_500L); // première open
+    }
+
+    @Test
+    @DisplayName("Plusieurs fois plus compact que la liste d'entités JSON")
+    void testPayloadSize() throws Exception {
+        List<MarketData> candles = newestFirst(500);
+        for (MarketData candle : candles) {
+            candle.setSessionName("LONDON");
+            candle.setVolatilityLevel("MEDIUM");
+            candle.setSpreadPips(new BigDecimal("0.8"));
+        }
+
+        ByteArrayOutputStream columns = new ByteArrayOutputStream();
+        writer.writeJson("EURUSD", "M1", candles, columns);
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        writer.writeBinary("EURUSD", candles, binary);
+        int entities = objectMapper.writeValueAsBytes(candles).length;
+
+        assertThat(columns.size() * 4).isLessThan(entities);
+        assertThat(binary.size() * 4).isLessThan(entities);
+    }
+
+    /**
+     * Bougies dans l'ordre du CandleStore (plus récente en premier)
+     */
+    private static List<MarketData> newestFirst(int count) {
+        List<MarketData> candles = new ArrayList<>(count);
+        for (int i = count - 1; i >= 0; i--) {
+            candles.add(MarketData.builder()
+                    .symbol("EURUSD")
+                    .timeframe("M1")
+                    .timestamp(START.plusMinutes(i))
+                    .openPrice(new BigDecimal("1.08500").add(BigDecimal.valueOf(i, 5)))
+                    .highPrice(new BigDecimal("1.08520").add(BigDecimal.valueOf(i, 5)))
+                    .lowPrice(new BigDecimal("1.08490").add(BigDecimal.valueOf(i, 5)))
+                    .closePrice(new BigDecimal("1.08510").add(BigDecimal.valueOf(i, 5)))
+                    .volume(100L + i)
+                    .build());
+        }
+        return candles;
+    }
+}
@@ -0,0 +1,95 @@
+package com.scalper;
+
+import com.scalper.model.entity.MarketData;
+import com.scalper.repository.MarketDataBulkRepository;
+import com.scalper.service.market.CandleWriteBehindQueue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires de la persistance write-behind des bougies
+ */
+@DisplayName("Tests CandleWriteBehindQueue - écriture par lots")
+class CandleWriteBehindQueueTest {
+
+    private MarketDataBulkRepository repository;
+    private SimpleMeterRegistry meterRegistry;
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(MarketDataBulkRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        when(repository.upsert(anyList())).thenAnswer(invocation -> {
+            List<MarketData> batch = invocation.getArgument(0);
+            batchSizes.add(batch.size());
+            return batch.size();
+        });
+    }
+
+    @Test
+    @DisplayName("File pleine : rejet immédiat sans bloquer l'ingestion")
+    void testRejectsWhenFull() {
+        CandleWriteBehindQueue queue = new CandleWriteBehindQueue(repository, meterRegistry, 2, 50, 500);
+
+        assertThat(queue.enqueue(candle(0))).isTrue();
+        assertThat(queue.enqueue(candle(1))).isTrue();
+        assertThat(queue.enqueue(candle(2))).isFalse();
+        assertThat(queue.getQueueDepth()).isEqualTo(2);
+        assertThat(meterRegistry.counter("scalper.candles.write.rejected").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Arrêt : vidage de la file par lots de taille bornée")
+    void testDrainOnStopInBatches() {
+        CandleWriteBehindQueue queue = new CandleWriteBehindQueue(repository, meterRegistry, 1000, 50, 500);
+        for (int i = 0; i < 120; i++) {
+            queue.enqueue(candle(i));
+        }
+
+        queue.stop();
+
+        assertThat(batchSizes).containsExactly(50, 50, 20);
+        assertThat(queue.getQueueDepth()).isZero();
+        assertThat(meterRegistry.counter("scalper.candles.write.persisted").count()).isEqualTo(120.0);
+        verify(repository, times(3)).upsert(anyList());
+    }
+
+    @Test
+    @DisplayName("Échec d'un lot : reprise unitaire des bougies")
+    void testFallbackToIndividualSaves() {
+        reset(repository);
+        when(repository.upsert(argThat(batch -> batch != null && batch.size() > 1)))
+                .thenThrow(new RuntimeException("numeric field overflow"));
+        CandleWriteBehindQueue queue = new CandleWriteBehindQueue(repository, meterRegistry, 100, 50, 500);
+        queue.enqueue(candle(0));
+        queue.enqueue(candle(1));
+
+        queue.stop();
+
+        verify(repository, times(2)).upsert(argThat(batch -> batch != null && batch.size() == 1));
+    }
+
+    private static MarketData candle(int minute) {
+        return MarketData.builder()
+                .symbol("EURUSD")
+                .timeframe("M1")
+                .timestamp(LocalDateTime.of(2025, 1, 15, 8, 0).plusMinutes(minute))
+                .openPrice(new BigDecimal("1.08500"))
+                .highPrice(new BigDecimal("1.08520"))
+                .lowPrice(new BigDecimal("1.08480"))
+                .closePrice(new BigDecimal("1.08510"))
+                .volume(100L)
+                .build();
+    }
+}
@@ -0,0 +1,188 @@
+package com.scalper;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.scalper.model.entity.MarketData;
+import com.scalper.repository.BackfillCheckpointRepository;
+import com.scalper.repository.MarketDataBulkRepository;
+import com.scalper.service.broker.BackfillReport;
+import com.scalper.service.broker.BrokerHistoryClient;
+import com.scalper.service.broker.HistoricalBackfillService;
+import com.scalper.service.market.MarketDataPartitionService;
+import com.scalper.service.market.MarketQueryCache;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests du backfill historique contre un serveur HTTP local (stub des trendbars cTrader)
+ */
+@DisplayName("Tests HistoricalBackfillService - chunks parallèles et reprise")
+class HistoricalBackfillServiceTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2025, 1, 15, 8, 0);
+    private static final LocalDateTime TO = FROM.plusHours(3);
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final Set<Long> failingChunks = ConcurrentHashMap.newKeySet();
+
+    private final List<MarketData> written = Collections.synchronizedList(new ArrayList<>());
+    private MarketDataBulkRepository bulkRepository;
+    private BackfillCheckpointRepository checkpointRepository;
+    private MarketDataPartitionService partitionService;
+    private HistoricalBackfillService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/historical", this::serveTrendbars);
+        server.setExecutor(Executors.newFixedThreadPool(8));
+        server.start();
+
+        BrokerHistoryClient client = new BrokerHistoryClient(HttpClient.newHttpClient(), new JsonFactory(),
+                "http://127.0.0.1:" + server.getAddress().getPort(), () -> "token-test", Duration.ofSeconds(5));
+
+        bulkRepository = mock(MarketDataBulkRepository.class);
+        when(bulkRepository.upsert(anyList())).thenAnswer(invocation -> {
+            List<MarketData> batch = invocation.getArgument(0);
+            written.addAll(batch);
+            return batch.size();
+        });
+        checkpointRepository = mock(BackfillCheckpointRepository.class);
+        partitionService = mock(MarketDataPartitionService.class);
+
+        // Chunks de 60 barres M1, 2 téléchargements simultanés, lots de 25, sans limite de débit
+        service = new HistoricalBackfillService(client, bulkRepository, checkpointRepository, partitionService,
+                mock(MarketQueryCache.class), 2, 60, 25, 0, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Plage découpée en chunks, parsés en flux et écrits par lots")
+    void testBackfill() {
+        BackfillReport report = service.backfill("EURUSD", "M1", FROM, TO);
+
+        assertThat(report.chunks()).isEqualTo(3);
+        assertThat(report.isComplete()).isTrue();
+        assertThat(report.candlesFetched()).isEqualTo(180L);
+        assertThat(report.candlesInserted()).isEqualTo(180L);
+        assertThat(requests.get()).isEqualTo(3);
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(2);
+
+        MarketData first = written.stream()
+                .filter(candle -> candle.getTimestamp().equals(FROM))
+                .findFirst().orElseThrow();
+        assertThat(first.getLowPrice()).isEqualByComparingTo("1.08450");
+        assertThat(first.getOpenPrice()).isEqualByComparingTo("1.08470");
+        assertThat(first.getHighPrice()).isEqualByComparingTo("1.08510");
+        assertThat(first.getClosePrice()).isEqualByComparingTo("1.08490");
+        assertThat(first.getVolume()).isEqualTo(100L);
+        assertThat(first.getDataSource()).isEqualTo("CTRADER");
+
+        verify(partitionService).ensurePartitions(LocalDate.of(2025, 1, 15), LocalDate.of(2025, 1, 15));
+        verify(partitionService).retainDays(LocalDate.of(2025, 1, 15), LocalDate.of(2025, 1, 15), "BACKFILL");
+        verify(checkpointRepository, times(3)).markCompleted(eq("EURUSD"), eq("M1"), any(), any(), eq(60));
+    }
+
+    @Test
+    @DisplayName("Chunks déjà terminés ignorés à la reprise")
+    void testResumeFromCheckpoints() {
+        when(checkpointRepository.findCompletedChunks("EURUSD", "M1", FROM, TO))
+                .thenReturn(Set.of(FROM, FROM.plusHours(1)));
+
+        BackfillReport report = service.backfill("EURUSD", "M1", FROM, TO);
+
+        assertThat(report.skippedChunks()).isEqualTo(2);
+        assertThat(requests.get()).isEqualTo(1);
+        verify(checkpointRepository).markCompleted("EURUSD", "M1", FROM.plusHours(2), TO, 60);
+    }
+
+    @Test
+    @DisplayName("Chunk en échec après retries : pas de point de reprise, rapport partiel")
+    void testFailedChunk() {
+        failingChunks.add(FROM.plusHours(1).toEpochSecond(ZoneOffset.UTC));
+
+        BackfillReport report = service.backfill("EURUSD", "M1", FROM, TO);
+
+        assertThat(report.isComplete()).isFalse();
+        assertThat(report.failedChunks()).isEqualTo(1);
+        assertThat(report.candlesFetched()).isEqualTo(120L);
+        assertThat(requests.get()).isEqualTo(4); // 2 tentatives pour le chunk en échec
+        verify(checkpointRepository, never()).markCompleted(any(), any(), eq(FROM.plusHours(1)), any(), anyInt());
+    }
+
+    /**
+     * Une barre M1 par minute de [from, to) : low fixe, open +2 pips, high +6, close +4
+     */
+    private void serveTrendbars(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            Map<String, String> query = new HashMap<>();
+            for (String pair : exchange.getRequestURI().getQuery().split("&")) {
+                String[] kv = pair.split("=");
+                query.put(kv[0], kv[1]);
+            }
+            long from = Long.parseLong(query.get("from"));
+            long to = Long.parseLong(query.get("to"));
+            Thread.sleep(20);
+
+            if (!"Bearer token-test".equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+                exchange.sendResponseHeaders(401, -1);
+                return;
+            }
+            if (failingChunks.contains(from)) {
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+
+            StringBuilder json = new StringBuilder("{\"payloadType\":2138,\"trendbar\":[");
+            for (long t = from; t < to; t += 60) {
+                if (t > from) {
+                    json.append(',');
+                }
+                json.append("{\"volume\":100,\"low\":108450,\"deltaOpen\":20,\"deltaHigh\":60,\"deltaClose\":40,")
+                        .append("\"utcTimestampInMinutes\":").append(t / 60).append('}');
+            }
+            json.append("]}");
+
+            byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.scalper;
+
+import com.scalper.model.entity.MarketData;
+import com.scalper.model.price.Instrument;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests unitaires de la représentation prix fixe (ticks long)
+ */
+@DisplayName("Tests Instrument - prix en ticks")
+class InstrumentTest {
+
+    @Test
+    @DisplayName("Conversion BigDecimal <-> ticks sans perte à scale 5")
+    void testRoundTrip() {
+        assertThat(Instrument.EURUSD.toTicks(new BigDecimal("1.08500"))).isEqualTo(108_500L);
+        assertThat(Instrument.XAUUSD.toTicks(new BigDecimal("1951.00050"))).isEqualTo(195_100_050L);
+        assertThat(Instrument.EURUSD.toPrice(108_500L)).isEqualTo(new BigDecimal("1.08500"));
+        assertThat(Instrument.XAUUSD.toPrice(195_100_050L)).isEqualTo(new BigDecimal("1951.00050"));
+    }
+
+    @Test
+    @DisplayName("Division HALF_UP identique à BigDecimal")
+    void testDivideHalfUp() {
+        assertThat(Instrument.divideHalfUp(5, 2)).isEqualTo(3);
+        assertThat(Instrument.divideHalfUp(-5, 2)).isEqualTo(-3);
+        assertThat(Instrument.divideHalfUp(4, 3)).isEqualTo(1);
+        assertThat(Instrument.EURUSD.ticksToTenthPips(15)).isEqualTo(15);   // 1.5 pip
+        assertThat(Instrument.XAUUSD.ticksToWholePips(1_500)).isEqualTo(2);  // 1.5 pip -> 2
+    }
+
+    @Test
+    @DisplayName("Range et breakout MarketData calculés en ticks")
+    void testMarketDataHelpers() {
+        MarketData candle = MarketData.builder()
+                .symbol("EURUSD")
+                .timeframe("M5")
+                .timestamp(LocalDateTime.now())
+                .openPrice(new BigDecimal("1.08500"))
+                .highPrice(new BigDecimal("1.08600"))
+                .lowPrice(new BigDecimal("1.08400"))
+                .closePrice(new BigDecimal("1.08550"))
+                .build();
+
+        assertThat(candle.getRangeInPips()).isEqualTo(new BigDecimal("20.0"));
+        assertThat(candle.isBreakoutCandle()).isTrue();
+        assertThat(candle.getTypicalPrice()).isEqualTo(new BigDecimal("1.08517"));
+    }
+
+    @Test
+    @DisplayName("Seuil de breakout en prix cohérent avec isBreakoutCandle (XAUUSD : 80 pips = 0.80)")
+    void testBreakoutThreshold() {
+        Instrument gold = Instrument.XAUUSD;
+        BigDecimal threshold = gold.toPrice(gold.pipsToTicks(gold.getBreakoutRangePips()));
+
+        assertThat(threshold).isEqualByComparingTo("0.80");
+        assertThat(Instrument.EURUSD.toPrice(Instrument.EURUSD.pipsToTicks(Instrument.EURUSD.getBreakoutRangePips())))
+                .isEqualByComparingTo("0.0008");
+        assertThat(goldCandle("1951.81000").isBreakoutCandle()).isTrue();   // range 0.81 > seuil
+        assertThat(goldCandle("1951.79000").isBreakoutCandle()).isFalse();  // range 0.79, breakout pour 0.08
+    }
+
+    private static MarketData goldCandle(String high) {
+        return MarketData.builder()
+                .symbol("XAUUSD")
+                .timeframe("M5")
+                .timestamp(LocalDateTime.now())
+                .openPrice(new BigDecimal("1951.20000"))
+                .highPrice(new BigDecimal(high))
+                .lowPrice(new BigDecimal("1951.00000"))
+                .closePrice(new BigDecimal("1951.50000"))
+                .build();
+    }
+}
@@ -0,0 +1,106 @@
+package com.scalper;
+
+import com.scalper.model.entity.MarketData;
+import com.scalper.service.market.LatestPricePublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires de la publication Redis pipelinée des derniers prix
+ */
+@DisplayName("Tests LatestPricePublisher - SET EX pipelinés et MGET")
+class LatestPricePublisherTest {
+
+    private RedisTemplate<String, Object> redisTemplate;
+    private ValueOperations<String, Object> valueOperations;
+    private LatestPricePublisher publisher;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        publisher = new LatestPricePublisher(redisTemplate, new SimpleMeterRegistry(), 600);
+    }
+
+    @Test
+    @DisplayName("Un tick : mises à jour coalescées en un seul pipeline")
+    @SuppressWarnings("unchecked")
+    void testFlushCoalescesIntoOnePipeline() {
+        MarketData first = candle("EURUSD", "1.08500");
+        MarketData latest = candle("EURUSD", "1.08510");
+        MarketData gold = candle("XAUUSD", "2650.40");
+        publisher.stage("EURUSD", first);
+        publisher.stage("EURUSD", latest);
+        publisher.stage("XAUUSD", gold);
+
+        assertThat(publisher.flush()).isEqualTo(2);
+
+        ArgumentCaptor<SessionCallback<Object>> callback = ArgumentCaptor.forClass(SessionCallback.class);
+        verify(redisTemplate, times(1)).executePipelined(callback.capture());
+
+        RedisOperations<String, Object> operations = mock(RedisOperations.class);
+        when(operations.opsForValue()).thenReturn(valueOperations);
+        callback.getValue().execute(operations);
+
+        verify(valueOperations).set("market:latest:EURUSD", latest, Duration.ofSeconds(600));
+        verify(valueOperations).set("market:latest:XAUUSD", gold, Duration.ofSeconds(600));
+        verify(valueOperations, times(2)).set(anyString(), any(), any(Duration.class));
+        verify(redisTemplate, never()).expire(anyString(), any(Duration.class));
+
+        // 3 mises à jour = 6 allers-retours SET + EXPIRE, remplacés par 1
+        assertThat(publisher.getStats()).containsEntry("roundTripsSaved", 5L);
+        assertThat(publisher.getPendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Rien en attente : aucun appel Redis")
+    void testEmptyFlush() {
+        assertThat(publisher.flush()).isZero();
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    @DisplayName("Lecture groupée : un MGET, clés absentes omises")
+    void testMultiGet() {
+        MarketData eurusd = candle("EURUSD", "1.08500");
+        when(valueOperations.multiGet(List.of("market:latest:EURUSD", "market:latest:XAUUSD")))
+                .thenReturn(Arrays.asList(eurusd, null));
+
+        assertThat(publisher.getLatest(List.of("EURUSD", "XAUUSD")))
+                .containsOnlyKeys("EURUSD")
+                .containsEntry("EURUSD", eurusd);
+        verify(valueOperations, times(1)).multiGet(anyCollection());
+    }
+
+    private static MarketData candle(String symbol, String close) {
+        BigDecimal price = new BigDecimal(close);
+        return MarketData.builder()
+                .symbol(symbol)
+                .timeframe("M1")
+                .timestamp(LocalDateTime.of(2025, 1, 15, 8, 0))
+                .openPrice(price)
+                .highPrice(price)
+                .lowPrice(price)
+                .closePrice(price)
+                .build();
+    }
+}
@@ -0,0 +1,162 @@
+package com.scalper;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.scalper.config.MarketBinaryRedisSerializer;
+import com.scalper.model.entity.IntradayLevel;
+import com.scalper.model.entity.MarketData;
+import com.scalper.service.market.SessionLevelSnapshot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests unitaires du codec binaire Redis (aller-retour et taille face au JSON)
+ */
+@DisplayName("Tests MarketBinaryRedisSerializer - codec binaire compact")
+class MarketBinaryRedisSerializerTest {
+
+    private final GenericJackson2JsonRedisSerializer json = jsonSerializer();
+    private final MarketBinaryRedisSerializer serializer = new MarketBinaryRedisSerializer(json);
+
+    @Test
+    @DisplayName("MarketData : aller-retour sans perte")
+    void testMarketDataRoundTrip() {
+        MarketData candle = candle();
+
+        MarketData decoded = (MarketData) serializer.deserialize(serializer.serialize(candle));
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(candle);
+    }
+
+    @Test
+    @DisplayName("MarketData : au moins 4x plus compact que le JSON")
+    void testMarketDataSmallerThanJson() {
+        MarketData candle = candle();
+
+        int binary = serializer.serialize(candle).length;
+        int jsonBytes = json.serialize(candle).length;
+
+        assertThat(binary * 4).isLessThan(jsonBytes);
+    }
+
+    @Test
+    @DisplayName("Lot de 100 bougies (entrée candles:100) : octets par bougie, binaire face au JSON")
+    void testCandleListBytesPerEntry() {
+        List<MarketData> candles = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            MarketData candle = candle();
+            candle.setId(1_234_567L + i);
+            candle.setTimestamp(candle.getTimestamp().plusMinutes(i));
+            candle.setCreatedAt(candle.getCreatedAt().plusMinutes(i));
+            candle.setClosePrice(candle.getClosePrice().add(BigDecimal.valueOf(i, 5)));
+            candles.add(candle);
+        }
+
+        int binaryPerCandle = serializer.serialize(candles).length / candles.size();
+        int jsonPerCandle = json.serialize(candles).length / candles.size();
+
+        // Ordre de grandeur attendu : ~60 octets contre plusieurs centaines en JSON typé
+        assertThat(binaryPerCandle).isLessThan(80);
+        assertThat(binaryPerCandle * 5).isLessThan(jsonPerCandle);
+    }
+
+    @Test
+    @DisplayName("Liste de bougies : aller-retour dans l'ordre")
+    void testCandleListRoundTrip() {
+        MarketData second = candle();
+        second.setTimestamp(second.getTimestamp().plusMinutes(1));
+        second.setSessionName(null);
+        second.setSpreadPips(null);
+
+        Object decoded = serializer.deserialize(serializer.serialize(List.of(candle(), second)));
+
+        assertThat(decoded).asList().hasSize(2);
+        assertThat((MarketData) ((List<?>) decoded).get(1)).usingRecursiveComparison().isEqualTo(second);
+    }
+
+    @Test
+    @DisplayName("IntradayLevel : snapshot des champs scalaires")
+    void testIntradayLevelRoundTrip() {
+        IntradayLevel level = IntradayLevel.builder()
+                .id(42L)
+                .symbol("XAUUSD")
+                .levelType(IntradayLevel.LevelType.ASIA_HIGH)
+                .price(new BigDecimal("2650.45"))
+                .establishmentTime(LocalDateTime.of(2025, 1, 15, 3, 12, 30))
+                .touchCount(3)
+                .maxRejectionPips(12)
+                .volumeAtEstablishment(1500L)
+                .status(IntradayLevel.LevelStatus.BROKEN)
+                .brokenAt(LocalDateTime.of(2025, 1, 15, 8, 5))
+                .brokenBySession("LONDON")
+                .brokenPrice(new BigDecimal("2651.10"))
+                .build();
+
+        IntradayLevel decoded = (IntradayLevel) serializer.deserialize(serializer.serialize(level));
+
+        assertThat(decoded).usingRecursiveComparison()
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .ignoringFields("createdAt", "updatedAt", "session", "sessionBreakouts")
+                .isEqualTo(level);
+    }
+
+    @Test
+    @DisplayName("SessionLevelSnapshot : aller-retour en ticks")
+    void testSessionLevelsRoundTrip() {
+        SessionLevelSnapshot snapshot = new SessionLevelSnapshot("EURUSD", "LONDON",
+                LocalDate.of(2025, 1, 15), 108_620L, 108_410L, 108_533L, 12_500L, 180L);
+
+        assertThat(serializer.deserialize(serializer.serialize(snapshot))).isEqualTo(snapshot);
+    }
+
+    @Test
+    @DisplayName("Autres types et anciennes valeurs JSON : délégation au sérialiseur JSON")
+    void testJsonFallback() {
+        Map<String, Object> stats = new HashMap<>(Map.of("l1Size", 3));
+
+        assertThat(serializer.deserialize(serializer.serialize(stats))).isEqualTo(stats);
+        assertThat(serializer.deserialize(json.serialize(candle()))).isInstanceOf(MarketData.class);
+    }
+
+    private static MarketData candle() {
+        return MarketData.builder()
+                .id(1_234_567L)
+                .symbol("EURUSD")
+                .timeframe("M1")
+                .timestamp(LocalDateTime.of(2025, 1, 15, 8, 0))
+                .openPrice(new BigDecimal("1.08500"))
+                .highPrice(new BigDecimal("1.08620"))
+                .lowPrice(new BigDecimal("1.08410"))
+                .closePrice(new BigDecimal("1.08575"))
+                .volume(240L)
+                .sessionName("LONDON")
+                .sessionProgress(new BigDecimal("0.13"))
+                .vwapSession(new BigDecimal("1.08533"))
+                .distanceToVwapPips(4)
+                .volatilityLevel("MEDIUM")
+                .dataSource("CTRADER_API")
+                .spreadPips(new BigDecimal("0.8"))
+                .isMarketOpen(true)
+                .createdAt(LocalDateTime.of(2025, 1, 15, 8, 1, 0, 125_000_000))
+                .build();
+    }
+
+    private static GenericJackson2JsonRedisSerializer jsonSerializer() {
+        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer();
+        serializer.configure(mapper -> mapper
+                .registerModule(new JavaTimeModule())
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false));
+        return serializer;
+    }
+}
@@ -0,0 +1,173 @@
+package com.scalper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.scalper.controller.MarketDataController;
+import com.scalper.model.entity.MarketData;
+import com.scalper.repository.MarketDataRepository;
+import com.scalper.service.MarketDataService;
+import com.scalper.service.market.CandleFileImporter;
+import com.scalper.service.market.CandleHistoryExporter;
+import com.scalper.service.market.CandleSeriesWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests MockMvc de la négociation du format des bougies : chaque Accept produit
+ * réellement les octets attendus (et non une sérialisation Jackson du lambda)
+ */
+@DisplayName("Tests MarketDataController - négociation du format des bougies")
+class MarketDataControllerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 15, 8, 0);
+    private static final String URL = "/api/market/candles/EURUSD/M1?limit=3";
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private MarketDataService marketDataService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        marketDataService = mock(MarketDataService.class);
+        MarketDataController controller = new MarketDataController(
+                marketDataService,
+                Optional.empty(),
+                Optional.empty(),
+                mock(MarketDataRepository.class),
+                mock(CandleHistoryExporter.class),
+                new CandleSeriesWriter(),
+                mock(CandleFileImporter.class),
+                objectMapper);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+        when(marketDataService.getLatestCandles("EURUSD", "M1", 3)).thenReturn(newestFirst(3));
+    }
+
+    @Test
+    @DisplayName("Sans Accept : liste JSON des bougies, inchangée pour les clients existants")
+    void testDefaultJson() throws Exception {
+        MockHttpServletResponse response = perform(null);
+
+        assertThat(response.getContentType()).startsWith(MediaType.APPLICATION_JSON_VALUE);
+        assertThat(response.getHeader(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT);
+        JsonNode candles = objectMapper.readTree(response.getContentAsByteArray());
+        assertThat(candles.isArray()).isTrue();
+        assertThat(candles).hasSize(3);
+        assertThat(candles.get(0).get("symbol").asText()).isEqualTo("EURUSD");
+        assertThat(candles.get(0).get("closePrice").decimalValue()).isEqualByComparingTo("1.08512");
+    }
+
+    @Test
+    @DisplayName("Accept candles+json : colonnes t/o/h/l/c/v en ordre chronologique")
+    void testColumnarJson() throws Exception {
+        MockHttpServletResponse response = perform(CandleSeriesWriter.JSON_MEDIA_TYPE);
+
+        assertThat(response.getContentType()).startsWith(CandleSeriesWriter.JSON_MEDIA_TYPE);
+        JsonNode series = objectMapper.readTree(response.getContentAsByteArray());
+        assertThat(series.get("count").asInt()).isEqualTo(3);
+        assertThat(series.get("t")).hasSize(3);
+        assertThat(series.get("t").get(0).asLong()).isEqualTo(START.toEpochSecond(ZoneOffset.UTC));
+        assertThat(series.get("o").get(0).asLong()).isEqualTo(108_500L);
+        assertThat(series.get("c").get(2).asLong()).isEqualTo(108_512L);
+    }
+
+    @Test
+    @DisplayName("Accept candles+binary : en-tête v2 puis colonnes int64 little-endian")
+    void testBinary() throws Exception {
+        MockHttpServletResponse response = perform(CandleSeriesWriter.BINARY_MEDIA_TYPE);
+
+        assertThat(response.getContentType()).startsWith(CandleSeriesWriter.BINARY_MEDIA_TYPE);
+        ByteBuffer buffer = ByteBuffer.wrap(response.getContentAsByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        int header = CandleSeriesWriter.BINARY_HEADER_BYTES;
+        assertThat(buffer.remaining()).isEqualTo(header + 6 * 8 * 3);
+        assertThat(buffer.get()).isEqualTo(CandleSeriesWriter.BINARY_VERSION);
+        assertThat(buffer.get()).isEqualTo((byte) 5);
+        assertThat(buffer.getShort()).isZero();
+        assertThat(buffer.getInt()).isEqualTo(3);
+        assertThat(buffer.getLong(header)).isEqualTo(START.toEpochSecond(ZoneOffset.UTC));
+        assertThat(buffer.getLong(header + 8 * 3)).isEqualTo(108_500L); // première open
+    }
+
+    @Test
+    @DisplayName("Accept avec q-values : le format préféré est servi")
+    void testQualityValues() throws Exception {
+        MockHttpServletResponse response = perform(
+                "application/json;q=0.5, " + CandleSeriesWriter.BINARY_MEDIA_TYPE + ";q=0.9");
+
+        assertThat(response.getContentType()).startsWith(CandleSeriesWriter.BINARY_MEDIA_TYPE);
+        assertThat(response.getContentAsByteArray()[0]).isEqualTo(CandleSeriesWriter.BINARY_VERSION);
+    }
+
+    @Test
+    @DisplayName("Aucune bougie : 204 sans corps")
+    void testNoContent() throws Exception {
+        when(marketDataService.getLatestCandles("EURUSD", "M1", 3)).thenReturn(List.of());
+
+        mockMvc.perform(get(URL).accept(CandleSeriesWriter.BINARY_MEDIA_TYPE))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+    }
+
+    /**
+     * StreamingResponseBody est écrit en asynchrone : démarrage puis dispatch du résultat
+     */
+    private MockHttpServletResponse perform(String accept) throws Exception {
+        var builder = get(URL);
+        if (accept != null) {
+            builder.header(HttpHeaders.ACCEPT, accept);
+        }
+        MvcResult started = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+    }
+
+    /**
+     * Bougies dans l'ordre du CandleStore (plus récente en premier)
+     */
+    private static List<MarketData> newestFirst(int count) {
+        List<MarketData> candles = new ArrayList<>(count);
+        for (int i = count - 1; i >= 0; i--) {
+            candles.add(MarketData.builder()
+                    .symbol("EURUSD")
+                    .timeframe("M1")
+                    .timestamp(START.plusMinutes(i))
+                    .openPrice(new BigDecimal("1.08500").add(BigDecimal.valueOf(i, 5)))
+                    .highPrice(new BigDecimal("1.08520").add(BigDecimal.valueOf(i, 5)))
+                    .lowPrice(new BigDecimal("1.08490").add(BigDecimal.valueOf(i, 5)))
+                    .closePrice(new BigDecimal("1.08510").add(BigDecimal.valueOf(i, 5)))
+                    .volume(100L + i)
+                    .build());
+        }
+        return candles;
+    }
+}
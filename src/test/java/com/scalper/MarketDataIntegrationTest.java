@@ -1,6 +1,7 @@
 package com.scalper;
 
 import com.scalper.model.entity.MarketData;
+import com.scalper.repository.CandleBar;
 import com.scalper.repository.MarketDataRepository;
 import com.scalper.service.MarketDataService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -153,10 +154,11 @@ public class MarketDataIntegrationTest {
         marketDataRepository.save(normalCandle);
 
         // Test détection
-        List<MarketData> breakouts = marketDataService.detectRecentBreakouts("EURUSD", "M5", 3);
+        List<CandleBar> breakouts = marketDataService.detectRecentBreakouts("EURUSD", "M5", 3);
 
         assertThat(breakouts).hasSize(1);
-        assertThat(breakouts.get(0).getId()).isEqualTo(breakoutCandle.getId());
+        assertThat(breakouts.get(0).highPrice()).isEqualByComparingTo(breakoutCandle.getHighPrice());
+        assertThat(breakouts.get(0).lowPrice()).isEqualByComparingTo(breakoutCandle.getLowPrice());
     }
 
     @Test
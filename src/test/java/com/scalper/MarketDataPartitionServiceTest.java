@@ -0,0 +1,119 @@
+package com.scalper;
+
+import com.scalper.repository.MarketDataRepository;
+import com.scalper.service.market.MarketDataPartitionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires de la maintenance des partitions journalières (création, rétention, repli DELETE)
+ */
+@DisplayName("Tests MarketDataPartitionService - partitions journalières et rétention")
+class MarketDataPartitionServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 1, 15);
+
+    private JdbcTemplate jdbcTemplate;
+    private MarketDataRepository marketDataRepository;
+    private MarketDataPartitionService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        marketDataRepository = mock(MarketDataRepository.class);
+        service = new MarketDataPartitionService(jdbcTemplate, marketDataRepository, 7);
+    }
+
+    @Test
+    @DisplayName("Nom de partition <-> jour, noms étrangers ignorés")
+    void testParsePartitionDay() {
+        assertThat(MarketDataPartitionService.partitionName(DAY)).isEqualTo("market_data_sessions_p20250115");
+        assertThat(MarketDataPartitionService.parsePartitionDay("market_data_sessions_p20250115")).isEqualTo(DAY);
+
+        assertThat(MarketDataPartitionService.parsePartitionDay("market_data_sessions_default")).isNull();
+        assertThat(MarketDataPartitionService.parsePartitionDay("market_data_sessions_p2025011")).isNull();
+        assertThat(MarketDataPartitionService.parsePartitionDay("market_data_sessions_p20251301")).isNull();
+        assertThat(MarketDataPartitionService.parsePartitionDay("trading_sessions_p20250115")).isNull();
+    }
+
+    @Test
+    @DisplayName("Création : une partition [jour, jour+1[ par jour de la plage")
+    void testEnsurePartitions() {
+        partitioned(true);
+
+        service.ensurePartitions(DAY, DAY.plusDays(2));
+
+        verify(jdbcTemplate, times(3)).execute(startsWith("CREATE TABLE IF NOT EXISTS market_data_sessions_p"));
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS market_data_sessions_p20250116 PARTITION OF "
+                + "market_data_sessions FOR VALUES FROM ('2025-01-16') TO ('2025-01-17')");
+    }
+
+    @Test
+    @DisplayName("Rétention : seules les partitions finies avant le cutoff sont supprimées, hors jours conservés")
+    void testRetentionCutoff() {
+        partitioned(true);
+        when(jdbcTemplate.queryForList(contains("pg_inherits"), eq(String.class), eq("market_data_sessions")))
+                .thenReturn(List.of(
+                        "market_data_sessions_p20250112",  // conservé (import)
+                        "market_data_sessions_p20250113",
+                        "market_data_sessions_p20250114",  // se termine exactement au cutoff
+                        "market_data_sessions_p20250115",  // contient le cutoff
+                        "market_data_sessions_default"));
+        when(jdbcTemplate.queryForList(contains("market_data_retained_days"), eq(LocalDate.class), any()))
+                .thenReturn(List.of(LocalDate.of(2025, 1, 12)));
+
+        int dropped = service.applyRetention(DAY.atStartOfDay());
+
+        assertThat(dropped).isEqualTo(2);
+        verify(jdbcTemplate).execute("ALTER TABLE market_data_sessions DETACH PARTITION market_data_sessions_p20250113");
+        verify(jdbcTemplate).execute("DROP TABLE market_data_sessions_p20250114");
+        verify(jdbcTemplate, never()).execute(endsWith("market_data_sessions_p20250112"));
+        verify(jdbcTemplate, never()).execute(endsWith("market_data_sessions_p20250115"));
+        verify(jdbcTemplate, never()).execute(endsWith("market_data_sessions_default"));
+        verify(marketDataRepository, never()).deleteOldData(any());
+    }
+
+    @Test
+    @DisplayName("Rétention : cutoff en cours de journée, la partition du jour reste")
+    void testRetentionCutoffMidDay() {
+        partitioned(true);
+        when(jdbcTemplate.queryForList(contains("pg_inherits"), eq(String.class), eq("market_data_sessions")))
+                .thenReturn(List.of("market_data_sessions_p20250114", "market_data_sessions_p20250115"));
+        when(jdbcTemplate.queryForList(contains("market_data_retained_days"), eq(LocalDate.class), any()))
+                .thenReturn(List.of());
+
+        assertThat(service.applyRetention(LocalDateTime.of(2025, 1, 15, 23, 59))).isEqualTo(1);
+        verify(jdbcTemplate).execute("DROP TABLE market_data_sessions_p20250114");
+        verify(jdbcTemplate, never()).execute("DROP TABLE market_data_sessions_p20250115");
+    }
+
+    @Test
+    @DisplayName("Table non partitionnée : repli sur DELETE, aucune partition touchée")
+    void testNonPartitionedFallback() {
+        partitioned(false);
+        LocalDateTime cutoff = DAY.atStartOfDay();
+
+        service.ensurePartitions(DAY, DAY.plusDays(7));
+        int dropped = service.applyRetention(cutoff);
+
+        assertThat(dropped).isEqualTo(-1);
+        verify(marketDataRepository).deleteOldData(cutoff);
+        verify(jdbcTemplate, never()).execute(contains("PARTITION"));
+        verify(jdbcTemplate, never()).execute(startsWith("DROP TABLE"));
+    }
+
+    private void partitioned(boolean partitioned) {
+        when(jdbcTemplate.queryForObject(contains("pg_partitioned_table"), eq(Boolean.class), eq("market_data_sessions")))
+                .thenReturn(partitioned);
+    }
+}
@@ -0,0 +1,149 @@
+package com.scalper;
+
+import com.scalper.model.entity.MarketData;
+import com.scalper.repository.CandleBar;
+import com.scalper.repository.MarketDataReadRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires des lectures JDBC (projection sans entité gérée)
+ */
+@DisplayName("Tests MarketDataReadRepository - lectures seules en JDBC")
+class MarketDataReadRepositoryTest {
+
+    private static final LocalDateTime SINCE = LocalDateTime.of(2025, 1, 15, 0, 0);
+
+    private JdbcTemplate jdbcTemplate;
+    private MarketDataReadRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        repository = new MarketDataReadRepository(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Breakouts : filtre de range poussé en SQL")
+    void testBreakoutQuery() {
+        repository.findBreakoutCandles("EURUSD", "M5", SINCE, new BigDecimal("0.0008"));
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).query(sql.capture(), any(RowMapper.class),
+                eq("EURUSD"), eq("M5"), eq(Timestamp.valueOf(SINCE)), eq(new BigDecimal("0.0008")));
+        assertThat(sql.getValue()).contains("(high_price - low_price) > ?").doesNotContain("session_name");
+    }
+
+    @Test
+    @DisplayName("Mapping : ligne -> MarketData non géré, colonnes nulles conservées")
+    @SuppressWarnings("unchecked")
+    void testRowMapping() throws Exception {
+        repository.findLatestCandles("EURUSD", "M1", 5);
+
+        ArgumentCaptor<RowMapper<MarketData>> mapper = ArgumentCaptor.forClass(RowMapper.class);
+        verify(jdbcTemplate).query(anyString(), mapper.capture(), eq("EURUSD"), eq("M1"), eq(5));
+
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(7L);
+        when(rs.getString("symbol")).thenReturn("EURUSD");
+        when(rs.getString("timeframe")).thenReturn("M1");
+        when(rs.getTimestamp("timestamp")).thenReturn(Timestamp.valueOf(SINCE));
+        when(rs.getBigDecimal("open_price")).thenReturn(new BigDecimal("1.08500"));
+        when(rs.getBigDecimal("high_price")).thenReturn(new BigDecimal("1.08520"));
+        when(rs.getBigDecimal("low_price")).thenReturn(new BigDecimal("1.08490"));
+        when(rs.getBigDecimal("close_price")).thenReturn(new BigDecimal("1.08510"));
+        when(rs.getLong("volume")).thenReturn(120L);
+        when(rs.getString("session_name")).thenReturn("LONDON");
+
+        MarketData candle = mapper.getValue().mapRow(rs, 0);
+
+        assertThat(candle.getId()).isEqualTo(7L);
+        assertThat(candle.getTimestamp()).isEqualTo(SINCE);
+        assertThat(candle.getHighPrice()).isEqualByComparingTo("1.08520");
+        assertThat(candle.getSessionName()).isEqualTo("LONDON");
+        assertThat(candle.getDistanceToVwapPips()).isNull();
+        assertThat(candle.getCreatedAt()).isNull();
+        assertThat(candle.getDataSource()).isNull();
+    }
+
+    @Test
+    @DisplayName("Historique graphique : projection OHLCV, seules les colonnes utilisées sont lues")
+    @SuppressWarnings("unchecked")
+    void testBarProjection() throws Exception {
+        repository.findLatestBarsBefore("EURUSD", "M1", SINCE, 5);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<RowMapper<CandleBar>> mapper = ArgumentCaptor.forClass(RowMapper.class);
+        verify(jdbcTemplate).query(sql.capture(), mapper.capture(),
+                eq("EURUSD"), eq("M1"), eq(Timestamp.valueOf(SINCE)), eq(5));
+        assertThat(sql.getValue())
+                .startsWith("SELECT timestamp, open_price, high_price, low_price, close_price, volume FROM")
+                .doesNotContain("session_name");
+
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getTimestamp("timestamp")).thenReturn(Timestamp.valueOf(SINCE));
+        when(rs.getBigDecimal("open_price")).thenReturn(new BigDecimal("1.08500"));
+        when(rs.getBigDecimal("high_price")).thenReturn(new BigDecimal("1.08520"));
+        when(rs.getBigDecimal("low_price")).thenReturn(new BigDecimal("1.08490"));
+        when(rs.getBigDecimal("close_price")).thenReturn(new BigDecimal("1.08510"));
+        when(rs.getLong("volume")).thenReturn(120L);
+
+        CandleBar bar = mapper.getValue().mapRow(rs, 0);
+
+        assertThat(bar.timestamp()).isEqualTo(SINCE);
+        assertThat(bar.highPrice()).isEqualByComparingTo("1.08520");
+        assertThat(bar.volume()).isEqualTo(120L);
+        verify(rs, never()).getString(anyString());
+
+        MarketData candle = bar.toCandle("EURUSD", "M1");
+        assertThat(candle.getSymbol()).isEqualTo("EURUSD");
+        assertThat(candle.getClosePrice()).isEqualByComparingTo("1.08510");
+        assertThat(candle.getSessionName()).isNull();
+    }
+
+    @Test
+    @DisplayName("Export : curseur serveur avec fetch size, reprise après (timestamp, id)")
+    void testStreamCandlesAfter() throws Exception {
+        RowCallbackHandler handler = rs -> { };
+        repository.streamCandlesAfter("EURUSD", "M1", SINCE, 42L, SINCE.plusDays(1), 500, handler);
+
+        ArgumentCaptor<PreparedStatementCreator> creator = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        verify(jdbcTemplate).query(creator.capture(), eq(handler));
+
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        when(connection.prepareStatement(sql.capture())).thenReturn(statement);
+        creator.getValue().createPreparedStatement(connection);
+
+        assertThat(sql.getValue()).contains("(timestamp > ? OR (timestamp = ? AND id > ?))")
+                .endsWith("ORDER BY timestamp ASC, id ASC");
+        verify(statement).setFetchSize(500);
+        verify(statement).setLong(6, 42L);
+    }
+
+    @Test
+    @DisplayName("Aucune ligne : liste vide")
+    void testEmpty() {
+        assertThat(repository.findSessionData("EURUSD", "M5", "LONDON", SINCE)).isEmpty();
+    }
+}
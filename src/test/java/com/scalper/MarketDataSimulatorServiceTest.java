@@ -0,0 +1,212 @@
+package com.scalper;
+
+import com.scalper.config.SimulationProperties;
+import com.scalper.model.entity.MarketData;
+import com.scalper.service.broker.MarketDataSimulatorService;
+import com.scalper.service.market.CandleIngestService;
+import com.scalper.service.market.CandleWriteBehindQueue;
+import com.scalper.service.market.MarketDataPartitionService;
+import com.scalper.service.market.SessionLevelTracker;
+import com.scalper.service.market.TickCandleBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests du simulateur : replay (horloge injectée, graine fixe, minutes simulées) et mode tick
+ */
+@DisplayName("Tests MarketDataSimulatorService - replay déterministe et mode tick")
+class MarketDataSimulatorServiceTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2025, 1, 15, 8, 0); // mercredi, Londres
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-02-01T12:00:00Z"), ZoneOffset.UTC);
+
+    @Test
+    @DisplayName("Même graine : série M1 identique, horodatée en temps simulé")
+    void testReplayIsDeterministic() {
+        List<MarketData> first = replay(42L, FROM, FROM.plusHours(2));
+        List<MarketData> second = replay(42L, FROM, FROM.plusHours(2));
+        List<MarketData> otherSeed = replay(7L, FROM, FROM.plusHours(2));
+
+        assertThat(first).hasSize(240); // 120 minutes x 2 symboles
+        assertThat(first.get(0).getTimestamp()).isEqualTo(FROM);
+        assertThat(first.get(239).getTimestamp()).isEqualTo(FROM.plusMinutes(119));
+        assertThat(first).allSatisfy(candle -> assertThat(candle.getSessionName()).isEqualTo("LONDON"));
+
+        assertThat(ohlcv(second)).isEqualTo(ohlcv(first));
+        assertThat(ohlcv(otherSeed)).isNotEqualTo(ohlcv(first));
+    }
+
+    @Test
+    @DisplayName("Minutes hors marché sautées, barres agrégées clôturées en temps simulé")
+    void testReplaySkipsClosedMarket() {
+        CandleIngestService ingestService = mock(CandleIngestService.class);
+        MarketDataPartitionService partitionService = mock(MarketDataPartitionService.class);
+        MarketDataSimulatorService simulator = simulator(ingestService, partitionService, 42L);
+
+        // 16h50-17h10 UTC : pause entre clôture NY et ouverture Asie à 17h
+        long generated = simulator.replay(FROM.withHour(16).withMinute(50), FROM.withHour(17).withMinute(10));
+
+        assertThat(generated).isEqualTo(20);
+        // Partitions garanties avant la première bougie, jours rejoués exclus de la rétention
+        InOrder order = inOrder(partitionService, ingestService);
+        order.verify(partitionService).ensurePartitions(FROM.toLocalDate(), FROM.toLocalDate());
+        order.verify(ingestService, atLeastOnce()).ingest(any());
+        verify(partitionService).retainDays(FROM.toLocalDate(), FROM.toLocalDate(), "REPLAY");
+        verify(ingestService, times(20)).ingest(any());
+        verify(ingestService, times(20)).closeExpiredBars(any());
+        verify(ingestService).closeExpiredBars(FROM.withHour(17).withMinute(10));
+        verify(ingestService, never()).closeExpiredBars(LocalDateTime.now(CLOCK));
+    }
+
+    @Test
+    @DisplayName("Mode tick : M1 construites par TickCandleBuilder, débit et latence mesurés")
+    void testTickFeed() throws Exception {
+        List<MarketData> candles = Collections.synchronizedList(new ArrayList<>());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // Horloge accélérée : chaque lecture avance de 10 ms, une minute simulée toutes les 6000 lectures
+        Clock fastClock = new SteppingClock(FROM.toInstant(ZoneOffset.UTC), 10);
+        SimulationProperties properties = new SimulationProperties(42L, 0,
+                new SimulationProperties.Replay(false, "", "", 5000),
+                new SimulationProperties.Ticks(true, 50_000, 5, 10));
+
+        MarketDataSimulatorService simulator = new MarketDataSimulatorService(mock(CandleIngestService.class),
+                mock(SessionLevelTracker.class), mock(CandleWriteBehindQueue.class), mock(MarketDataPartitionService.class),
+                new TickCandleBuilder(candles::add), meterRegistry, fastClock, properties);
+        simulator.initializeSimulator();
+        simulator.startTickFeed();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+            while (candles.size() < 6 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+        } finally {
+            simulator.stopTickFeed();
+        }
+
+        assertThat(candles).hasSizeGreaterThanOrEqualTo(6);
+        List<MarketData> eurusd = candles.stream().filter(c -> c.getSymbol().equals("EURUSD")).toList();
+        assertThat(eurusd).hasSizeGreaterThanOrEqualTo(2);
+        assertThat(eurusd.get(1).getTimestamp()).isEqualTo(eurusd.get(0).getTimestamp().plusMinutes(1));
+        assertThat(candles).allSatisfy(candle -> {
+            assertThat(candle.getDataSource()).isEqualTo("SIMULATOR");
+            assertThat(candle.getVolume()).isPositive();
+            assertThat(candle.getHighPrice()).isGreaterThanOrEqualTo(candle.getLowPrice());
+            assertThat(candle.getSpreadPips()).isPositive();
+        });
+
+        assertThat(meterRegistry.get("scalper.simulator.ticks").tag("symbol", "EURUSD").counter().count())
+                .isGreaterThan(3000);
+        assertThat(meterRegistry.get("scalper.simulator.tick.candle.latency").tag("symbol", "XAUUSD").timer().count())
+                .isPositive();
+    }
+
+    @Test
+    @DisplayName("Replay propriétaire exclusif : la minute planifiée est ignorée pendant le replay")
+    void testScheduledMinuteSkippedDuringReplay() {
+        CandleIngestService ingestService = mock(CandleIngestService.class);
+        MarketDataPartitionService partitionService = mock(MarketDataPartitionService.class);
+        MarketDataSimulatorService simulator = simulator(ingestService, partitionService, 42L);
+
+        // Minute planifiée déclenchée sur un autre thread dès la première étape du replay
+        doAnswer(invocation -> {
+            CompletableFuture.runAsync(simulator::generateM1Data).get(5, TimeUnit.SECONDS);
+            return null;
+        }).when(partitionService).ensurePartitions(any(), any());
+
+        simulator.replay(FROM, FROM.plusMinutes(10));
+        verify(ingestService, never()).closeExpiredBars(LocalDateTime.now(CLOCK));
+
+        // Replay terminé : la génération planifiée reprend
+        simulator.generateM1Data();
+        verify(ingestService).closeExpiredBars(LocalDateTime.now(CLOCK));
+    }
+
+    private List<MarketData> replay(long seed, LocalDateTime from, LocalDateTime to) {
+        CandleIngestService ingestService = mock(CandleIngestService.class);
+        simulator(ingestService, seed).replay(from, to);
+
+        ArgumentCaptor<MarketData> candles = ArgumentCaptor.forClass(MarketData.class);
+        verify(ingestService, atLeast(0)).ingest(candles.capture());
+        return candles.getAllValues();
+    }
+
+    private MarketDataSimulatorService simulator(CandleIngestService ingestService, long seed) {
+        return simulator(ingestService, mock(MarketDataPartitionService.class), seed);
+    }
+
+    private MarketDataSimulatorService simulator(CandleIngestService ingestService,
+                                                 MarketDataPartitionService partitionService, long seed) {
+        SessionLevelTracker sessionLevelTracker = mock(SessionLevelTracker.class);
+        when(sessionLevelTracker.currentVwapTicks(anyString(), anyString(), any(), anyLong()))
+                .thenAnswer(invocation -> invocation.getArgument(3));
+
+        SimulationProperties properties = new SimulationProperties(seed, 0,
+                new SimulationProperties.Replay(false, "", "", 5000),
+                new SimulationProperties.Ticks(false, 1000, 5, 10));
+
+        MarketDataSimulatorService simulator = new MarketDataSimulatorService(ingestService, sessionLevelTracker,
+                mock(CandleWriteBehindQueue.class), partitionService, mock(TickCandleBuilder.class),
+                new SimpleMeterRegistry(), CLOCK, properties);
+        simulator.initializeSimulator();
+        return simulator;
+    }
+
+    /**
+     * Série par symbole : les symboles d'une même minute sont générés en parallèle
+     */
+    private static List<String> ohlcv(List<MarketData> candles) {
+        return candles.stream()
+                .sorted(Comparator.comparing(MarketData::getSymbol)) // tri stable : ordre chronologique conservé
+                .map(c -> c.getSymbol() + " " + c.getTimestamp() + " " + c.getOpenPrice() + " " + c.getHighPrice()
+                        + " " + c.getLowPrice() + " " + c.getClosePrice() + " " + c.getVolume())
+                .toList();
+    }
+
+    /**
+     * Horloge qui avance d'un pas fixe à chaque lecture
+     */
+    private static final class SteppingClock extends Clock {
+        private final AtomicLong millis;
+        private final long stepMillis;
+
+        SteppingClock(Instant start, long stepMillis) {
+            this.millis = new AtomicLong(start.toEpochMilli());
+            this.stepMillis = stepMillis;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis.getAndAdd(stepMillis));
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.scalper;
+
+import com.scalper.service.market.MarketQueryCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires du cache deux niveaux et de l'invalidation par génération
+ */
+@DisplayName("Tests MarketQueryCache - L1 Caffeine + L2 Redis")
+class MarketQueryCacheTest {
+
+    private RedisTemplate<String, Object> redisTemplate;
+    private ValueOperations<String, Object> valueOperations;
+    private SimpleMeterRegistry meterRegistry;
+    private MarketQueryCache cache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    // Compteurs INCR partagés, comme le serait Redis entre instances
+    private final Map<String, Long> redisCounters = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.increment(anyString())).thenAnswer(invocation ->
+                redisCounters.merge(invocation.getArgument(0), 1L, Long::sum));
+        when(valueOperations.increment(anyString(), anyLong())).thenAnswer(invocation ->
+                redisCounters.merge(invocation.getArgument(0), invocation.getArgument(1), Long::sum));
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new MarketQueryCache(redisTemplate, meterRegistry, 100, 300, 1000);
+    }
+
+    @Test
+    @DisplayName("Deuxième lecture servie par L1 sans recharger")
+    void testL1Hit() {
+        assertThat(load()).containsExactly(1);
+        assertThat(load()).containsExactly(1);
+
+        assertThat(loads.get()).isEqualTo(1);
+        verify(valueOperations, times(1)).get(anyString());
+        verify(valueOperations).set(anyString(), any(), eq(Duration.ofSeconds(300)));
+    }
+
+    @Test
+    @DisplayName("Nouvelle bougie : la requête est rechargée, les autres timeframes restent en cache")
+    void testInvalidationByGeneration() {
+        load();
+        cache.get("EURUSD", "M5", "candles:500", () -> List.of(loads.incrementAndGet()));
+
+        cache.invalidate("EURUSD", "M1");
+
+        assertThat(load()).containsExactly(3);
+        assertThat(cache.get("EURUSD", "M5", "candles:500", () -> List.of(-1))).containsExactly(2);
+    }
+
+    @Test
+    @DisplayName("Génération partagée : même clé L2 sur deux instances, invalidation vue par l'autre")
+    void testGenerationSharedAcrossInstances() {
+        Map<String, Object> l2 = new ConcurrentHashMap<>();
+        doAnswer(invocation -> l2.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(valueOperations).set(anyString(), any(), any(Duration.class));
+        when(valueOperations.get(anyString())).thenAnswer(invocation -> l2.get(invocation.<String>getArgument(0)));
+        // Autre instance (ou redémarrage), génération relue à chaque lecture
+        MarketQueryCache other = new MarketQueryCache(redisTemplate, new SimpleMeterRegistry(), 100, 300, 0);
+
+        assertThat(load()).containsExactly(1);
+        assertThat(other.get("EURUSD", "M1", "candles:500", () -> List.of(-1))).containsExactly(1); // hit L2
+
+        cache.invalidate("EURUSD", "M1");
+
+        assertThat(redisCounters).containsEntry("market:q:gen:EURUSD:M1", 1L);
+        assertThat(other.get("EURUSD", "M1", "candles:500", () -> List.of(loads.incrementAndGet()))).containsExactly(2);
+        assertThat(load()).containsExactly(2); // écrite en L2 par l'autre instance sous la nouvelle génération
+    }
+
+    @Test
+    @DisplayName("Redis indisponible : repli sur le loader, invalidation locale")
+    void testRedisFailure() {
+        when(valueOperations.get(anyString())).thenThrow(new RuntimeException("connexion refusée"));
+        when(valueOperations.increment(anyString())).thenThrow(new RuntimeException("connexion refusée"));
+        when(valueOperations.increment(anyString(), anyLong())).thenThrow(new RuntimeException("connexion refusée"));
+
+        assertThat(load()).containsExactly(1);
+        assertThat(load()).containsExactly(1);
+        cache.invalidate("EURUSD", "M1");
+        assertThat(load()).containsExactly(2);
+        assertThat(cache.getStats()).containsEntry("l2Hits", 0L);
+    }
+
+    @Test
+    @DisplayName("Compteurs hit/miss tagués par symbole et timeframe")
+    void testTaggedCounters() {
+        load();
+        load();
+        cache.get("XAUUSD", "M5", "candles:500", () -> List.of(0));
+
+        assertThat(count("scalper.cache.l1.requests", "EURUSD", "M1", "hit")).isEqualTo(1.0);
+        assertThat(count("scalper.cache.l1.requests", "EURUSD", "M1", "miss")).isEqualTo(1.0);
+        assertThat(count("scalper.cache.l2.requests", "EURUSD", "M1", "miss")).isEqualTo(1.0);
+        assertThat(count("scalper.cache.l2.requests", "XAUUSD", "M5", "miss")).isEqualTo(1.0);
+        assertThat(cache.getStats()).containsEntry("l2Misses", 2L);
+    }
+
+    private double count(String name, String symbol, String timeframe, String result) {
+        return meterRegistry.get(name)
+                .tag("symbol", symbol)
+                .tag("timeframe", timeframe)
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+
+    private List<Integer> load() {
+        return cache.get("EURUSD", "M1", "candles:500", () -> List.of(loads.incrementAndGet()));
+    }
+}
@@ -0,0 +1,68 @@
+package com.scalper;
+
+import com.scalper.model.entity.MarketData;
+import com.scalper.service.market.MarketStreamService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.Disposable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests unitaires de la diffusion SSE en mémoire
+ */
+@DisplayName("Tests MarketStreamService - fan-out par symbole")
+class MarketStreamServiceTest {
+
+    private final MarketStreamService streamService = new MarketStreamService(16);
+
+    @Test
+    @DisplayName("Bougie clôturée diffusée aux abonnés du symbole uniquement")
+    void testFanOutBySymbol() {
+        List<ServerSentEvent<Object>> eurusd = new CopyOnWriteArrayList<>();
+        List<ServerSentEvent<Object>> xauusd = new CopyOnWriteArrayList<>();
+        Disposable first = streamService.subscribe("EURUSD").subscribe(eurusd::add);
+        Disposable second = streamService.subscribe("XAUUSD").subscribe(xauusd::add);
+
+        streamService.publishCandle(candle("1.08500", "1.08520"));
+
+        assertThat(eurusd).extracting(ServerSentEvent::event).containsExactly("candle");
+        assertThat(xauusd).isEmpty();
+        assertThat(streamService.getSubscriberCount("EURUSD")).isEqualTo(1);
+
+        first.dispose();
+        second.dispose();
+        assertThat(streamService.getSubscriberCount("EURUSD")).isZero();
+    }
+
+    @Test
+    @DisplayName("Bougie de breakout : événement breakout en plus")
+    void testBreakoutEvent() {
+        List<ServerSentEvent<Object>> received = new CopyOnWriteArrayList<>();
+        Disposable subscription = streamService.subscribe("EURUSD").subscribe(received::add);
+
+        streamService.publishCandle(candle("1.08500", "1.08700")); // 20 pips
+
+        assertThat(received).extracting(ServerSentEvent::event).containsExactly("candle", "breakout");
+        subscription.dispose();
+    }
+
+    private static MarketData candle(String low, String high) {
+        return MarketData.builder()
+                .symbol("EURUSD")
+                .timeframe("M1")
+                .timestamp(LocalDateTime.of(2025, 1, 15, 8, 0))
+                .openPrice(new BigDecimal(low))
+                .highPrice(new BigDecimal(high))
+                .lowPrice(new BigDecimal(low))
+                .closePrice(new BigDecimal(high))
+                .volume(100L)
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.scalper;
+
+import com.scalper.model.entity.MarketData;
+import com.scalper.service.market.CandleStore;
+import com.scalper.service.market.PriceGap;
+import com.scalper.service.market.PriceGapIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires de l'index des gaps de prix (détection à l'ingestion)
+ */
+@DisplayName("Tests PriceGapIndex - gaps week-end, trous et sauts de prix")
+class PriceGapIndexTest {
+
+    // Vendredi 17 janvier 2025
+    private static final LocalDateTime FRIDAY_CLOSE = LocalDateTime.of(2025, 1, 17, 21, 59);
+
+    private CandleStore candleStore;
+    private PriceGapIndex index;
+
+    @BeforeEach
+    void setUp() {
+        candleStore = mock(CandleStore.class);
+        index = new PriceGapIndex(mock(JdbcTemplate.class), candleStore, 14, 500);
+    }
+
+    @Test
+    @DisplayName("Réouverture du dimanche : gap WEEKEND indexé")
+    void testWeekendGap() {
+        when(candleStore.getLastCandle("EURUSD", "M1")).thenReturn(candle(FRIDAY_CLOSE, "1.08500", "1.08500"));
+        LocalDateTime sundayOpen = LocalDateTime.of(2025, 1, 19, 22, 0);
+
+        PriceGap gap = index.onCandle(candle(sundayOpen, "1.08620", "1.08630"));
+
+        assertThat(gap.type()).isEqualTo(PriceGap.Type.WEEKEND);
+        assertThat(gap.gapTicks()).isEqualTo(120L);
+        assertThat(gap.gapPips()).isEqualTo(12.0);
+        assertThat(index.getGaps("EURUSD", PriceGap.Type.WEEKEND, FRIDAY_CLOSE, 10)).containsExactly(gap);
+    }
+
+    @Test
+    @DisplayName("Barres consécutives : saut de prix baissier, filtrable par type")
+    void testPriceJump() {
+        LocalDateTime newsTime = LocalDateTime.of(2025, 1, 15, 13, 30);
+        when(candleStore.getLastCandle("EURUSD", "M1"))
+                .thenReturn(candle(newsTime.minusMinutes(1), "1.08500", "1.08500"));
+
+        PriceGap gap = index.onCandle(candle(newsTime, "1.08420", "1.08400"));
+
+        assertThat(gap.type()).isEqualTo(PriceGap.Type.PRICE_JUMP);
+        assertThat(gap.gapTicks()).isEqualTo(-80L);
+        assertThat(index.getGaps("EURUSD", PriceGap.Type.WEEKEND, newsTime.minusDays(1), 10)).isEmpty();
+        assertThat(index.getGaps("EURUSD", null, newsTime.minusDays(1), 10)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Écart sous le seuil ou bougie rejouée : rien n'est indexé")
+    void testNoGap() {
+        LocalDateTime time = LocalDateTime.of(2025, 1, 15, 10, 0);
+        when(candleStore.getLastCandle("EURUSD", "M1")).thenReturn(candle(time, "1.08500", "1.08500"));
+
+        assertThat(index.onCandle(candle(time.plusMinutes(1), "1.08530", "1.08540"))).isNull(); // 3 pips
+        assertThat(index.onCandle(candle(time, "1.09000", "1.09000"))).isNull();
+        assertThat(index.getGaps("EURUSD", null, time.minusDays(1), 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Trou en semaine : TIME_GAP")
+    void testClassifyTimeGap() {
+        LocalDateTime wednesday = LocalDateTime.of(2025, 1, 15, 10, 0);
+
+        assertThat(PriceGap.classify(wednesday, wednesday.plusMinutes(15))).isEqualTo(PriceGap.Type.TIME_GAP);
+        assertThat(PriceGap.classify(wednesday, wednesday.plusMinutes(1))).isEqualTo(PriceGap.Type.PRICE_JUMP);
+    }
+
+    private static MarketData candle(LocalDateTime timestamp, String open, String close) {
+        return MarketData.builder()
+                .symbol("EURUSD")
+                .timeframe("M1")
+                .timestamp(timestamp)
+                .openPrice(new BigDecimal(open))
+                .highPrice(new BigDecimal(open).max(new BigDecimal(close)))
+                .lowPrice(new BigDecimal(open).min(new BigDecimal(close)))
+                .closePrice(new BigDecimal(close))
+                .build();
+    }
+}
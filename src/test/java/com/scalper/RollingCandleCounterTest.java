@@ -0,0 +1,80 @@
+package com.scalper;
+
+import com.scalper.model.entity.MarketData;
+import com.scalper.service.market.RollingCandleCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires des compteurs glissants 24h alimentés à l'ingestion
+ */
+@DisplayName("Tests RollingCandleCounter - compteurs 24h et jauges")
+class RollingCandleCounterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RollingCandleCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        counter = new RollingCandleCounter(mock(JdbcTemplate.class), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Bougies récentes comptées par symbole et timeframe")
+    void testCountsPerSymbolAndTimeframe() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 30; i++) {
+            counter.record(candle("EURUSD", "M1", now.minusMinutes(i)));
+        }
+        counter.record(candle("EURUSD", "M5", now.minusMinutes(5)));
+        counter.record(candle("XAUUSD", "M1", now.minusHours(12)));
+
+        assertThat(counter.count("EURUSD", "M1")).isEqualTo(30L);
+        assertThat(counter.count("EURUSD", "M5")).isEqualTo(1L);
+        assertThat(counter.count("XAUUSD", "M1")).isEqualTo(1L);
+        assertThat(counter.count("XAUUSD", "M30")).isZero();
+    }
+
+    @Test
+    @DisplayName("Bougies de plus de 24h ignorées")
+    void testOutsideWindowIgnored() {
+        LocalDateTime now = LocalDateTime.now();
+        counter.record(candle("EURUSD", "M1", now.minusHours(25)));
+        counter.record(candle("EURUSD", "M1", now.minusDays(3)));
+        counter.record(candle("EURUSD", "M1", now.minusHours(23)));
+
+        assertThat(counter.count("EURUSD", "M1")).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Jauge Micrometer scalper.candles.24h taguée symbole/timeframe")
+    void testGauge() {
+        LocalDateTime now = LocalDateTime.now();
+        counter.record(candle("XAUUSD", "M5", now));
+        counter.record(candle("XAUUSD", "M5", now.minusMinutes(5)));
+
+        double gauge = meterRegistry.get("scalper.candles.24h")
+                .tag("symbol", "XAUUSD")
+                .tag("timeframe", "M5")
+                .gauge()
+                .value();
+        assertThat(gauge).isEqualTo(2.0);
+    }
+
+    private static MarketData candle(String symbol, String timeframe, LocalDateTime timestamp) {
+        return MarketData.builder()
+                .symbol(symbol)
+                .timeframe(timeframe)
+                .timestamp(timestamp)
+                .build();
+    }
+}
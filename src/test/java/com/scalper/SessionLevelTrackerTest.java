@@ -0,0 +1,119 @@
+package com.scalper;
+
+import com.scalper.model.entity.MarketData;
+import com.scalper.repository.MarketDataRepository;
+import com.scalper.service.market.SessionLevelSnapshot;
+import com.scalper.service.market.SessionLevelTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires des accumulateurs de session (High/Low/VWAP incrémentaux)
+ */
+@DisplayName("Tests SessionLevelTracker - niveaux de session incrémentaux")
+class SessionLevelTrackerTest {
+
+    private static final LocalDateTime LONDON_OPEN = LocalDateTime.of(2025, 1, 15, 8, 0);
+
+    private MarketDataRepository repository;
+    private SessionLevelTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(MarketDataRepository.class);
+        when(repository.findSessionAggregates(anyString(), anyString(), any(), any()))
+                .thenReturn(Collections.emptyList());
+        tracker = new SessionLevelTracker(repository);
+    }
+
+    @Test
+    @DisplayName("High/Low/VWAP cumulés sur les M1 de la session")
+    void testAccumulation() {
+        tracker.onCandle(m1(LONDON_OPEN, "1.08500", "1.08400", "1.08450", 100));
+        tracker.onCandle(m1(LONDON_OPEN.plusMinutes(1), "1.08600", "1.08500", "1.08550", 300));
+
+        SessionLevelSnapshot levels = tracker.getLevels("EURUSD", "LONDON", LONDON_OPEN.toLocalDate());
+
+        assertThat(levels.candleCount()).isEqualTo(2);
+        assertThat(levels.high()).isEqualTo(new BigDecimal("1.08600"));
+        assertThat(levels.low()).isEqualTo(new BigDecimal("1.08400"));
+        assertThat(levels.mid()).isEqualTo(new BigDecimal("1.08500"));
+        // (1.08450 × 100 + 1.08550 × 300) / 400
+        assertThat(levels.vwap()).isEqualTo(new BigDecimal("1.08525"));
+
+        // Reconstruction DB uniquement au premier flux
+        verify(repository, times(1)).findSessionAggregates(anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Remise à zéro à la session du jour suivant")
+    void testResetOnNextDay() {
+        tracker.onCandle(m1(LONDON_OPEN, "1.09000", "1.08000", "1.08500", 100));
+        tracker.onCandle(m1(LONDON_OPEN.plusDays(1), "1.08600", "1.08500", "1.08550", 50));
+
+        SessionLevelSnapshot levels = tracker.getLevels("EURUSD", "LONDON", LONDON_OPEN.toLocalDate().plusDays(1));
+
+        assertThat(levels.candleCount()).isEqualTo(1);
+        assertThat(levels.high()).isEqualTo(new BigDecimal("1.08600"));
+        assertThat(levels.low()).isEqualTo(new BigDecimal("1.08500"));
+    }
+
+    @Test
+    @DisplayName("Lecture d'une autre date : agrégat DB sans toucher l'accumulateur courant")
+    void testOtherDateIsReadOnly() {
+        tracker.onCandle(m1(LONDON_OPEN, "1.08500", "1.08400", "1.08450", 100));
+        LocalDate yesterday = LONDON_OPEN.toLocalDate().minusDays(1);
+        when(repository.findSessionAggregates("EURUSD", "LONDON", yesterday.atStartOfDay(),
+                LONDON_OPEN.toLocalDate().atStartOfDay()))
+                .thenReturn(List.<Object[]>of(new Object[]{new BigDecimal("1.09000"), new BigDecimal("1.08000"),
+                        new BigDecimal("6.51000"), 2L, 1L}));
+
+        SessionLevelSnapshot past = tracker.getLevels("EURUSD", "LONDON", yesterday);
+        tracker.onCandle(m1(LONDON_OPEN.plusMinutes(1), "1.08600", "1.08500", "1.08550", 300));
+        SessionLevelSnapshot today = tracker.getLevels("EURUSD", "LONDON", LONDON_OPEN.toLocalDate());
+        tracker.getLevels("EURUSD", "LONDON", LONDON_OPEN.toLocalDate());
+
+        assertThat(past.sessionDate()).isEqualTo(yesterday);
+        assertThat(past.high()).isEqualTo(new BigDecimal("1.09000"));
+        assertThat(today.candleCount()).isEqualTo(2);
+        assertThat(today.low()).isEqualTo(new BigDecimal("1.08400"));
+        // Amorçage au premier flux + lecture de la veille, aucune requête pour la session courante
+        verify(repository, times(2)).findSessionAggregates(anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Bougies non M1 ignorées")
+    void testIgnoresAggregatedTimeframes() {
+        MarketData m5 = m1(LONDON_OPEN, "1.10000", "1.00000", "1.05000", 1000);
+        m5.setTimeframe("M5");
+        tracker.onCandle(m5);
+
+        assertThat(tracker.currentVwapTicks("EURUSD", "LONDON", LONDON_OPEN.toLocalDate(), -1L)).isEqualTo(-1L);
+    }
+
+    private static MarketData m1(LocalDateTime timestamp, String high, String low, String close, long volume) {
+        return MarketData.builder()
+                .symbol("EURUSD")
+                .timeframe("M1")
+                .timestamp(timestamp)
+                .openPrice(new BigDecimal(close))
+                .highPrice(new BigDecimal(high))
+                .lowPrice(new BigDecimal(low))
+                .closePrice(new BigDecimal(close))
+                .volume(volume)
+                .sessionName("LONDON")
+                .build();
+    }
+}
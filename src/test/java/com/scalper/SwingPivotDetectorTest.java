@@ -0,0 +1,106 @@
+package com.scalper;
+
+import com.scalper.service.market.SwingPivot;
+import com.scalper.service.market.SwingPivotDetector;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests unitaires du détecteur incrémental de pivots de swing
+ */
+@DisplayName("Tests SwingPivotDetector - fractal et zig-zag")
+class SwingPivotDetectorTest {
+
+    private static final long T0 = LocalDateTime.of(2025, 1, 15, 8, 0).toEpochSecond(ZoneOffset.UTC);
+
+    // Sommet net à l'indice 3, creux net à l'indice 7
+    private static final long[] HIGHS = {108_510, 108_520, 108_530, 108_560, 108_540, 108_520, 108_500, 108_490, 108_505, 108_515};
+    private static final long[] LOWS = {108_490, 108_500, 108_510, 108_530, 108_515, 108_495, 108_480, 108_460, 108_470, 108_490};
+
+    @Test
+    @DisplayName("Fractal 2/2 : sommet et creux confirmés deux barres plus tard")
+    void testFractal() {
+        SwingPivotDetector detector = fractal();
+        detector.scan(times(HIGHS.length), HIGHS, LOWS);
+
+        List<SwingPivot> pivots = detector.recent(null, 10);
+        assertThat(pivots).extracting(SwingPivot::type)
+                .containsExactly(SwingPivot.Type.SWING_LOW, SwingPivot.Type.SWING_HIGH);
+
+        SwingPivot high = pivots.get(1);
+        assertThat(high.priceTicks()).isEqualTo(108_560L);
+        assertThat(high.price()).isEqualByComparingTo("1.08560");
+        assertThat(high.timestamp()).isEqualTo(time(3));
+        assertThat(high.confirmedAt()).isEqualTo(time(5));
+        assertThat(pivots.get(0).priceTicks()).isEqualTo(108_460L);
+    }
+
+    @Test
+    @DisplayName("Incrémental identique à la passe unique, barres rejouées ignorées")
+    void testIncrementalMatchesScan() {
+        SwingPivotDetector batch = fractal();
+        batch.scan(times(HIGHS.length), HIGHS, LOWS);
+
+        SwingPivotDetector incremental = fractal();
+        for (int i = 0; i < HIGHS.length; i++) {
+            incremental.onBar(T0 + i * 300L, HIGHS[i], LOWS[i]);
+            incremental.onBar(T0 + i * 300L, HIGHS[i], LOWS[i]); // doublon
+        }
+
+        assertThat(incremental.recent(null, 10)).isEqualTo(batch.recent(null, 10));
+    }
+
+    @Test
+    @DisplayName("Zig-zag : extrême confirmé après un retournement de 5 pips")
+    void testZigZag() {
+        SwingPivotDetector detector = new SwingPivotDetector("EURUSD", "M5", SwingPivotDetector.Mode.ZIGZAG,
+                2, 2, 50, 100);
+        detector.scan(times(HIGHS.length), HIGHS, LOWS);
+
+        List<SwingPivot> pivots = detector.recent(null, 10);
+        assertThat(pivots).extracting(SwingPivot::priceTicks)
+                .containsExactly(108_460L,   // 108460 -> 108515 : 5,5 pips
+                        108_560L,            // 108560 -> 108495 : 6,5 pips
+                        108_490L);           // 108490 -> 108560 : 7 pips
+        assertThat(pivots).extracting(SwingPivot::type).containsExactly(
+                SwingPivot.Type.SWING_LOW, SwingPivot.Type.SWING_HIGH, SwingPivot.Type.SWING_LOW);
+    }
+
+    @Test
+    @DisplayName("Historique borné et filtre par date")
+    void testBoundedHistory() {
+        SwingPivotDetector detector = new SwingPivotDetector("EURUSD", "M5", SwingPivotDetector.Mode.FRACTAL,
+                1, 1, 0, 3);
+        // Dents de scie : un pivot à chaque barre à partir de la deuxième
+        for (int i = 0; i < 20; i++) {
+            long base = i % 2 == 0 ? 108_500 : 108_550;
+            detector.onBar(T0 + i * 300L, base + 10, base - 10);
+        }
+
+        assertThat(detector.size()).isEqualTo(3);
+        assertThat(detector.recent(time(17), 10)).extracting(SwingPivot::timestamp)
+                .containsExactly(time(18), time(17));
+    }
+
+    private static SwingPivotDetector fractal() {
+        return new SwingPivotDetector("EURUSD", "M5", SwingPivotDetector.Mode.FRACTAL, 2, 2, 0, 100);
+    }
+
+    private static long[] times(int count) {
+        long[] times = new long[count];
+        for (int i = 0; i < count; i++) {
+            times[i] = T0 + i * 300L;
+        }
+        return times;
+    }
+
+    private static LocalDateTime time(int index) {
+        return LocalDateTime.ofEpochSecond(T0 + index * 300L, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,97 @@
+package com.scalper;
+
+import com.scalper.model.entity.MarketData;
+import com.scalper.service.market.TickCandleBuilder;
+import com.scalper.service.market.TickCandleBuilder.TickStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests unitaires de la construction de bougies M1 à partir des ticks bid/ask
+ */
+@DisplayName("Tests TickCandleBuilder - ticks vers M1")
+class TickCandleBuilderTest {
+
+    private static final long LONDON_OPEN_MS = LocalDateTime.of(2025, 1, 15, 8, 0)
+            .toEpochSecond(ZoneOffset.UTC) * 1000;
+
+    private final List<MarketData> closed = new ArrayList<>();
+    private TickStream stream;
+
+    @BeforeEach
+    void setUp() {
+        stream = new TickCandleBuilder(closed::add).openStream("EURUSD", "CTRADER_API");
+    }
+
+    @Test
+    @DisplayName("OHLC sur le bid, volume ticks et spread moyen")
+    void testCandleFromTicks() {
+        stream.onTick(LONDON_OPEN_MS, 108_500, 108_510);
+        stream.onTick(LONDON_OPEN_MS + 10_000, 108_560, 108_570);
+        stream.onTick(LONDON_OPEN_MS + 20_000, 108_480, 108_500);
+        stream.onTick(LONDON_OPEN_MS + 59_999, 108_530, 108_540);
+        assertThat(closed).isEmpty();
+
+        // Premier tick de la minute suivante : clôture
+        stream.onTick(LONDON_OPEN_MS + 60_000, 108_535, 108_545);
+
+        assertThat(closed).hasSize(1);
+        MarketData candle = closed.get(0);
+        assertThat(candle.getTimestamp()).isEqualTo(LocalDateTime.of(2025, 1, 15, 8, 0));
+        assertThat(candle.getOpenPrice()).isEqualTo(new BigDecimal("1.08500"));
+        assertThat(candle.getHighPrice()).isEqualTo(new BigDecimal("1.08560"));
+        assertThat(candle.getLowPrice()).isEqualTo(new BigDecimal("1.08480"));
+        assertThat(candle.getClosePrice()).isEqualTo(new BigDecimal("1.08530"));
+        assertThat(candle.getVolume()).isEqualTo(4L);
+        assertThat(candle.getSpreadPips()).isEqualTo(new BigDecimal("1.3")); // (10+10+20+10)/4 = 12.5 ticks
+        assertThat(candle.getSessionName()).isEqualTo("LONDON");
+        assertThat(candle.getDataSource()).isEqualTo("CTRADER_API");
+    }
+
+    @Test
+    @DisplayName("Heartbeat : clôture sans nouveau tick, ticks tardifs ignorés")
+    void testHeartbeatAndLateTicks() {
+        stream.onTick(LONDON_OPEN_MS, 108_500, 108_510);
+        stream.heartbeat(LONDON_OPEN_MS + 30_000);
+        assertThat(closed).isEmpty();
+
+        stream.heartbeat(LONDON_OPEN_MS + 61_000);
+        assertThat(closed).hasSize(1);
+
+        stream.onTick(LONDON_OPEN_MS + 59_000, 108_700, 108_710);
+        stream.heartbeat(LONDON_OPEN_MS + 180_000);
+        assertThat(closed).hasSize(1);
+        assertThat(stream.getLateTicks()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Heartbeat puis tick de la même minute : M1 émise une seule fois")
+    void testHeartbeatThenSameMinuteTick() {
+        stream.onTick(LONDON_OPEN_MS + 5_000, 108_500, 108_510);
+        stream.onTick(LONDON_OPEN_MS + 20_000, 108_550, 108_560);
+        stream.heartbeat(LONDON_OPEN_MS + 60_500);
+        assertThat(closed).hasSize(1);
+
+        // Tick horodaté dans la minute déjà clôturée (horloge broker en retard)
+        stream.onTick(LONDON_OPEN_MS + 59_800, 108_400, 108_410);
+        assertThat(stream.getLateTicks()).isEqualTo(1);
+
+        stream.onTick(LONDON_OPEN_MS + 61_000, 108_520, 108_530);
+        stream.onTick(LONDON_OPEN_MS + 120_000, 108_530, 108_540);
+        assertThat(closed).hasSize(2);
+        assertThat(closed).extracting(MarketData::getTimestamp).containsExactly(
+                LocalDateTime.of(2025, 1, 15, 8, 0), LocalDateTime.of(2025, 1, 15, 8, 1));
+        assertThat(closed.get(0).getLowPrice()).isEqualTo(new BigDecimal("1.08500"));
+        assertThat(closed.get(1).getOpenPrice()).isEqualTo(new BigDecimal("1.08520"));
+        assertThat(closed.get(1).getVolume()).isEqualTo(1L);
+    }
+}